@@ -0,0 +1,122 @@
+package com.intelijake.mall.common.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process cached value that is reloaded in the background before it goes stale
+ * A value older than refresh-after is still returned while one background load replaces it, so
+ * callers only wait for the database on the first call or after expire-after without any reads.
+ * However many callers poll, the loader runs at most once per refresh interval.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class RefreshAheadValue<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadValue.class);
+
+    private final String name;
+
+    private final Supplier<T> loader;
+
+    private final long refreshAfterMillis;
+
+    private final long expireAfterMillis;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private final ExecutorService refresher;
+
+    private volatile Entry<T> entry;
+
+    /**
+     * @param name Used for the refresh thread and log messages
+     * @param loader Loads the value, typically one query
+     * @param refreshAfterMillis Age after which a read triggers a background reload
+     * @param expireAfterMillis Age after which a read waits for a fresh value, at least refreshAfterMillis
+     */
+    public RefreshAheadValue(String name, Supplier<T> loader, long refreshAfterMillis, long expireAfterMillis) {
+        this.name = name;
+        this.loader = loader;
+        this.refreshAfterMillis = refreshAfterMillis;
+        this.expireAfterMillis = Math.max(expireAfterMillis, refreshAfterMillis);
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public T get() {
+        Entry<T> current = entry;
+        long now = System.currentTimeMillis();
+        if (current == null || now - current.loadedAt > expireAfterMillis) {
+            return loadNow(current);
+        }
+        if (now - current.loadedAt > refreshAfterMillis && refreshing.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                try {
+                    load();
+                } catch (RuntimeException e) {
+                    // Readers keep the previous value until expire-after
+                    logger.warn("Background refresh of {} failed: {}", name, e.getMessage());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+        return current.value;
+    }
+
+    /**
+     * Drop the cached value, the next read loads it again
+     */
+    public void invalidate() {
+        entry = null;
+    }
+
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private T loadNow(Entry<T> seen) {
+        loadLock.lock();
+        try {
+            // Another caller may have loaded it while this one waited
+            Entry<T> current = entry;
+            if (current != null && current != seen) {
+                return current.value;
+            }
+            return load();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private T load() {
+        T value = loader.get();
+        entry = new Entry<>(value, System.currentTimeMillis());
+        return value;
+    }
+
+    private static final class Entry<T> {
+
+        private final T value;
+
+        private final long loadedAt;
+
+        private Entry(T value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
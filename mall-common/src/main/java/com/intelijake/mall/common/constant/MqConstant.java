@@ -4,4 +4,16 @@ public interface MqConstant {
     String DELAY_EXCHANGE = "trade.delay.topic";
     String DELAY_ORDER_QUEUE = "trade.order.delay.queue";
     String DELAY_ORDER_ROUTING_KEY = "order.query";
-}
\ No newline at end of file
+
+    // Order emails published by the order-service email outbox, routing key = email type
+    String EMAIL_EXCHANGE = "mall.email.direct";
+    String EMAIL_ORDER_CONFIRMATION_QUEUE = "mall.email.order-confirmation.queue";
+    String EMAIL_ADMIN_NOTIFICATION_QUEUE = "mall.email.admin-notification.queue";
+    String EMAIL_ORDER_CONFIRMATION_ROUTING_KEY = "order-confirmation";
+    String EMAIL_ADMIN_NOTIFICATION_ROUTING_KEY = "admin-notification";
+
+    // Order status transitions published by order-service after commit, routing key = order.status.<new status>
+    String ORDER_EVENT_EXCHANGE = "mall.order.topic";
+    String ORDER_STATUS_ROUTING_KEY_PREFIX = "order.status.";
+    String STATISTICS_ORDER_STATUS_QUEUE = "mall.statistics.order-status.queue";
+}
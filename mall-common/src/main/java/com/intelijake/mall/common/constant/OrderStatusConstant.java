@@ -4,4 +4,6 @@ public interface OrderStatusConstant {
     Integer ORDER_STATUS_CANCEL = 0;
     Integer ORDER_STATUS_UN_PAIED = 1;
     Integer ORDER_STATUS_PAIED = 2;
+    Integer ORDER_STATUS_SHIPPED = 3;
+    Integer ORDER_STATUS_COMPLETED = 4;
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.intelijake.mall.common.page;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list
+ * Queries fetch limit + 1 rows, of() drops the extra row and uses its presence to tell whether a
+ * next page exists, so no COUNT(*) is needed. A total is only attached when the caller asks for
+ * one, see PageTotalCache.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class CursorPage<T> {
+
+    private final List<T> records;
+
+    private final String nextCursor;
+
+    private Long total;
+
+    public CursorPage(List<T> records, String nextCursor) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @param rows Up to limit + 1 rows in list order
+     * @param limit Page size
+     * @param cursorOf Position of a row
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> records = rows.subList(0, limit);
+        return new CursorPage<>(records, cursorOf.apply(records.get(limit - 1)).encode());
+    }
+
+    public List<T> getRecords() {
+        return records;
+    }
+
+    /**
+     * Token for the next page, null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Number of rows matching the filter, possibly a few seconds old, null when not requested
+     */
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,67 @@
+package com.intelijake.mall.common.page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position in a list ordered by (create_time, id) descending
+ * The next page starts strictly after this position, so SQL can seek through the index instead of
+ * counting an OFFSET of skipped rows. Clients only see the opaque token from encode().
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public final class KeysetCursor {
+
+    private final long time;
+
+    private final long id;
+
+    public KeysetCursor(long time, long id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    public static KeysetCursor of(Date time, long id) {
+        return new KeysetCursor(time.getTime(), id);
+    }
+
+    /**
+     * create_time of the last row returned
+     */
+    public Date getTime() {
+        return new Date(time);
+    }
+
+    /**
+     * Id of the last row returned, breaks ties between rows created in the same second
+     */
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((time + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token Token from encode(), may be blank for the first page
+     * @return Cursor, or null for the first page
+     * @throws IllegalArgumentException if the token was not produced by encode()
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new KeysetCursor(Long.parseLong(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.intelijake.mall.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    @DisplayName("Ids are unique across threads and workers")
+    void testUniquenessUnderContention() throws Exception {
+        int threads = 8;
+        int idsPerThread = 200_000;
+        SnowflakeIdGenerator[] workers = {new SnowflakeIdGenerator(1), new SnowflakeIdGenerator(2)};
+        long[][] results = new long[threads][idsPerThread];
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    SnowflakeIdGenerator generator = workers[index % workers.length];
+                    for (int i = 0; i < idsPerThread; i++) {
+                        results[index][i] = generator.nextId();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS), "Generation should finish in time");
+        executor.shutdown();
+
+        long[] all = Arrays.stream(results).flatMapToLong(Arrays::stream).sorted().toArray();
+        for (int i = 1; i < all.length; i++) {
+            assertNotEquals(all[i - 1], all[i], "Duplicate id generated: " + all[i]);
+        }
+        assertTrue(all[0] > 0, "Ids should be positive");
+    }
+
+    @Test
+    @DisplayName("Contended generation sustains a minimum rate of ids per second")
+    void testThroughput() throws Exception {
+        int threads = 4;
+        long durationNanos = TimeUnit.MILLISECONDS.toNanos(500);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+
+        // Warm up so the measured run is compiled code
+        for (int i = 0; i < 200_000; i++) {
+            generator.nextId();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong generated = new AtomicLong();
+        List<Future<?>> runs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            runs.add(executor.submit(() -> {
+                start.await();
+                long deadline = System.nanoTime() + durationNanos;
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    generator.nextId();
+                    count++;
+                }
+                generated.addAndGet(count);
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> run : runs) {
+            run.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        // A generator issues 4096 ids per millisecond before it borrows ahead, a fraction of that must be reached
+        long idsPerSecond = generated.get() * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        assertTrue(idsPerSecond >= 500_000, "Throughput too low: " + idsPerSecond + " ids/s");
+    }
+
+    @Test
+    @DisplayName("Ids from one worker keep increasing when the clock moves backwards")
+    void testClockMovingBackwards() {
+        AtomicLong now = new AtomicLong(SnowflakeIdGenerator.EPOCH + 10_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, now::get);
+
+        long before = generator.nextId();
+        now.addAndGet(-5_000);
+        long after = generator.nextId();
+
+        assertTrue(after > before, "Id after clock skew should still be greater");
+        assertEquals(7, SnowflakeIdGenerator.extractWorkerId(after));
+    }
+
+    @Test
+    @DisplayName("Exhausted sequence borrows the next millisecond")
+    void testSequenceOverflow() {
+        long frozen = SnowflakeIdGenerator.EPOCH + 1_000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, () -> frozen);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "Ids should be strictly increasing");
+            previous = id;
+        }
+        assertTrue(SnowflakeIdGenerator.extractTimestamp(previous) > frozen, "Timestamp should advance past the frozen clock");
+    }
+
+    @Test
+    @DisplayName("A supplied worker id is read for every id and can stop issuing")
+    void testSuppliedWorkerId() {
+        AtomicLong worker = new AtomicLong(5);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(worker::get, System::currentTimeMillis);
+
+        assertEquals(5, SnowflakeIdGenerator.extractWorkerId(generator.nextId()));
+        worker.set(9);
+        assertEquals(9, SnowflakeIdGenerator.extractWorkerId(generator.nextId()));
+
+        SnowflakeIdGenerator stopped = new SnowflakeIdGenerator(() -> {
+            throw new IllegalStateException("lease lapsed");
+        }, System::currentTimeMillis);
+        assertThrows(IllegalStateException.class, stopped::nextId);
+    }
+
+    @Test
+    @DisplayName("Worker id outside 0-1023 is rejected")
+    void testInvalidWorkerId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+}
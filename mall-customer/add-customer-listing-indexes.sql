@@ -0,0 +1,15 @@
+-- Indexes for keyset pagination of the admin customer list (/customer/list?cursor=)
+-- Pages seek on (create_time, id) newest first; username, email and phone are searched by prefix.
+
+CREATE INDEX idx_customer_listing
+    ON customer (create_time, id);
+
+-- Skip this one if username already has a unique key
+CREATE INDEX idx_customer_username
+    ON customer (username);
+
+CREATE INDEX idx_customer_email
+    ON customer (email);
+
+CREATE INDEX idx_customer_phone
+    ON customer (phone);
@@ -0,0 +1,67 @@
+package com.intelijake.mall.common.util;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Typed view of the claims carried by a verified JWT token
+ * Produced once per verification so callers never have to decode the token again
+ *
+ * @author Likun.Fang
+ * @version 1.0
+ * @since 2025-07-25
+ */
+@Getter
+public class JwtClaims {
+
+    private final Integer userId;
+
+    private final String username;
+
+    private final String email;
+
+    private final Integer status;
+
+    private final String type;
+
+    /**
+     * Expiry instant in epoch milliseconds
+     */
+    private final long expiresAtMillis;
+
+    public JwtClaims(Integer userId, String username, String email, Integer status, String type, long expiresAtMillis) {
+        this.userId = userId;
+        this.username = username;
+        this.email = email;
+        this.status = status;
+        this.type = type;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * Build claims from an already verified token
+     * @param decodedJWT Verified JWT
+     * @return JwtClaims
+     */
+    public static JwtClaims from(DecodedJWT decodedJWT) {
+        Date expiresAt = decodedJWT.getExpiresAt();
+        return new JwtClaims(
+                decodedJWT.getClaim("userId").asInt(),
+                decodedJWT.getClaim("username").asString(),
+                decodedJWT.getClaim("email").asString(),
+                decodedJWT.getClaim("status").asInt(),
+                decodedJWT.getClaim("type").asString(),
+                expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE);
+    }
+
+    /**
+     * Check if the token these claims came from has expired
+     * @param nowMillis Current time in epoch milliseconds
+     * @return true if expired, false otherwise
+     */
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
@@ -1,6 +1,7 @@
 package com.intelijake.mall.customer.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.intelijake.mall.common.page.KeysetCursor;
 import com.intelijake.mall.common.util.JwtUtil;
 import com.intelijake.mall.common.util.PasswordUtil;
 import com.intelijake.mall.common.util.Result;
@@ -250,6 +251,16 @@ public class CustomerController {
      */
     @GetMapping("/list")
     public Result list(CustomerQuery customerQuery) {
+        // A cursor parameter, even an empty one, switches to keyset paging
+        if (customerQuery.getCursor() != null) {
+            KeysetCursor cursor;
+            try {
+                cursor = KeysetCursor.decode(customerQuery.getCursor());
+            } catch (IllegalArgumentException e) {
+                return Result.error(e.getMessage());
+            }
+            return Result.ok(customerService.seekList(customerQuery, cursor));
+        }
         IPage<Customer> page = customerService.list(customerQuery);
         return Result.ok(page);
     }
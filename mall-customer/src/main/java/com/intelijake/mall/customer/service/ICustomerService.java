@@ -2,6 +2,8 @@ package com.intelijake.mall.customer.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.intelijake.mall.common.page.CursorPage;
+import com.intelijake.mall.common.page.KeysetCursor;
 import com.intelijake.mall.pojo.Customer;
 import com.intelijake.mall.pojo.query.CustomerQuery;
 
@@ -24,6 +26,15 @@ public interface ICustomerService extends IService<Customer> {
      */
     IPage<Customer> list(CustomerQuery customerQuery);
 
+    /**
+     * Keyset-paginated customer list, newest first (Admin functionality)
+     * @param customerQuery Search criteria matched as prefixes, limit (capped at KeysetPagination.MAX_LIMIT)
+     *                      and whether to include a total
+     * @param cursor Position after the previous page, null for the first page
+     * @return Customers of the page and the cursor of the next one
+     */
+    CursorPage<Customer> seekList(CustomerQuery customerQuery, KeysetCursor cursor);
+
     /**
      * Customer login authentication
      * @param username Customer username
@@ -5,6 +5,10 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import com.intelijake.mall.common.page.CursorPage;
+import com.intelijake.mall.common.page.KeysetCursor;
+import com.intelijake.mall.common.page.KeysetPagination;
+import com.intelijake.mall.common.page.PageTotalCache;
 import com.intelijake.mall.common.util.PasswordUtil;
 import com.intelijake.mall.customer.mapper.CustomerMapper;
 import com.intelijake.mall.customer.service.ICustomerService;
@@ -14,6 +18,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
 
+import java.util.List;
+
 /**
  * <p>
  *  服务实现类
@@ -28,6 +34,9 @@ public class CustomerServiceImpl extends ServiceImpl<CustomerMapper, Customer> i
     @Autowired
     CustomerMapper customerMapper;
 
+    @Autowired
+    private PageTotalCache pageTotalCache;
+
     @Override
     public IPage<Customer> list(CustomerQuery customerQuery) {
         IPage<Customer> page = new Page<>(customerQuery.getPage(), customerQuery.getLimit());
@@ -39,6 +48,35 @@ public class CustomerServiceImpl extends ServiceImpl<CustomerMapper, Customer> i
         return page;
     }
 
+    @Override
+    public CursorPage<Customer> seekList(CustomerQuery customerQuery, KeysetCursor cursor) {
+        int limit = KeysetPagination.pageSize(customerQuery.getLimit(), 10);
+        QueryWrapper<Customer> filter = buildPrefixFilter(customerQuery);
+
+        // Counted before the seek predicate is added, so the total covers the whole filter
+        Long total = Boolean.TRUE.equals(customerQuery.getWithTotal())
+                ? pageTotalCache.get(PageTotalCache.key("customer", filter), () -> customerMapper.selectCount(filter))
+                : null;
+
+        List<Customer> rows = customerMapper.selectList(KeysetPagination.seek(filter, "create_time", "id", cursor, limit));
+        CursorPage<Customer> page = CursorPage.of(rows, limit,
+                customer -> KeysetCursor.of(customer.getCreateTime(), customer.getId()));
+        page.setTotal(total);
+        return page;
+    }
+
+    /**
+     * Prefix matches only, a leading wildcard would keep the username, email and phone indexes from being used
+     * The OFFSET list keeps its contains matches.
+     */
+    private QueryWrapper<Customer> buildPrefixFilter(CustomerQuery customerQuery) {
+        QueryWrapper<Customer> queryWrapper = new QueryWrapper<>();
+        queryWrapper.likeRight(!ObjectUtils.isEmpty(customerQuery.getUsername()), "username", customerQuery.getUsername());
+        queryWrapper.likeRight(!ObjectUtils.isEmpty(customerQuery.getEmail()), "email", customerQuery.getEmail());
+        queryWrapper.likeRight(!ObjectUtils.isEmpty(customerQuery.getPhone()), "phone", customerQuery.getPhone());
+        return queryWrapper;
+    }
+
     @Override
     public Customer login(String username, String password) {
         // First, find the customer by username
@@ -0,0 +1,34 @@
+package com.intelijake.mall.email.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.rabbit.retry.ImmediateRequeueMessageRecoverer;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ configuration for order emails published by order-service
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    /**
+     * JSON converter using the application ObjectMapper so LocalDateTime fields are handled
+     * the same way as in the HTTP endpoints
+     */
+    @Bean
+    public MessageConverter jsonMessageConverter(ObjectMapper objectMapper) {
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+
+    /**
+     * Requeue order emails that still fail after the listener retries instead of dropping them,
+     * they are redelivered until SendGrid accepts them
+     */
+    @Bean
+    public MessageRecoverer messageRecoverer() {
+        return new ImmediateRequeueMessageRecoverer();
+    }
+}
@@ -0,0 +1,63 @@
+package com.intelijake.mall.email.listener;
+
+import com.intelijake.mall.common.constant.MqConstant;
+import com.intelijake.mall.email.dto.EmailResponse;
+import com.intelijake.mall.email.dto.OrderConfirmationEmailRequest;
+import com.intelijake.mall.email.service.EmailService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Order Email Listener
+ * Consumes order emails published by the order-service email outbox
+ * Only active when email.rabbitmq.enabled=true, otherwise order-service posts to EmailController
+ * Failed sends throw, so the message is retried with backoff and then requeued instead of being acked
+ */
+@Component
+@ConditionalOnProperty(name = "email.rabbitmq.enabled", havingValue = "true")
+public class OrderEmailListener {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEmailListener.class);
+
+    private final EmailService emailService;
+
+    public OrderEmailListener(EmailService emailService) {
+        this.emailService = emailService;
+    }
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(value = MqConstant.EMAIL_ORDER_CONFIRMATION_QUEUE, durable = "true"),
+            exchange = @Exchange(name = MqConstant.EMAIL_EXCHANGE, type = "direct", durable = "true"),
+            key = MqConstant.EMAIL_ORDER_CONFIRMATION_ROUTING_KEY
+    ))
+    public void onOrderConfirmation(OrderConfirmationEmailRequest request) {
+        log.info("📧 Received order confirmation message for order: {}", request.getOrderNo());
+        check(emailService.sendOrderConfirmationEmail(request), request);
+    }
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(value = MqConstant.EMAIL_ADMIN_NOTIFICATION_QUEUE, durable = "true"),
+            exchange = @Exchange(name = MqConstant.EMAIL_EXCHANGE, type = "direct", durable = "true"),
+            key = MqConstant.EMAIL_ADMIN_NOTIFICATION_ROUTING_KEY
+    ))
+    public void onAdminNotification(OrderConfirmationEmailRequest request) {
+        log.info("📧 Received admin notification message for order: {}", request.getOrderNo());
+        check(emailService.sendAdminNotificationEmail(request), request);
+    }
+
+    /**
+     * SendGrid failures are reported in the response rather than thrown, rethrow them so the message is not acked
+     */
+    private void check(EmailResponse response, OrderConfirmationEmailRequest request) {
+        if (!response.isSuccess()) {
+            log.error("❌ Failed to send email for order {}: {}", request.getOrderNo(), response.getMessage());
+            throw new IllegalStateException("Failed to send email for order " + request.getOrderNo() + ": " + response.getMessage());
+        }
+    }
+}
@@ -36,6 +36,11 @@ public class JwtUtil {
     // Algorithm for signing
     private static final Algorithm ALGORITHM = Algorithm.HMAC256(SECRET_KEY);
 
+    // Verifier is immutable and thread-safe, so one instance is shared by all callers
+    private static final JWTVerifier VERIFIER = JWT.require(ALGORITHM)
+            .withIssuer(ISSUER)
+            .build();
+
     /**
      * Generate JWT token for user
      * @param userId User ID
@@ -80,10 +85,18 @@ public class JwtUtil {
      * @throws JWTVerificationException if token is invalid
      */
     public static DecodedJWT validateToken(String token) throws JWTVerificationException {
-        JWTVerifier verifier = JWT.require(ALGORITHM)
-                .withIssuer(ISSUER)
-                .build();
-        return verifier.verify(token);
+        return VERIFIER.verify(token);
+    }
+
+    /**
+     * Verify JWT token once and return its typed claims
+     * Signature, issuer and expiry are all checked by this single verification
+     * @param token JWT token string
+     * @return JwtClaims of the verified token
+     * @throws JWTVerificationException if token is invalid or expired
+     */
+    public static JwtClaims verify(String token) throws JWTVerificationException {
+        return JwtClaims.from(VERIFIER.verify(token));
     }
 
     /**
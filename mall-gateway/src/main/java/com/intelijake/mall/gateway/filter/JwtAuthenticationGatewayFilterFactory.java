@@ -1,7 +1,8 @@
 package com.intelijake.mall.gateway.filter;
 
 
-import com.intelijake.mall.common.util.JwtUtil;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.intelijake.mall.common.util.JwtClaims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -14,7 +15,6 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
 
 /**
  * JWT Authentication Gateway Filter Factory
@@ -29,8 +29,11 @@ public class JwtAuthenticationGatewayFilterFactory extends AbstractGatewayFilter
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationGatewayFilterFactory.class);
 
-    public JwtAuthenticationGatewayFilterFactory() {
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public JwtAuthenticationGatewayFilterFactory(VerifiedTokenCache verifiedTokenCache) {
         super(Config.class);
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @Override
@@ -61,21 +64,13 @@ public class JwtAuthenticationGatewayFilterFactory extends AbstractGatewayFilter
                 String token = authHeader.substring(7);
                 logger.info("🔑 JWT Filter: Extracted token (length: {})", token.length());
 
-                // Validate JWT token using JwtUtil
-                JwtUtil.validateToken(token);
+                // Verify once (signature, issuer and expiry) or reuse a recent verification
+                JwtClaims claims = verifiedTokenCache.verify(token);
                 logger.info("✅ JWT Filter: Token validation successful");
 
-                // Check if token is expired
-                if (JwtUtil.isTokenExpired(token)) {
-                    logger.warn("⏰ JWT Filter: Token expired for {} {}", method, path);
-                    return onError(exchange, "Token expired", HttpStatus.UNAUTHORIZED);
-                }
-
-                // Extract user information from token
-                Map<String, Object> userInfo = JwtUtil.extractUserInfo(token);
-                String userId = userInfo.get("userId") != null ? userInfo.get("userId").toString() : null;
-                String username = (String) userInfo.get("username");
-                String email = userInfo.get("email") != null ? userInfo.get("email").toString() : "";
+                String userId = claims.getUserId() != null ? claims.getUserId().toString() : null;
+                String username = claims.getUsername();
+                String email = claims.getEmail() != null ? claims.getEmail() : "";
 
                 logger.info("👤 JWT Filter: Extracted user info - ID: {}, Username: {}, Email: {}", userId, username, email);
 
@@ -92,6 +87,9 @@ public class JwtAuthenticationGatewayFilterFactory extends AbstractGatewayFilter
                 // Continue with the modified request
                 return chain.filter(exchange.mutate().request(modifiedRequest).build());
 
+            } catch (TokenExpiredException e) {
+                logger.warn("⏰ JWT Filter: Token expired for {} {}", method, path);
+                return onError(exchange, "Token expired", HttpStatus.UNAUTHORIZED);
             } catch (Exception e) {
                 logger.error("💥 JWT Filter: Authentication error for {} {}: {}", method, path, e.getMessage(), e);
 
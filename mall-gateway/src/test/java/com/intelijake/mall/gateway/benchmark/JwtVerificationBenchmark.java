@@ -0,0 +1,108 @@
+package com.intelijake.mall.gateway.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.intelijake.mall.common.util.JwtClaims;
+import com.intelijake.mall.common.util.JwtUtil;
+import com.intelijake.mall.gateway.filter.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the gateway's previous three-verification JWT path with the single-pass path
+ * and the cached path used by JwtAuthenticationGatewayFilterFactory.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.intelijake.mall.gateway.benchmark.JwtVerificationBenchmark
+ *
+ * @author Likun.Fang
+ * @version 1.0
+ * @since 2025-07-25
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    // Same secret and issuer JwtUtil signs with
+    private static final Algorithm ALGORITHM = Algorithm.HMAC256("mall-cloud-jwt-secret-key-2025");
+    private static final String ISSUER = "mall-system";
+
+    private String token;
+
+    private VerifiedTokenCache cache;
+
+    @Setup
+    public void setup() {
+        token = JwtUtil.generateToken(42, "benchmark", "benchmark@example.com", 1);
+        cache = new VerifiedTokenCache(10000, 300);
+        cache.verify(token);
+    }
+
+    /**
+     * Previous filter path: validateToken, isTokenExpired and extractUserInfo,
+     * each building its own verifier and verifying the signature again
+     */
+    @Benchmark
+    public Map<String, Object> legacyTripleVerification() {
+        legacyValidate(token);
+        boolean expired;
+        try {
+            expired = legacyValidate(token).getExpiresAt().before(new Date());
+        } catch (Exception e) {
+            expired = true;
+        }
+        if (expired) {
+            return null;
+        }
+        DecodedJWT decodedJWT = legacyValidate(token);
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("userId", decodedJWT.getClaim("userId").asInt());
+        userInfo.put("username", decodedJWT.getClaim("username").asString());
+        userInfo.put("email", decodedJWT.getClaim("email").asString());
+        userInfo.put("status", decodedJWT.getClaim("status").asInt());
+        userInfo.put("type", decodedJWT.getClaim("type").asString());
+        return userInfo;
+    }
+
+    /**
+     * Single verification with the shared verifier
+     */
+    @Benchmark
+    public JwtClaims singleVerification() {
+        return JwtUtil.verify(token);
+    }
+
+    /**
+     * Repeat request with a token already in the verified-token cache
+     */
+    @Benchmark
+    public JwtClaims cachedVerification() {
+        return cache.verify(token);
+    }
+
+    private static DecodedJWT legacyValidate(String token) {
+        return JWT.require(ALGORITHM)
+                .withIssuer(ISSUER)
+                .build()
+                .verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,6 @@
+-- Recipient columns of the email outbox, captured at checkout so the dispatcher no longer looks up the customer.
+-- Run after create-email-outbox.sql; rows written before this keep NULL and fall back to the lookup.
+
+ALTER TABLE email_outbox
+    ADD COLUMN customer_email VARCHAR(255) NULL COMMENT 'Recipient captured at checkout, looked up on dispatch when NULL' AFTER email_type,
+    ADD COLUMN customer_name  VARCHAR(100) NULL COMMENT 'Recipient name captured at checkout' AFTER customer_email;
@@ -0,0 +1,9 @@
+-- Indexes for keyset pagination of the admin order list (/order/list?cursor=)
+-- Pages seek on (create_time, order_no) newest first, with or without a status filter.
+-- Order number prefix search is turned into order_no ranges and uses the primary key.
+
+CREATE INDEX idx_order_listing
+    ON customer_order (create_time, order_no);
+
+CREATE INDEX idx_order_status_listing
+    ON customer_order (status, create_time, order_no);
@@ -0,0 +1,21 @@
+-- Email outbox for order-service
+-- Rows are written in the same transaction as the order and drained by EmailOutboxDispatcher
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id                BIGINT       NOT NULL AUTO_INCREMENT COMMENT 'Outbox ID',
+    order_no          BIGINT       NOT NULL COMMENT 'Related order number',
+    user_id           INT          NOT NULL COMMENT 'Customer user ID',
+    email_type        VARCHAR(32)  NOT NULL COMMENT 'order-confirmation, admin-notification',
+    status            TINYINT      NOT NULL DEFAULT 0 COMMENT '0=pending, 1=sent, 2=failed, 3=in progress',
+    attempts          INT          NOT NULL DEFAULT 0 COMMENT 'Delivery attempts so far',
+    next_attempt_time DATETIME     NOT NULL COMMENT 'Earliest time of the next attempt',
+    claim_token       VARCHAR(64)  NULL COMMENT 'Dispatcher run that claimed the row',
+    claim_time        DATETIME     NULL COMMENT 'When the row was claimed',
+    last_error        VARCHAR(512) NULL COMMENT 'Last delivery error',
+    create_time       DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time       DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    KEY idx_status_next_attempt (status, next_attempt_time),
+    KEY idx_claim_token (claim_token),
+    KEY idx_order_no (order_no)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = 'Order email outbox';
@@ -0,0 +1,8 @@
+package com.intelijake.mall.common.constant;
+
+public interface EmailOutboxStatusConstant {
+    Integer PENDING = 0;
+    Integer SENT = 1;
+    Integer FAILED = 2;
+    Integer IN_PROGRESS = 3;
+}
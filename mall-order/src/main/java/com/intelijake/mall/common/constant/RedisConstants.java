@@ -13,5 +13,9 @@ public class RedisConstants {
     public static final String UPLOAD_IMAGE = "uploadImage";
     public static final String UPLOAD_IMAGE_TO_DB = "uploadImageToDB";
 
+    // Snowflake worker id leases held by order-service instances
+    public static final String SNOWFLAKE_ORDER_WORKER = "snowflake:order:worker:";
+    public static final String SNOWFLAKE_ORDER_WORKER_CURSOR = "snowflake:order:worker:cursor";
+
 
 }
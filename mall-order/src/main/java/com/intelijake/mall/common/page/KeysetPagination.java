@@ -0,0 +1,127 @@
+package com.intelijake.mall.common.page;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * QueryWrapper helpers for keyset (seek) pagination, the alternative to OFFSET paging through
+ * PaginationInnerInterceptor for lists that are paged deeply
+ * Pages are ordered by (time, id) descending and start strictly after a KeysetCursor, so every page
+ * costs an index range scan of limit + 1 rows however deep it is.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public final class KeysetPagination {
+
+    /**
+     * Largest page a client may request, larger limits are cut down to it
+     */
+    public static final int MAX_LIMIT = 100;
+
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private static final int MAX_LONG_DIGITS = 19;
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Page size for a requested limit, the default when none is given, never more than MAX_LIMIT
+     */
+    public static int pageSize(Integer limit, int defaultLimit) {
+        int size = limit == null || limit < 1 ? defaultLimit : limit;
+        return Math.min(size, MAX_LIMIT);
+    }
+
+    /**
+     * Restrict a filter to the rows after the cursor, newest first, fetching one extra row for CursorPage.of()
+     * @param wrapper Filter conditions, the seek predicate is and-ed to them
+     * @param timeColumn Creation time column
+     * @param idColumn Unique column breaking ties between rows with the same time
+     * @param cursor Position after the previous page, null for the first page
+     * @param limit Page size, see pageSize()
+     * @throws IllegalArgumentException if limit is not between 1 and MAX_LIMIT
+     */
+    public static <T> QueryWrapper<T> seek(QueryWrapper<T> wrapper, String timeColumn, String idColumn,
+                                           KeysetCursor cursor, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+        if (cursor != null) {
+            Date time = cursor.getTime();
+            long id = cursor.getId();
+            wrapper.and(w -> w.lt(timeColumn, time).or(o -> o.eq(timeColumn, time).lt(idColumn, id)));
+        }
+        wrapper.orderByDesc(timeColumn, idColumn);
+        wrapper.last("LIMIT " + (limit + 1));
+        return wrapper;
+    }
+
+    /**
+     * Match numbers whose decimal form starts with the given digits
+     * LIKE on a numeric column casts every row and cannot use an index, the same match expressed as
+     * one BETWEEN range per possible number length can.
+     * @param wrapper Filter conditions
+     * @param column BIGINT column
+     * @param digits Prefix typed by the user
+     * @throws IllegalArgumentException if digits is not a run of decimal digits
+     */
+    public static <T> QueryWrapper<T> numericPrefix(QueryWrapper<T> wrapper, String column, String digits) {
+        List<long[]> ranges = prefixRanges(digits);
+        if (ranges.isEmpty()) {
+            wrapper.apply("1 = 0");
+            return wrapper;
+        }
+        wrapper.and(w -> {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                if (i > 0) {
+                    w.or();
+                }
+                w.between(column, range[0], range[1]);
+            }
+        });
+        return wrapper;
+    }
+
+    /**
+     * Inclusive [low, high] ranges of the non-negative longs starting with the given digits
+     */
+    static List<long[]> prefixRanges(String digits) {
+        if (digits == null || digits.isEmpty() || !digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IllegalArgumentException("Not a number prefix: " + digits);
+        }
+        List<long[]> ranges = new ArrayList<>();
+        if (digits.length() > MAX_LONG_DIGITS) {
+            return ranges;
+        }
+        // Only zero itself is written with a leading zero
+        if (digits.charAt(0) == '0') {
+            if (digits.length() == 1) {
+                ranges.add(new long[]{0, 0});
+            }
+            return ranges;
+        }
+        BigInteger prefix = new BigInteger(digits);
+        if (prefix.compareTo(MAX_LONG) > 0) {
+            return ranges;
+        }
+        ranges.add(new long[]{prefix.longValue(), prefix.longValue()});
+        BigInteger scale = BigInteger.ONE;
+        for (int length = digits.length() + 1; length <= MAX_LONG_DIGITS; length++) {
+            scale = scale.multiply(BigInteger.TEN);
+            BigInteger low = prefix.multiply(scale);
+            if (low.compareTo(MAX_LONG) > 0) {
+                break;
+            }
+            BigInteger high = prefix.add(BigInteger.ONE).multiply(scale).subtract(BigInteger.ONE).min(MAX_LONG);
+            ranges.add(new long[]{low.longValue(), high.longValue()});
+        }
+        return ranges;
+    }
+}
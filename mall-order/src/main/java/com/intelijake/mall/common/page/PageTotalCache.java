@@ -0,0 +1,59 @@
+package com.intelijake.mall.common.page;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of COUNT(*) results for keyset-paginated lists
+ * Admin screens page through the same filter several times in a row, the total is counted once per
+ * filter and reused for ttl-ms, so it may lag behind by that much. The cache is cleared as a whole
+ * when it reaches max-size.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class PageTotalCache {
+
+    private final Map<String, long[]> totals = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+
+    private final int maxSize;
+
+    public PageTotalCache(@Value("${page.total-cache.ttl-ms:30000}") long ttlMillis,
+                          @Value("${page.total-cache.max-size:1000}") int maxSize) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param key Table and filter, see key()
+     * @param counter Runs the COUNT(*) when there is no fresh total
+     */
+    public long get(String key, LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        long[] cached = totals.get(key);
+        if (cached != null && cached[1] > now) {
+            return cached[0];
+        }
+        long total = counter.getAsLong();
+        if (totals.size() >= maxSize) {
+            totals.clear();
+        }
+        totals.put(key, new long[]{total, now + ttlMillis});
+        return total;
+    }
+
+    /**
+     * Cache key of a filter: its SQL segment with the bound values
+     */
+    public static String key(String table, QueryWrapper<?> filter) {
+        return table + ":" + filter.getCustomSqlSegment() + ":" + filter.getParamNameValuePairs();
+    }
+}
@@ -0,0 +1,126 @@
+package com.intelijake.mall.common.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * ClassName: SnowflakeIdGenerator
+ * Description:
+ * <p>
+ * Lock-free Snowflake style id generator
+ * Layout (63 bits): 41 bits milliseconds since EPOCH | 10 bits worker id | 12 bits sequence
+ * The last issued timestamp and sequence are packed into one AtomicLong and advanced with CAS,
+ * so concurrent callers never block each other.
+ * If the wall clock moves backwards the generator keeps counting on its own logical clock
+ * instead of failing, and when a millisecond's 4096 sequence values are used up it borrows the
+ * next millisecond, so ids stay unique and increasing for one worker.
+ * <p>
+ * Datetime: 2025/8/12 21:40
+ * Author: @Likun.Fang
+ * Version: 1.0
+ */
+public class SnowflakeIdGenerator {
+
+    /**
+     * Custom epoch 2025-01-01T00:00:00Z, leaves ~69 years of timestamps
+     */
+    public static final long EPOCH = 1735689600000L;
+
+    public static final int WORKER_ID_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+
+    public static final long MAX_WORKER_ID = (1L << WORKER_ID_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int WORKER_ID_SHIFT = SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+
+    private final LongSupplier workerId;
+
+    private final LongSupplier clock;
+
+    /**
+     * (timestamp - EPOCH) << SEQUENCE_BITS | sequence of the last issued id
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long workerId) {
+        this(workerId, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(long workerId, LongSupplier clock) {
+        this(fixed(workerId), clock);
+    }
+
+    /**
+     * Worker id read for every id, for workers whose id can change while running (e.g. a re-leased id)
+     * The supplier may throw to stop ids from being issued while the worker has no valid id.
+     */
+    public SnowflakeIdGenerator(LongSupplier workerId, LongSupplier clock) {
+        this.workerId = workerId;
+        this.clock = clock;
+    }
+
+    private static LongSupplier fixed(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID + ": " + workerId);
+        }
+        return () -> workerId;
+    }
+
+    /**
+     * Generate the next id
+     * @return unique id for this worker
+     */
+    public long nextId() {
+        long worker = workerId.getAsLong();
+        if (worker < 0 || worker > MAX_WORKER_ID) {
+            throw new IllegalStateException("Worker id must be between 0 and " + MAX_WORKER_ID + ": " + worker);
+        }
+        for (;;) {
+            long current = state.get();
+            long lastTimestamp = current >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH;
+
+            long next;
+            if (now > lastTimestamp) {
+                // New millisecond, restart the sequence
+                next = now << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                // Same millisecond, or clock moved backwards: continue on the logical clock
+                next = current + 1;
+            } else {
+                // Sequence exhausted: borrow the next millisecond
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT)
+                        | (worker << WORKER_ID_SHIFT)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public long getWorkerId() {
+        return workerId.getAsLong();
+    }
+
+    /**
+     * Extract the timestamp part of an id
+     * @param id id issued by any worker
+     * @return epoch milliseconds encoded in the id
+     */
+    public static long extractTimestamp(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    /**
+     * Extract the worker id part of an id
+     * @param id id issued by any worker
+     * @return worker id encoded in the id
+     */
+    public static long extractWorkerId(long id) {
+        return (id >>> WORKER_ID_SHIFT) & MAX_WORKER_ID;
+    }
+}
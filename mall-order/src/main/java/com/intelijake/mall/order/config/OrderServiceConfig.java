@@ -1,5 +1,9 @@
 package com.intelijake.mall.order.config;
 
+import com.intelijake.mall.common.constant.MqConstant;
+import com.intelijake.mall.common.util.SnowflakeIdGenerator;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
@@ -11,5 +15,19 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class OrderServiceConfig {
 
-    // Configuration for order service
+    /**
+     * Order number generator, unique across all order-service instances
+     */
+    @Bean
+    public SnowflakeIdGenerator orderNoGenerator(SnowflakeWorkerIdAssigner workerIdAssigner) {
+        return new SnowflakeIdGenerator(workerIdAssigner::currentWorkerId, System::currentTimeMillis);
+    }
+
+    /**
+     * Exchange for order status events, declared here so publishing works before any consumer has bound to it
+     */
+    @Bean
+    public TopicExchange orderEventExchange() {
+        return new TopicExchange(MqConstant.ORDER_EVENT_EXCHANGE, true, false);
+    }
 }
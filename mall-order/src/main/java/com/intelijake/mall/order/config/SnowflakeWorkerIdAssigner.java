@@ -0,0 +1,162 @@
+package com.intelijake.mall.order.config;
+
+import com.intelijake.mall.common.constant.RedisConstants;
+import com.intelijake.mall.common.util.SnowflakeIdGenerator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Snowflake Worker Id Assigner
+ * Hands out a distinct Snowflake worker id to every running order-service instance.
+ * Each instance leases one of the 1024 ids through a Redis key with a TTL and keeps renewing it,
+ * so ids of crashed instances become free again once their lease expires.
+ * No ids are issued while the lease is not known to be held: an id taken over by another instance is
+ * replaced by a newly leased one, and startup fails if Redis cannot lease any id.
+ * A fixed id can be configured with order.snowflake.worker-id to bypass Redis.
+ *
+ * @author Jake
+ * @since 2025-08-12
+ */
+@Component
+public class SnowflakeWorkerIdAssigner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeWorkerIdAssigner.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Duration lease;
+
+    private final String instanceToken = UUID.randomUUID().toString();
+
+    private final boolean leased;
+
+    private volatile long workerId;
+
+    // System.nanoTime() until which the lease is known to be held
+    private volatile long leaseValidUntil;
+
+    public SnowflakeWorkerIdAssigner(StringRedisTemplate stringRedisTemplate,
+                                     @Value("${order.snowflake.worker-id:-1}") long configuredWorkerId,
+                                     @Value("${order.snowflake.lease-seconds:60}") long leaseSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+
+        if (configuredWorkerId >= 0) {
+            this.workerId = configuredWorkerId;
+            this.leased = false;
+            logger.info("Using configured Snowflake worker id {}", workerId);
+        } else {
+            this.leased = true;
+            long started = System.nanoTime();
+            long acquired = acquire();
+            if (acquired < 0) {
+                throw new IllegalStateException("Could not lease a Snowflake worker id from Redis; "
+                        + "configure a unique order.snowflake.worker-id to run without it");
+            }
+            this.workerId = acquired;
+            this.leaseValidUntil = started + lease.toNanos();
+        }
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Worker id to issue ids with
+     * @throws IllegalStateException while the lease may have lapsed, as another instance could hold the id
+     */
+    public long currentWorkerId() {
+        if (leased && System.nanoTime() - leaseValidUntil >= 0) {
+            throw new IllegalStateException("Snowflake worker id lease has lapsed, not issuing ids until it is renewed");
+        }
+        return workerId;
+    }
+
+    /**
+     * Try every worker id once, starting from a shared cursor so instances spread out
+     * @return leased worker id, or -1 if none could be leased
+     */
+    private long acquire() {
+        try {
+            Long cursor = stringRedisTemplate.opsForValue().increment(RedisConstants.SNOWFLAKE_ORDER_WORKER_CURSOR);
+            long start = cursor != null ? cursor : 0;
+            for (long i = 0; i <= SnowflakeIdGenerator.MAX_WORKER_ID; i++) {
+                long candidate = (start + i) & SnowflakeIdGenerator.MAX_WORKER_ID;
+                Boolean ok = stringRedisTemplate.opsForValue()
+                        .setIfAbsent(RedisConstants.SNOWFLAKE_ORDER_WORKER + candidate, instanceToken, lease);
+                if (Boolean.TRUE.equals(ok)) {
+                    logger.info("Leased Snowflake worker id {}", candidate);
+                    return candidate;
+                }
+            }
+            logger.error("All {} Snowflake worker ids are leased", SnowflakeIdGenerator.MAX_WORKER_ID + 1);
+        } catch (Exception e) {
+            logger.error("Error leasing Snowflake worker id: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Renew the lease well before it expires, or lease another id if this one was taken over
+     */
+    @Scheduled(fixedDelayString = "${order.snowflake.renew-interval-ms:20000}")
+    public void renew() {
+        if (!leased) {
+            return;
+        }
+        long started = System.nanoTime();
+        String key = RedisConstants.SNOWFLAKE_ORDER_WORKER + workerId;
+        try {
+            String owner = stringRedisTemplate.opsForValue().get(key);
+            boolean held;
+            if (instanceToken.equals(owner)) {
+                held = Boolean.TRUE.equals(stringRedisTemplate.expire(key, lease));
+            } else if (owner == null) {
+                // Lease lapsed (e.g. Redis restart), take it back if nobody else did
+                held = Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, instanceToken, lease));
+            } else {
+                held = false;
+            }
+            if (held) {
+                leaseValidUntil = started + lease.toNanos();
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("Error renewing Snowflake worker id {}: {}", workerId, e.getMessage());
+            return;
+        }
+
+        // Another instance issues ids with this worker id now; stop using it and lease a free one
+        logger.error("Snowflake worker id {} is now leased by another instance", workerId);
+        leaseValidUntil = started;
+        long acquired = acquire();
+        if (acquired >= 0) {
+            workerId = acquired;
+            leaseValidUntil = started + lease.toNanos();
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        if (!leased) {
+            return;
+        }
+        String key = RedisConstants.SNOWFLAKE_ORDER_WORKER + workerId;
+        try {
+            if (instanceToken.equals(stringRedisTemplate.opsForValue().get(key))) {
+                stringRedisTemplate.delete(key);
+            }
+        } catch (Exception e) {
+            logger.warn("Error releasing Snowflake worker id {}: {}", workerId, e.getMessage());
+        }
+    }
+}
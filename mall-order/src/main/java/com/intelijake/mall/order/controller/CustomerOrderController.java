@@ -6,12 +6,15 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 
 import com.intelijake.mall.order.dto.OrderCreateDTO;
 import com.intelijake.mall.common.context.UserContext;
+import com.intelijake.mall.common.page.KeysetCursor;
+import com.intelijake.mall.common.page.KeysetPagination;
 import com.intelijake.mall.common.util.Result;
 
 import com.intelijake.mall.order.service.ICustomerOrderService;
 import com.intelijake.mall.order.service.IOrderItemService;
 import com.intelijake.mall.order.service.CustomerServiceClient;
 import com.intelijake.mall.order.vo.OrderDetailVO;
+import com.intelijake.mall.order.vo.OrderStatusTransitionVO;
 import com.intelijake.mall.pojo.CustomerOrder;
 import com.intelijake.mall.pojo.OrderItem;
 import com.intelijake.mall.pojo.ShippingAddress;
@@ -201,21 +204,37 @@ public class CustomerOrderController {
 
     /**
      * Get paginated order list for admin
+     * Without cursor the list is OFFSET-paged with page and limit. With cursor (empty for the first
+     * page) it is keyset-paged: pass back nextCursor for the following page, and withTotal=true to
+     * get a briefly cached total; orderNo then matches order numbers starting with the given digits,
+     * and limit is capped at KeysetPagination.MAX_LIMIT.
      */
     @GetMapping("/list")
-    public Result<IPage<CustomerOrder>> list(
+    public Result<?> list(
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "10") Integer limit,
             @RequestParam(required = false) String orderNo,
             @RequestParam(required = false) Integer status,
-            @RequestParam(required = false) String customerName) {
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
 
-        Page<CustomerOrder> pageObj = new Page<>(page, limit);
         QueryWrapper<CustomerOrder> wrapper = new QueryWrapper<>();
-
-        // Add search conditions
-        if (orderNo != null && !orderNo.trim().isEmpty()) {
-            wrapper.like("order_no", orderNo);
+        KeysetCursor position;
+        try {
+            position = KeysetCursor.decode(cursor);
+
+            // Add search conditions
+            if (orderNo != null && !orderNo.trim().isEmpty()) {
+                if (cursor != null) {
+                    // Prefix match as primary key ranges, LIKE on the BIGINT column would scan every order
+                    KeysetPagination.numericPrefix(wrapper, "order_no", orderNo.trim());
+                } else {
+                    wrapper.like("order_no", orderNo);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return Result.error(e.getMessage());
         }
         if (status != null) {
             wrapper.eq("status", status);
@@ -223,6 +242,11 @@ public class CustomerOrderController {
         // Note: customerName search would require joining with customer table
         // For now, we'll implement basic search
 
+        if (cursor != null) {
+            return Result.ok(customerOrderService.seekPage(wrapper, position, limit, withTotal));
+        }
+
+        Page<CustomerOrder> pageObj = new Page<>(page, limit);
         wrapper.orderByDesc("create_time");
         IPage<CustomerOrder> result = customerOrderService.page(pageObj, wrapper);
 
@@ -245,28 +269,57 @@ public class CustomerOrderController {
 
     /**
      * Update order status
+     * Accepts a single orderNo or a list of orderNos. With currentStatus the update is a single
+     * optimistic transition, without it the current status of a single order is read first.
      */
     @PutMapping("/updateStatus")
-    public Result<String> updateOrderStatus(@RequestBody Map<String, Object> params) {
-        Long orderNo = Long.valueOf(params.get("orderNo").toString());
+    public Result<OrderStatusTransitionVO> updateOrderStatus(@RequestBody Map<String, Object> params) {
+        if (params.get("status") == null) {
+            return Result.error("Status is required");
+        }
         Integer status = Integer.valueOf(params.get("status").toString());
 
-        QueryWrapper<CustomerOrder> wrapper = new QueryWrapper<>();
-        wrapper.eq("order_no", orderNo);
-
-        CustomerOrder order = customerOrderService.getOne(wrapper);
-        if (order == null) {
-            return Result.error("Order not found");
+        List<Long> orderNos = new ArrayList<>();
+        if (params.get("orderNos") instanceof List<?> list) {
+            for (Object orderNo : list) {
+                orderNos.add(Long.valueOf(orderNo.toString()));
+            }
+        } else if (params.get("orderNo") != null) {
+            orderNos.add(Long.valueOf(params.get("orderNo").toString()));
+        }
+        if (orderNos.isEmpty()) {
+            return Result.error("Order number is required");
         }
 
-        order.setStatus(status);
-        boolean updated = customerOrderService.updateById(order);
-
-        if (updated) {
-            return Result.ok("Order status updated successfully");
+        Integer currentStatus;
+        if (params.get("currentStatus") != null) {
+            currentStatus = Integer.valueOf(params.get("currentStatus").toString());
+        } else if (orderNos.size() == 1) {
+            CustomerOrder order = customerOrderService.getById(orderNos.get(0));
+            if (order == null) {
+                return Result.error("Order not found");
+            }
+            currentStatus = order.getStatus();
         } else {
+            return Result.error("currentStatus is required when updating several orders");
+        }
+
+        OrderStatusTransitionVO result = customerOrderService.transitionStatus(orderNos, currentStatus, status);
+        if (result.getTransitioned().isEmpty()) {
             return Result.error("Failed to update order status");
         }
+        return Result.ok(result);
+    }
+
+    /**
+     * Cancel unpaid orders in bulk
+     */
+    @PutMapping("/cancelBatch")
+    public Result<OrderStatusTransitionVO> cancelBatch(@RequestBody List<Long> orderNos) {
+        if (orderNos == null || orderNos.isEmpty()) {
+            return Result.error("Order numbers are required");
+        }
+        return Result.ok(customerOrderService.cancelBatch(orderNos));
     }
 
     /**
@@ -316,29 +369,7 @@ public class CustomerOrderController {
      */
     @GetMapping("/statistics")
     public Result<Map<String, Object>> getOrderStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-
-        // Total orders
-        long totalOrders = customerOrderService.count();
-        stats.put("totalOrders", totalOrders);
-
-        // Pending orders (status = 1)
-        QueryWrapper<CustomerOrder> pendingWrapper = new QueryWrapper<>();
-        pendingWrapper.eq("status", 1);
-        long pendingOrders = customerOrderService.count(pendingWrapper);
-        stats.put("pendingOrders", pendingOrders);
-
-        // Completed orders (status = 4)
-        QueryWrapper<CustomerOrder> completedWrapper = new QueryWrapper<>();
-        completedWrapper.eq("status", 4);
-        long completedOrders = customerOrderService.count(completedWrapper);
-        stats.put("completedOrders", completedOrders);
-
-        // Total revenue (sum of payment_amount for completed orders)
-        // This would require a custom query, for now we'll set a placeholder
-        stats.put("totalRevenue", 0.0);
-
-        return Result.ok(stats);
+        return Result.ok(customerOrderService.getDashboardStatistics());
     }
 
     /**
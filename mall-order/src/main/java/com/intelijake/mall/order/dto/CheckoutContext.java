@@ -0,0 +1,34 @@
+package com.intelijake.mall.order.dto;
+
+import com.intelijake.mall.order.service.CustomerServiceClient;
+import com.intelijake.mall.pojo.ShippingAddress;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checkout Context
+ * Everything order creation needs from the customer service, loaded once per checkout
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Data
+public class CheckoutContext {
+
+    /**
+     * Cart items being checked out, empty if the cart could not be loaded
+     */
+    private List<CartItemDTO> cartItems = new ArrayList<>();
+
+    /**
+     * Customer placing the order, null if not loaded in time
+     */
+    private CustomerServiceClient.CustomerInfo customerInfo;
+
+    /**
+     * Shipping address of the order, null if not loaded in time
+     */
+    private ShippingAddress shippingAddress;
+}
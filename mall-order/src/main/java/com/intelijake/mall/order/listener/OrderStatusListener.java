@@ -20,6 +20,7 @@ import java.util.List;
 /**
  * Order Status Listener
  * Handles delayed order processing and automatic order cancellation
+ * Superseded by OrderPaymentTimeoutTask, which needs no delayed-message plugin; kept for messages still queued
  * 
  * @author Jake
  * @since 2025-07-22
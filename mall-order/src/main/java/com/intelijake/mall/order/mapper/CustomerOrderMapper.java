@@ -2,6 +2,12 @@ package com.intelijake.mall.order.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.intelijake.mall.pojo.CustomerOrder;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -13,4 +19,42 @@ import com.intelijake.mall.pojo.CustomerOrder;
  */
 public interface CustomerOrderMapper extends BaseMapper<CustomerOrder> {
 
+    /**
+     * Lock the given orders that are still in currentStatus, to be called inside a transaction
+     *
+     * @return Order numbers that are locked and safe to transition
+     */
+    List<Long> selectOrderNosForTransition(@Param("orderNos") Collection<Long> orderNos,
+                                           @Param("currentStatus") Integer currentStatus);
+
+    /**
+     * Move the given orders from currentStatus to newStatus in one statement, optimistic lock on the current status
+     *
+     * @return Number of orders transitioned
+     */
+    int updateOrderStatusBatch(@Param("orderNos") Collection<Long> orderNos,
+                               @Param("currentStatus") Integer currentStatus,
+                               @Param("newStatus") Integer newStatus,
+                               @Param("paymentTime") Date paymentTime,
+                               @Param("shippingTime") Date shippingTime,
+                               @Param("endTime") Date endTime,
+                               @Param("closeTime") Date closeTime);
+
+    /**
+     * Page through orders in a status by order number, only order_no and create_time are loaded
+     *
+     * @param status Order status
+     * @param afterOrderNo Exclusive lower bound of order_no
+     * @param limit Page size
+     */
+    List<CustomerOrder> selectOrderNoAndCreateTimeByStatus(@Param("status") Integer status,
+                                                           @Param("afterOrderNo") Long afterOrderNo,
+                                                           @Param("limit") int limit);
+
+    /**
+     * Dashboard counters in one pass over customer_order
+     *
+     * @return totalOrders, pendingOrders, completedOrders and totalRevenue of completed orders
+     */
+    Map<String, Object> selectDashboardCounters();
 }
@@ -0,0 +1,60 @@
+package com.intelijake.mall.order.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.intelijake.mall.pojo.EmailOutbox;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * <p>
+ * Email Outbox Mapper Interface
+ * </p>
+ *
+ * @author Jake
+ * @since 2025-08-14
+ */
+public interface EmailOutboxMapper extends BaseMapper<EmailOutbox> {
+
+    /**
+     * Insert outbox rows with one multi-row INSERT statement
+     *
+     * @param list Outbox rows to insert
+     * @return Number of inserted rows
+     */
+    int batchInsert(@Param("list") List<EmailOutbox> list);
+
+    /**
+     * Claim up to batchSize due pending rows for one dispatcher run
+     *
+     * @param claimToken Token identifying the dispatcher run
+     * @param batchSize Maximum rows to claim
+     * @return Number of claimed rows
+     */
+    int claimDueBatch(@Param("claimToken") String claimToken, @Param("batchSize") int batchSize);
+
+    /**
+     * Get rows claimed by a dispatcher run
+     *
+     * @param claimToken Token identifying the dispatcher run
+     * @return Claimed rows
+     */
+    List<EmailOutbox> selectByClaimToken(@Param("claimToken") String claimToken);
+
+    /**
+     * Mark rows as sent
+     *
+     * @param ids Outbox row IDs
+     * @return Number of updated rows
+     */
+    int markSent(@Param("ids") List<Long> ids);
+
+    /**
+     * Put rows claimed before staleBefore back to pending (dispatcher died mid-run)
+     *
+     * @param staleBefore Claims older than this are released
+     * @return Number of released rows
+     */
+    int releaseStaleClaims(@Param("staleBefore") Date staleBefore);
+}
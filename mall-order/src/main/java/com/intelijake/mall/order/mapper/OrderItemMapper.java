@@ -2,6 +2,9 @@ package com.intelijake.mall.order.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.intelijake.mall.pojo.OrderItem;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * <p>
@@ -13,4 +16,11 @@ import com.intelijake.mall.pojo.OrderItem;
  */
 public interface OrderItemMapper extends BaseMapper<OrderItem> {
 
+    /**
+     * Insert order items with one multi-row INSERT statement
+     *
+     * @param list Order items to insert
+     * @return Number of inserted rows
+     */
+    int batchInsert(@Param("list") List<OrderItem> list);
 }
@@ -0,0 +1,110 @@
+package com.intelijake.mall.order.service;
+
+import com.intelijake.mall.order.dto.CartItemDTO;
+import com.intelijake.mall.order.dto.CheckoutContext;
+import com.intelijake.mall.pojo.ShippingAddress;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checkout Context Loader
+ * Fetches cart items, customer info and shipping address from the customer service concurrently,
+ * so checkout waits for the slowest call instead of the sum of all of them.
+ * The three calls share one deadline; whatever has not arrived by then is left empty.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class CheckoutContextLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutContextLoader.class);
+
+    @Autowired
+    private CustomerServiceClient customerServiceClient;
+
+    @Value("${order.checkout.fetch-timeout-ms:3000}")
+    private long fetchTimeoutMs;
+
+    private final ThreadPoolExecutor executor;
+
+    public CheckoutContextLoader(@Value("${order.checkout.fetch-threads:32}") int fetchThreads) {
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(fetchThreads, fetchThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fetchThreads * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "checkout-fetch-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // When saturated the request thread makes the call itself instead of queueing without bound
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Load everything checkout needs in one round
+     *
+     * @param userId Customer placing the order
+     * @param shippingId Shipping address ID, may be null
+     * @param cartIds Comma-separated cart item IDs, may be empty
+     * @return Checkout context, parts that failed or missed the deadline are empty
+     */
+    public CheckoutContext load(Integer userId, Integer shippingId, String cartIds) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetchTimeoutMs);
+
+        CompletableFuture<List<CartItemDTO>> cartItems = cartIds == null || cartIds.trim().isEmpty()
+                ? CompletableFuture.completedFuture(new ArrayList<>())
+                : CompletableFuture.supplyAsync(() -> customerServiceClient.getCartItemsByIds(cartIds), executor);
+        CompletableFuture<CustomerServiceClient.CustomerInfo> customerInfo = userId == null
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.supplyAsync(() -> customerServiceClient.getCustomerById(userId), executor);
+        CompletableFuture<ShippingAddress> shippingAddress = shippingId == null
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.supplyAsync(() -> customerServiceClient.getShippingAddressById(shippingId), executor);
+
+        CheckoutContext context = new CheckoutContext();
+        List<CartItemDTO> items = await(cartItems, deadline, "cart items " + cartIds);
+        if (items != null) {
+            context.setCartItems(items);
+        }
+        context.setCustomerInfo(await(customerInfo, deadline, "customer " + userId));
+        context.setShippingAddress(await(shippingAddress, deadline, "shipping address " + shippingId));
+        return context;
+    }
+
+    /**
+     * Wait for a result until the shared deadline, null on timeout or failure
+     */
+    private <T> T await(CompletableFuture<T> future, long deadline, String what) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Checkout gave up waiting for {} after {}ms", what, fetchTimeoutMs);
+        } catch (ExecutionException e) {
+            logger.warn("Checkout failed to load {}: {}", what, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
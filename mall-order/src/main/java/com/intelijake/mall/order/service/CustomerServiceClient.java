@@ -1,18 +1,23 @@
 package com.intelijake.mall.order.service;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.intelijake.mall.common.util.Result;
 import com.intelijake.mall.order.dto.CartItemDTO;
 import com.intelijake.mall.pojo.ShippingAddress;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Map;
+import java.util.List;
 
 /**
  * Customer Service Client
  * Handles communication with the customer service to fetch customer data
+ * Responses are decoded by Jackson straight into typed objects over the pooled inter-service client
  * 
  * @author Jake
  * @since 2025-08-03
@@ -20,13 +25,22 @@ import java.util.Map;
 @Service
 public class CustomerServiceClient {
 
+    private static final ParameterizedTypeReference<Result<CustomerInfo>> CUSTOMER_RESULT =
+            new ParameterizedTypeReference<>() { };
+
+    private static final ParameterizedTypeReference<Result<ShippingAddress>> ADDRESS_RESULT =
+            new ParameterizedTypeReference<>() { };
+
+    private static final ParameterizedTypeReference<Result<List<CartItemDTO>>> CART_ITEMS_RESULT =
+            new ParameterizedTypeReference<>() { };
+
     private final RestTemplate restTemplate;
 
     @Value("${customer.service.url:http://localhost:8082}")
     private String customerServiceUrl;
 
-    public CustomerServiceClient() {
-        this.restTemplate = new RestTemplate();
+    public CustomerServiceClient(@Qualifier("interServiceRestTemplate") RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
     }
 
     /**
@@ -40,31 +54,14 @@ public class CustomerServiceClient {
             System.out.println("🔍 Fetching customer data for user ID: " + userId);
 
             String url = customerServiceUrl + "/customer/selectById/" + userId;
-            
-            // Create headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            // Make the request
-            ResponseEntity<Result> response = restTemplate.exchange(url, HttpMethod.GET, entity, Result.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Result result = response.getBody();
-                
-                if (result.getCode() == 0 && result.getData() != null) {
-                    // Parse customer data from response
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> customerData = (Map<String, Object>) result.getData();
-                    
-                    String email = (String) customerData.get("email");
-                    String name = (String) customerData.get("username"); // Use username as name since name field might be null
-                    String username = (String) customerData.get("username");
-                    
-                    if (email != null && username != null) {
-                        System.out.println("✅ Customer data retrieved: " + username + " (" + email + ")");
-                        return new CustomerInfo(email, username, username);
-                    }
+            ResponseEntity<Result<CustomerInfo>> response = restTemplate.exchange(url, HttpMethod.GET, null, CUSTOMER_RESULT);
+
+            Result<CustomerInfo> result = response.getBody();
+            if (response.getStatusCode() == HttpStatus.OK && result != null && result.getCode() == 0) {
+                CustomerInfo customer = (CustomerInfo) result.getData();
+                if (customer != null && customer.getEmail() != null && customer.getUsername() != null) {
+                    System.out.println("✅ Customer data retrieved: " + customer.getUsername() + " (" + customer.getEmail() + ")");
+                    return customer;
                 }
             }
 
@@ -77,11 +74,7 @@ public class CustomerServiceClient {
 
         // Return fallback customer info
         System.out.println("⚠️ Using fallback customer data for user ID: " + userId);
-        return new CustomerInfo(
-            "customer" + userId + "@example.com",
-            "Customer #" + userId,
-            "customer" + userId
-        );
+        return CustomerInfo.fallback(userId);
     }
 
     /**
@@ -95,36 +88,13 @@ public class CustomerServiceClient {
             System.out.println("🏠 Fetching shipping address for ID: " + addressId);
 
             String url = customerServiceUrl + "/customer/getAddressById/" + addressId;
+            ResponseEntity<Result<ShippingAddress>> response = restTemplate.exchange(url, HttpMethod.GET, null, ADDRESS_RESULT);
 
-            // Create headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            // Make the request
-            ResponseEntity<Result> response = restTemplate.exchange(url, HttpMethod.GET, entity, Result.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Result result = response.getBody();
-
-                if (result.getCode() == 0 && result.getData() != null) {
-                    // Parse shipping address data from response
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> addressData = (Map<String, Object>) result.getData();
-
-                    ShippingAddress address = new ShippingAddress();
-                    address.setId((Integer) addressData.get("id"));
-                    address.setReceiverName((String) addressData.get("receiverName"));
-                    address.setReceiverPhone((String) addressData.get("receiverPhone"));
-                    address.setReceiverMobile((String) addressData.get("receiverMobile"));
-                    address.setAddressLine1((String) addressData.get("addressLine1"));
-                    address.setAddressLine2((String) addressData.get("addressLine2"));
-                    address.setTownCity((String) addressData.get("townCity"));
-                    address.setEircode((String) addressData.get("eircode"));
-
-                    System.out.println("✅ Shipping address retrieved: " + address.getReceiverName());
-                    return address;
-                }
+            Result<ShippingAddress> result = response.getBody();
+            if (response.getStatusCode() == HttpStatus.OK && result != null && result.getCode() == 0 && result.getData() != null) {
+                ShippingAddress address = (ShippingAddress) result.getData();
+                System.out.println("✅ Shipping address retrieved: " + address.getReceiverName());
+                return address;
             }
 
             System.err.println("❌ Failed to get shipping address from service. Response: " + response.getBody());
@@ -155,51 +125,20 @@ public class CustomerServiceClient {
      * @param cartIds Comma-separated cart item IDs
      * @return List of cart items with product details
      */
-    public java.util.List<CartItemDTO> getCartItemsByIds(String cartIds) {
+    public List<CartItemDTO> getCartItemsByIds(String cartIds) {
         try {
             System.out.println("🛒 Fetching cart items for IDs: " + cartIds);
 
             // Use the correct endpoint that exists in customer service
             String url = customerServiceUrl + "/customer/cart/items/" + cartIds;
-
-            // Create headers for GET request
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            // Make GET request to the correct endpoint
-            ResponseEntity<Result> response = restTemplate.exchange(url, HttpMethod.GET, entity, Result.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Result result = response.getBody();
-
-                if (result.getCode() == 0 && result.getData() != null) {
-                    // Parse cart items from response
-                    @SuppressWarnings("unchecked")
-                    java.util.List<java.util.Map<String, Object>> cartItemsData =
-                        (java.util.List<java.util.Map<String, Object>>) result.getData();
-
-                    java.util.List<CartItemDTO> cartItems = new java.util.ArrayList<>();
-                    for (java.util.Map<String, Object> itemData : cartItemsData) {
-                        CartItemDTO cartItem = new CartItemDTO();
-                        cartItem.setId((Integer) itemData.get("id"));
-                        cartItem.setProductId((Integer) itemData.get("productId"));
-                        cartItem.setProductName((String) itemData.get("productName"));
-                        cartItem.setProductMainImage((String) itemData.get("productMainImage"));
-                        cartItem.setQuantity((Integer) itemData.get("quantity"));
-
-                        // Handle price conversion
-                        Object priceObj = itemData.get("productPrice");
-                        if (priceObj instanceof Number) {
-                            cartItem.setProductPrice(new java.math.BigDecimal(priceObj.toString()));
-                        }
-
-                        cartItems.add(cartItem);
-                    }
-
-                    System.out.println("✅ Cart items retrieved: " + cartItems.size() + " items");
-                    return cartItems;
-                }
+            ResponseEntity<Result<List<CartItemDTO>>> response = restTemplate.exchange(url, HttpMethod.GET, null, CART_ITEMS_RESULT);
+
+            Result<List<CartItemDTO>> result = response.getBody();
+            if (response.getStatusCode() == HttpStatus.OK && result != null && result.getCode() == 0 && result.getData() != null) {
+                @SuppressWarnings("unchecked")
+                List<CartItemDTO> cartItems = (List<CartItemDTO>) result.getData();
+                System.out.println("✅ Cart items retrieved: " + cartItems.size() + " items");
+                return cartItems;
             }
 
             System.err.println("❌ Failed to get cart items from service. Response: " + response.getBody());
@@ -216,16 +155,41 @@ public class CustomerServiceClient {
 
     /**
      * Customer information data class
+     * Decoded from the customer entity, username doubles as the display name since name might be null
      */
     public static class CustomerInfo {
         private final String email;
         private final String name;
         private final String username;
+        private final boolean fallback;
 
         public CustomerInfo(String email, String name, String username) {
+            this(email, name, username, false);
+        }
+
+        private CustomerInfo(String email, String name, String username, boolean fallback) {
             this.email = email;
             this.name = name;
             this.username = username;
+            this.fallback = fallback;
+        }
+
+        /**
+         * Placeholder used when the customer service could not be reached
+         */
+        static CustomerInfo fallback(Integer userId) {
+            return new CustomerInfo(
+                "customer" + userId + "@example.com",
+                "Customer #" + userId,
+                "customer" + userId,
+                true
+            );
+        }
+
+        @JsonCreator
+        static CustomerInfo fromCustomer(@JsonProperty("email") String email,
+                                         @JsonProperty("username") String username) {
+            return new CustomerInfo(email, username, username);
         }
 
         public String getEmail() {
@@ -239,5 +203,9 @@ public class CustomerServiceClient {
         public String getUsername() {
             return username;
         }
+
+        public boolean isFallback() {
+            return fallback;
+        }
     }
 }
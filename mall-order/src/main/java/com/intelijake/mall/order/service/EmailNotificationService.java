@@ -28,6 +28,18 @@ public interface EmailNotificationService {
      * @param customerName Customer's name
      */
     void sendAdminNotificationEmail(CustomerOrder order, String customerEmail, String customerName);
+
+    /**
+     * Deliver an order email and report failures to the caller
+     * Used by the email outbox dispatcher, which retries on failure
+     *
+     * @param emailType Email type (order-confirmation, admin-notification)
+     * @param order The customer order
+     * @param customerEmail Customer's email address
+     * @param customerName Customer's name
+     * @throws RuntimeException if the email could not be handed to the email service
+     */
+    void deliverOrderEmail(String emailType, CustomerOrder order, String customerEmail, String customerName);
     
     /**
      * Send welcome email to new customer
@@ -1,9 +1,16 @@
 package com.intelijake.mall.order.service;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.intelijake.mall.common.page.CursorPage;
+import com.intelijake.mall.common.page.KeysetCursor;
 import com.intelijake.mall.order.vo.OrderDetailVO;
+import com.intelijake.mall.order.vo.OrderStatusTransitionVO;
 import com.intelijake.mall.pojo.CustomerOrder;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * <p>
  * Customer Order Service Interface
@@ -22,7 +29,7 @@ public interface ICustomerOrderService extends IService<CustomerOrder> {
      * - Creates order items from checked cart items
      * - Calculates total payment amount
      * - Clears shopping cart
-     * - Sends delayed message for order processing
+     * - Schedules cancellation once the payment timeout passes
      *
      * @param order Customer order to create
      */
@@ -39,11 +46,33 @@ public interface ICustomerOrderService extends IService<CustomerOrder> {
 
     /**
      * Cancel an existing order
-     * Updates order status to cancelled
+     * Updates order status to cancelled if the order is still unpaid
      *
      * @param orderNo Order number to cancel
+     * @return true if the order was cancelled
+     */
+    boolean cancel(Long orderNo);
+
+    /**
+     * Cancel many unpaid orders at once
+     *
+     * @param orderNos Order numbers to cancel
+     * @return Orders cancelled and orders skipped because they were no longer unpaid
+     */
+    OrderStatusTransitionVO cancelBatch(Collection<Long> orderNos);
+
+    /**
+     * Move many orders from currentStatus to newStatus
+     * Orders are processed in chunks, each chunk locks the orders still in currentStatus and updates
+     * them with one set-based statement, so concurrent transitions of the same order cannot both win.
+     * The timestamp matching newStatus (payment, shipping, end or close time) is set to now.
+     *
+     * @param orderNos Order numbers, duplicates are ignored
+     * @param currentStatus Status the orders are expected to be in
+     * @param newStatus Status to move the orders to
+     * @return Orders transitioned and orders that lost the race
      */
-    void cancel(Long orderNo);
+    OrderStatusTransitionVO transitionStatus(Collection<Long> orderNos, Integer currentStatus, Integer newStatus);
 
     /**
      * Get complete order details including items and shipping information
@@ -52,4 +81,25 @@ public interface ICustomerOrderService extends IService<CustomerOrder> {
      * @return OrderDetailVO with complete order information
      */
     OrderDetailVO getOrderDetailVO(Long orderNo);
+
+    /**
+     * Keyset-paginated order list, newest first
+     * Each page seeks on (create_time, order_no) after the cursor instead of skipping an OFFSET.
+     *
+     * @param filter Search conditions, the seek predicate and ordering are added to it
+     * @param cursor Position after the previous page, null for the first page
+     * @param limit Page size, capped at KeysetPagination.MAX_LIMIT
+     * @param withTotal Whether to attach the number of matching orders, cached briefly per filter
+     * @return Orders of the page and the cursor of the next one
+     */
+    CursorPage<CustomerOrder> seekPage(QueryWrapper<CustomerOrder> filter, KeysetCursor cursor, int limit, boolean withTotal);
+
+    /**
+     * Order counters for the admin dashboard
+     * Loaded by one aggregate query and refreshed in the background, so the values may lag behind
+     * by up to the configured refresh interval.
+     *
+     * @return totalOrders, pendingOrders, completedOrders and totalRevenue
+     */
+    Map<String, Object> getDashboardStatistics();
 }
@@ -0,0 +1,42 @@
+package com.intelijake.mall.order.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.intelijake.mall.pojo.CustomerOrder;
+import com.intelijake.mall.pojo.EmailOutbox;
+
+/**
+ * <p>
+ * Email Outbox Service Interface
+ * Order emails are recorded in the outbox together with the order and delivered later
+ * by a background dispatcher, so checkout never waits for the email service
+ * </p>
+ *
+ * @author Jake
+ * @since 2025-08-14
+ */
+public interface IEmailOutboxService extends IService<EmailOutbox> {
+
+    /**
+     * Record the confirmation and admin notification emails of a new order
+     * Must be called inside the transaction that inserts the order
+     *
+     * @param order Newly created order
+     * @param customerInfo Recipient loaded during checkout, or null to look it up on dispatch
+     */
+    void enqueueOrderEmails(CustomerOrder order, CustomerServiceClient.CustomerInfo customerInfo);
+
+    /**
+     * Claim one batch of due outbox rows and deliver them
+     * Failed rows are rescheduled with exponential backoff until the attempt limit is reached
+     *
+     * @return Number of rows processed in this batch
+     */
+    int dispatchDueBatch();
+
+    /**
+     * Maximum number of rows claimed per batch
+     *
+     * @return Batch size
+     */
+    int getBatchSize();
+}
@@ -3,6 +3,8 @@ package com.intelijake.mall.order.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.intelijake.mall.pojo.OrderItem;
 
+import java.util.List;
+
 /**
  * <p>
  *  服务类
@@ -13,4 +15,11 @@ import com.intelijake.mall.pojo.OrderItem;
  */
 public interface IOrderItemService extends IService<OrderItem> {
 
+    /**
+     * Insert order items using multi-row inserts
+     * Large lists are split into chunks so a single statement stays within packet limits
+     *
+     * @param orderItems Order items to insert
+     */
+    void batchInsert(List<OrderItem> orderItems);
 }
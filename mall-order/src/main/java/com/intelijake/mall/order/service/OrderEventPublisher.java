@@ -0,0 +1,53 @@
+package com.intelijake.mall.order.service;
+
+import com.intelijake.mall.common.constant.MqConstant;
+import com.intelijake.mall.common.util.OrderStatusChangedMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Order Event Publisher
+ * Publishes committed order status transitions to the order topic exchange, where statistics-service
+ * keeps its sales rollup up to date from them. Publishing is best effort: a lost message is made up for
+ * by the consumers' periodic reconciliation, so a broker outage never fails an order operation.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class OrderEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventPublisher.class);
+
+    @Autowired(required = false)
+    private RabbitTemplate rabbitTemplate;
+
+    @Value("${order.events.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Announce orders that moved from fromStatus to toStatus, to be called after the transaction committed
+     */
+    public void statusChanged(Collection<Long> orderNos, Integer fromStatus, Integer toStatus) {
+        if (!enabled || rabbitTemplate == null || orderNos.isEmpty()) {
+            return;
+        }
+        OrderStatusChangedMessage message = new OrderStatusChangedMessage(new ArrayList<>(orderNos),
+                fromStatus, toStatus, new Date());
+        try {
+            rabbitTemplate.convertAndSend(MqConstant.ORDER_EVENT_EXCHANGE,
+                    MqConstant.ORDER_STATUS_ROUTING_KEY_PREFIX + toStatus, message);
+        } catch (RuntimeException e) {
+            logger.warn("Status change {} -> {} of {} orders not published: {}",
+                    fromStatus, toStatus, orderNos.size(), e.getMessage());
+        }
+    }
+}
@@ -1,31 +1,48 @@
 package com.intelijake.mall.order.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
-
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.intelijake.mall.common.cache.RefreshAheadValue;
 import com.intelijake.mall.common.constant.OrderStatusConstant;
+import com.intelijake.mall.common.page.CursorPage;
+import com.intelijake.mall.common.page.KeysetCursor;
+import com.intelijake.mall.common.page.KeysetPagination;
+import com.intelijake.mall.common.page.PageTotalCache;
 import com.intelijake.mall.common.util.Result;
+import com.intelijake.mall.common.util.SnowflakeIdGenerator;
 
+import com.intelijake.mall.order.dto.CartItemDTO;
+import com.intelijake.mall.order.dto.CheckoutContext;
 import com.intelijake.mall.order.mapper.CustomerOrderMapper;
+import com.intelijake.mall.order.service.CheckoutContextLoader;
 import com.intelijake.mall.order.service.ICustomerOrderService;
+import com.intelijake.mall.order.service.IEmailOutboxService;
 import com.intelijake.mall.order.service.IOrderItemService;
-import com.intelijake.mall.order.service.EmailNotificationService;
-import com.intelijake.mall.order.service.CustomerServiceClient;
+import com.intelijake.mall.order.service.OrderEventPublisher;
+import com.intelijake.mall.order.task.OrderPaymentTimeoutTask;
 import com.intelijake.mall.order.vo.OrderDetailVO;
+import com.intelijake.mall.order.vo.OrderStatusTransitionVO;
 import com.intelijake.mall.pojo.CustomerOrder;
 import com.intelijake.mall.pojo.OrderItem;
+import com.intelijake.mall.pojo.ShippingAddress;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.intelijake.mall.common.context.UserContext;
-import org.springframework.amqp.AmqpException;
-import org.springframework.amqp.core.Message;
-import org.springframework.amqp.core.MessagePostProcessor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * <p>
@@ -39,6 +56,11 @@ import java.util.Map;
 @Service
 public class CustomerOrderServiceImpl extends ServiceImpl<CustomerOrderMapper, CustomerOrder> implements ICustomerOrderService {
 
+    /**
+     * Orders per set-based status update, keeps the IN list and the row locks of one transaction bounded
+     */
+    private static final int TRANSITION_CHUNK_SIZE = 500;
+
     @Autowired
     private CustomerOrderMapper customerOrderMapper;
 
@@ -46,20 +68,50 @@ public class CustomerOrderServiceImpl extends ServiceImpl<CustomerOrderMapper, C
     private IOrderItemService orderItemService;
 
     @Autowired
-    private EmailNotificationService emailNotificationService;
+    private IEmailOutboxService emailOutboxService;
 
     @Autowired
-    private CustomerServiceClient customerServiceClient;
+    private CheckoutContextLoader checkoutContextLoader;
 
+    @Autowired
+    private SnowflakeIdGenerator orderNoGenerator;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderEventPublisher orderEventPublisher;
+
+    @Autowired
+    private PageTotalCache pageTotalCache;
 
     @Autowired(required = false)
-    private RabbitTemplate rabbitTemplate;
+    private OrderPaymentTimeoutTask orderPaymentTimeoutTask;
+
+    @Value("${order.statistics.refresh-ms:30000}")
+    private long statisticsRefreshMs;
+
+    @Value("${order.statistics.max-stale-ms:300000}")
+    private long statisticsMaxStaleMs;
+
+    private RefreshAheadValue<Map<String, Object>> dashboardStatistics;
+
+    @PostConstruct
+    public void initDashboardStatistics() {
+        dashboardStatistics = new RefreshAheadValue<>("order-statistics",
+                () -> Collections.unmodifiableMap(customerOrderMapper.selectDashboardCounters()),
+                statisticsRefreshMs, statisticsMaxStaleMs);
+    }
+
+    @PreDestroy
+    public void shutdownDashboardStatistics() {
+        dashboardStatistics.shutdown();
+    }
 
     @Override
     public void add(CustomerOrder order) {
-        // Generate unique order number using timestamp
-        Long orderNo = System.currentTimeMillis();
+        // Generate unique order number (Snowflake: time | worker id | sequence)
+        Long orderNo = orderNoGenerator.nextId();
         order.setOrderNo(orderNo);
 
         // Set default payment amount if not provided
@@ -74,17 +126,30 @@ public class CustomerOrderServiceImpl extends ServiceImpl<CustomerOrderMapper, C
 
         // Save the order
         customerOrderMapper.insert(order);
+
+        if (orderPaymentTimeoutTask != null
+                && OrderStatusConstant.ORDER_STATUS_UN_PAIED.equals(order.getStatus())) {
+            orderPaymentTimeoutTask.track(orderNo, System.currentTimeMillis());
+        }
     }
 
     @Override
     public void addWithCartItems(CustomerOrder order, String cartIds) {
-        // Generate unique order number using timestamp
-        Long orderNo = System.currentTimeMillis();
+        // Generate unique order number (Snowflake: time | worker id | sequence)
+        Long orderNo = orderNoGenerator.nextId();
         order.setOrderNo(orderNo);
 
+        // Cart items, customer and shipping address are fetched concurrently, cart items only once
+        CheckoutContext checkout = checkoutContextLoader.load(order.getUserId(), order.getShippingId(), cartIds);
+        ShippingAddress shippingAddress = checkout.getShippingAddress();
+        if (shippingAddress != null && shippingAddress.getUserId() != null
+                && !shippingAddress.getUserId().equals(order.getUserId())) {
+            throw new RuntimeException("Shipping address does not belong to the current user");
+        }
+
         // Only calculate payment amount if not already set from frontend
         if (order.getPaymentAmount() == null || order.getPaymentAmount().compareTo(BigDecimal.ZERO) == 0) {
-            BigDecimal totalAmount = calculateOrderTotal(cartIds);
+            BigDecimal totalAmount = calculateOrderTotal(checkout.getCartItems());
             order.setPaymentAmount(totalAmount);
             System.out.println("💰 CustomerOrderService: Calculated payment amount from cart: " + totalAmount);
         } else {
@@ -96,129 +161,110 @@ public class CustomerOrderServiceImpl extends ServiceImpl<CustomerOrderMapper, C
             order.setStatus(OrderStatusConstant.ORDER_STATUS_UN_PAIED);
         }
 
-        // Save the order
-        customerOrderMapper.insert(order);
-
-        // Create order items from cart items
-        createOrderItemsFromCart(orderNo, cartIds);
-
-        // TEMPORARILY DISABLED - RabbitMQ delayed message functionality
-        // This can be re-enabled when proper delay mechanism is implemented
-        // or RabbitMQ delayed message plugin is installed
-        
-        /*
-        // Send multi-stage delayed message for order processing (if RabbitMQ is available)
-        if (rabbitTemplate != null) {
-            try {
-                // Create multi-delay message with progressive timeout stages
-                // Delays: 10s, 10s, 10s, 15s, 15s, 30s, 30s (total ~2 minutes for testing)
-                // In production, these would be longer intervals (e.g., 5min, 10min, 15min, etc.)
-                MultiDelayMessage<Long> delayMessage = new MultiDelayMessage<>(
-                    orderNo,
-                    10000L,  // 10 seconds
-                    10000L,  // 10 seconds
-                    10000L,  // 10 seconds
-                    15000L,  // 15 seconds
-                    15000L,  // 15 seconds
-                    30000L,  // 30 seconds
-                    30000L   // 30 seconds - final timeout
-                );
-
-                Long firstDelay = delayMessage.removeNextDelay();
-
-                rabbitTemplate.convertAndSend(
-                    MqConstant.DELAY_EXCHANGE,
-                    MqConstant.DELAY_ORDER_ROUTING_KEY,
-                    delayMessage,
-                    new MessagePostProcessor() {
-                        @Override
-                        public Message postProcessMessage(Message message) throws AmqpException {
-                            // Use TTL instead of x-delayed-message plugin
-                            message.getMessageProperties().setExpiration(String.valueOf(firstDelay));
-                            return message;
-                        }
-                    }
-                );
-
-                System.out.println("CustomerOrderServiceImpl: Sent multi-delay message for order " + orderNo + " with first delay: " + firstDelay + "ms");
-
-            } catch (Exception e) {
-                // Log error but don't fail the order creation
-                System.err.println("Failed to send delayed message for order: " + orderNo + ", error: " + e.getMessage());
-            }
+        // Build order items from cart items before opening the transaction
+        List<OrderItem> orderItems = buildOrderItemsFromCart(orderNo, cartIds, checkout.getCartItems());
+
+        // Save the order, its items and its pending emails atomically, items with one multi-row insert
+        transactionTemplate.executeWithoutResult(status -> {
+            customerOrderMapper.insert(order);
+            orderItemService.batchInsert(orderItems);
+            emailOutboxService.enqueueOrderEmails(order, checkout.getCustomerInfo());
+        });
+        System.out.println("✅ Order items created successfully for order: " + orderNo +
+            " (" + orderItems.size() + " items)");
+
+        // Unpaid orders are cancelled by OrderPaymentTimeoutTask once the payment timeout passes
+        if (orderPaymentTimeoutTask != null) {
+            orderPaymentTimeoutTask.track(orderNo, System.currentTimeMillis());
         }
-        */
 
-        // Send email notifications (asynchronously to avoid blocking order creation)
-        try {
-            // Get real customer data from customer service
-            CustomerServiceClient.CustomerInfo customerInfo = customerServiceClient.getCustomerById(order.getUserId());
+        // Email notifications are delivered from the outbox by EmailOutboxDispatcher
 
-            // Send order confirmation email to customer
-            emailNotificationService.sendOrderConfirmationEmail(order, customerInfo.getEmail(), customerInfo.getName());
+        System.out.println("CustomerOrderServiceImpl: Order " + orderNo + " created successfully");
+    }
 
-            // Send admin notification email
-            emailNotificationService.sendAdminNotificationEmail(order, customerInfo.getEmail(), customerInfo.getName());
+    @Override
+    public boolean cancel(Long orderNo) {
+        System.out.println("Cancelling order: " + orderNo);
 
-        } catch (Exception e) {
-            // Log error but don't fail the order creation
-            System.err.println("Failed to send email notifications for order: " + orderNo + ", error: " + e.getMessage());
-        }
+        return !cancelBatch(Collections.singletonList(orderNo)).getTransitioned().isEmpty();
+    }
 
-        System.out.println("CustomerOrderServiceImpl: Order " + orderNo + " created successfully (delayed message functionality temporarily disabled)");
+    @Override
+    public OrderStatusTransitionVO cancelBatch(Collection<Long> orderNos) {
+        return transitionStatus(orderNos, OrderStatusConstant.ORDER_STATUS_UN_PAIED, OrderStatusConstant.ORDER_STATUS_CANCEL);
     }
 
     @Override
-    public void cancel(Long orderNo) {
-        System.out.println("Cancelling order: " + orderNo);
+    public OrderStatusTransitionVO transitionStatus(Collection<Long> orderNos, Integer currentStatus, Integer newStatus) {
+        OrderStatusTransitionVO result = new OrderStatusTransitionVO();
+        result.setCurrentStatus(currentStatus);
+        result.setNewStatus(newStatus);
+        if (orderNos == null || orderNos.isEmpty()) {
+            return result;
+        }
 
-        UpdateWrapper<CustomerOrder> updateWrapper = new UpdateWrapper<>();
-        updateWrapper.eq("order_no", orderNo);
-        updateWrapper.set("status", OrderStatusConstant.ORDER_STATUS_CANCEL);
+        Date now = new Date();
+        Date paymentTime = OrderStatusConstant.ORDER_STATUS_PAIED.equals(newStatus) ? now : null;
+        Date shippingTime = OrderStatusConstant.ORDER_STATUS_SHIPPED.equals(newStatus) ? now : null;
+        Date endTime = OrderStatusConstant.ORDER_STATUS_COMPLETED.equals(newStatus) ? now : null;
+        Date closeTime = OrderStatusConstant.ORDER_STATUS_CANCEL.equals(newStatus) ? now : null;
+
+        List<Long> distinctOrderNos = new ArrayList<>(new LinkedHashSet<>(orderNos));
+        for (int from = 0; from < distinctOrderNos.size(); from += TRANSITION_CHUNK_SIZE) {
+            List<Long> chunk = distinctOrderNos.subList(from, Math.min(from + TRANSITION_CHUNK_SIZE, distinctOrderNos.size()));
+
+            // Lock the rows still in currentStatus, then move exactly those rows in one statement
+            List<Long> locked = transactionTemplate.execute(status -> {
+                List<Long> lockedOrderNos = customerOrderMapper.selectOrderNosForTransition(chunk, currentStatus);
+                if (!lockedOrderNos.isEmpty()) {
+                    customerOrderMapper.updateOrderStatusBatch(lockedOrderNos, currentStatus, newStatus,
+                            paymentTime, shippingTime, endTime, closeTime);
+                }
+                return lockedOrderNos;
+            });
 
-        customerOrderMapper.update(updateWrapper);
+            orderEventPublisher.statusChanged(locked, currentStatus, newStatus);
+
+            Set<Long> transitioned = new HashSet<>(locked);
+            for (Long orderNo : chunk) {
+                if (transitioned.contains(orderNo)) {
+                    result.getTransitioned().add(orderNo);
+                } else {
+                    result.getSkipped().add(orderNo);
+                }
+            }
+        }
+
+        System.out.println("CustomerOrderServiceImpl: Status " + currentStatus + " -> " + newStatus + ", transitioned "
+                + result.getTransitioned().size() + ", skipped " + result.getSkipped().size());
+        return result;
     }
 
     /**
      * Calculate order total from cart items
-     * @param cartIds Comma-separated cart item IDs
+     * @param cartItems Cart items loaded for this checkout
      * @return Total amount
      */
-    private BigDecimal calculateOrderTotal(String cartIds) {
-        if (cartIds == null || cartIds.trim().isEmpty()) {
+    private BigDecimal calculateOrderTotal(List<CartItemDTO> cartItems) {
+        if (cartItems.isEmpty()) {
+            System.out.println("⚠️ No cart items found, returning zero total");
             return BigDecimal.ZERO;
         }
 
-        try {
-            // Get cart items from customer service using the fixed client
-            java.util.List<com.intelijake.mall.order.dto.CartItemDTO> cartItems =
-                customerServiceClient.getCartItemsByIds(cartIds);
-
-            if (!cartItems.isEmpty()) {
-                BigDecimal total = BigDecimal.ZERO;
-                for (com.intelijake.mall.order.dto.CartItemDTO item : cartItems) {
-                    if (item.getProductPrice() != null && item.getQuantity() != null) {
-                        BigDecimal itemTotal = item.getProductPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-                        total = total.add(itemTotal);
-                        System.out.println("Cart item: " + item.getProductName() +
-                            ", price=" + item.getProductPrice() +
-                            ", quantity=" + item.getQuantity() +
-                            ", itemTotal=" + itemTotal);
-                    }
-                }
-                System.out.println("✅ Calculated total amount from cart: " + total);
-                return total;
-            } else {
-                System.out.println("⚠️ No cart items found, returning zero total");
-                return BigDecimal.ZERO;
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartItemDTO item : cartItems) {
+            if (item.getProductPrice() != null && item.getQuantity() != null) {
+                BigDecimal itemTotal = item.getProductPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+                total = total.add(itemTotal);
+                System.out.println("Cart item: " + item.getProductName() +
+                    ", price=" + item.getProductPrice() +
+                    ", quantity=" + item.getQuantity() +
+                    ", itemTotal=" + itemTotal);
             }
-
-
-        } catch (Exception e) {
-            System.err.println("Error calculating order total: " + e.getMessage());
-            e.printStackTrace();
-            return BigDecimal.ZERO;
         }
+        System.out.println("✅ Calculated total amount from cart: " + total);
+        return total;
     }
 
     @Override
@@ -266,27 +312,24 @@ public class CustomerOrderServiceImpl extends ServiceImpl<CustomerOrderMapper, C
     }
 
     /**
-     * Create order items from cart items
-     * Fetches real cart items and creates order items with actual product data
+     * Build order items from cart items
+     * Builds order items from the cart items loaded for this checkout, nothing is persisted here
      */
-    private void createOrderItemsFromCart(Long orderNo, String cartIds) {
+    private List<OrderItem> buildOrderItemsFromCart(Long orderNo, String cartIds, List<CartItemDTO> cartItems) {
+        List<OrderItem> orderItems = new ArrayList<>();
         if (cartIds == null || cartIds.trim().isEmpty()) {
             System.out.println("⚠️ No cart items provided for order: " + orderNo);
-            return;
+            return orderItems;
         }
 
         try {
-            System.out.println("🛒 Creating order items for order: " + orderNo + " from cart IDs: " + cartIds);
-
-            // Try to get real cart items from customer service
-            java.util.List<com.intelijake.mall.order.dto.CartItemDTO> cartItems =
-                customerServiceClient.getCartItemsByIds(cartIds);
+            System.out.println("🛒 Building order items for order: " + orderNo + " from cart IDs: " + cartIds);
 
             Integer currentUserId = UserContext.requireCurrentUserId();
 
             if (!cartItems.isEmpty()) {
-                // Create order items from real cart data
-                for (com.intelijake.mall.order.dto.CartItemDTO cartItem : cartItems) {
+                // Build order items from real cart data
+                for (CartItemDTO cartItem : cartItems) {
                     OrderItem orderItem = new OrderItem();
                     orderItem.setOrderNo(orderNo);
                     orderItem.setUserId(currentUserId);
@@ -297,36 +340,34 @@ public class CustomerOrderServiceImpl extends ServiceImpl<CustomerOrderMapper, C
                     orderItem.setQuantity(cartItem.getQuantity());
                     orderItem.setTotalPrice(cartItem.getSubtotal()); // Use calculated subtotal
                     orderItem.setStatus(1); // Active
-
-                    // Save the order item
-                    orderItemService.save(orderItem);
-                    System.out.println("✅ Created order item: " + cartItem.getProductName() +
-                        " (Qty: " + cartItem.getQuantity() + ", Price: €" + cartItem.getProductPrice() + ")");
+                    orderItems.add(orderItem);
                 }
-
-                System.out.println("✅ Order items created successfully for order: " + orderNo +
-                    " (" + cartItems.size() + " items)");
             } else {
-                // Fallback: Treat cart IDs as product IDs and create order items with real product data
+                // Fallback: Treat cart IDs as product IDs and build order items with real product data
                 System.out.println("⚠️ Cart service unavailable, treating cart IDs as product IDs");
-                createOrderItemsFromProductIds(orderNo, cartIds, currentUserId);
+                orderItems.addAll(buildOrderItemsFromProductIds(orderNo, cartIds, currentUserId));
             }
 
         } catch (Exception e) {
-            System.err.println("❌ Error creating order items for order " + orderNo + ": " + e.getMessage());
+            System.err.println("❌ Error building order items for order " + orderNo + ": " + e.getMessage());
             e.printStackTrace();
 
-            // Final fallback: Create a single real product item
+            // Final fallback: Build a single real product item
             System.out.println("⚠️ Creating fallback order item due to service error");
-            createFallbackOrderItem(orderNo);
+            orderItems.clear();
+            OrderItem fallbackItem = buildFallbackOrderItem(orderNo);
+            if (fallbackItem != null) {
+                orderItems.add(fallbackItem);
+            }
         }
+        return orderItems;
     }
 
     /**
-     * Create a fallback order item when cart service fails
+     * Build a fallback order item when cart service fails
      * Uses real product data from product service
      */
-    private void createFallbackOrderItem(Long orderNo) {
+    private OrderItem buildFallbackOrderItem(Long orderNo) {
         try {
             // Try to get real product data for product ID 1
             Integer productId = 1;
@@ -345,18 +386,20 @@ public class CustomerOrderServiceImpl extends ServiceImpl<CustomerOrderMapper, C
             orderItem.setTotalPrice(productPrice);
             orderItem.setStatus(1);
 
-            orderItemService.save(orderItem);
-            System.out.println("✅ Created fallback order item with real product data: " + productName);
+            System.out.println("✅ Built fallback order item with real product data: " + productName);
+            return orderItem;
         } catch (Exception e) {
-            System.err.println("❌ Failed to create fallback order item: " + e.getMessage());
+            System.err.println("❌ Failed to build fallback order item: " + e.getMessage());
+            return null;
         }
     }
 
     /**
-     * Create order items by treating cart IDs as product IDs
+     * Build order items by treating cart IDs as product IDs
      * This is a fallback when cart service is unavailable
      */
-    private void createOrderItemsFromProductIds(Long orderNo, String cartIds, Integer currentUserId) {
+    private List<OrderItem> buildOrderItemsFromProductIds(Long orderNo, String cartIds, Integer currentUserId) {
+        List<OrderItem> orderItems = new ArrayList<>();
         try {
             String[] idArray = cartIds.split(",");
 
@@ -416,9 +459,8 @@ public class CustomerOrderServiceImpl extends ServiceImpl<CustomerOrderMapper, C
                         orderItem.setTotalPrice(new BigDecimal("6.99"));
                     }
 
-                    // Save the order item
-                    orderItemService.save(orderItem);
-                    System.out.println("✅ Created order item for product ID " + productId + ": " + orderItem.getProductName());
+                    orderItems.add(orderItem);
+                    System.out.println("✅ Built order item for product ID " + productId + ": " + orderItem.getProductName());
 
                 } catch (NumberFormatException e) {
                     System.err.println("❌ Invalid product ID format: " + idStr);
@@ -426,7 +468,29 @@ public class CustomerOrderServiceImpl extends ServiceImpl<CustomerOrderMapper, C
             }
 
         } catch (Exception e) {
-            System.err.println("❌ Error creating order items from product IDs: " + e.getMessage());
+            System.err.println("❌ Error building order items from product IDs: " + e.getMessage());
         }
+        return orderItems;
+    }
+
+    @Override
+    public CursorPage<CustomerOrder> seekPage(QueryWrapper<CustomerOrder> filter, KeysetCursor cursor, int limit, boolean withTotal) {
+        int size = KeysetPagination.pageSize(limit, 10);
+        // Counted before the seek predicate is added, so the total covers the whole filter
+        Long total = withTotal
+                ? pageTotalCache.get(PageTotalCache.key("customer_order", filter), () -> customerOrderMapper.selectCount(filter))
+                : null;
+
+        List<CustomerOrder> rows = customerOrderMapper.selectList(
+                KeysetPagination.seek(filter, "create_time", "order_no", cursor, size));
+        CursorPage<CustomerOrder> page = CursorPage.of(rows, size,
+                order -> KeysetCursor.of(order.getCreateTime(), order.getOrderNo()));
+        page.setTotal(total);
+        return page;
+    }
+
+    @Override
+    public Map<String, Object> getDashboardStatistics() {
+        return dashboardStatistics.get();
     }
 }
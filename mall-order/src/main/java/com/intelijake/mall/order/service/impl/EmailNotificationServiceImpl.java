@@ -1,7 +1,11 @@
 package com.intelijake.mall.order.service.impl;
 
+import com.intelijake.mall.common.constant.MqConstant;
 import com.intelijake.mall.order.service.EmailNotificationService;
 import com.intelijake.mall.pojo.CustomerOrder;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -9,6 +13,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
@@ -28,55 +33,32 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
     @Value("${email.service.url:http://localhost:8084}")
     private String emailServiceUrl;
 
-    public EmailNotificationServiceImpl() {
-        this.restTemplate = new RestTemplate();
+    /**
+     * Order email transport: http (default) or rabbitmq
+     */
+    @Value("${order.email-outbox.transport:http}")
+    private String emailTransport;
+
+    /**
+     * How long a RabbitMQ publish waits for the broker to confirm it,
+     * needs spring.rabbitmq.publisher-confirm-type=simple
+     */
+    @Value("${order.email-outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMillis;
+
+    @Autowired(required = false)
+    private RabbitTemplate rabbitTemplate;
+
+    public EmailNotificationServiceImpl(@Qualifier("interServiceRestTemplate") RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
     }
 
     @Override
     public void sendOrderConfirmationEmail(CustomerOrder order, String customerEmail, String customerName) {
         try {
             System.out.println("📧 Sending order confirmation email for order: " + order.getOrderNo());
-
-            // Build email request
-            Map<String, Object> emailRequest = new HashMap<>();
-            emailRequest.put("customerEmail", customerEmail);
-            emailRequest.put("customerName", customerName);
-            emailRequest.put("orderNo", order.getOrderNo());
-            emailRequest.put("orderDate", LocalDateTime.now());
-            emailRequest.put("paymentAmount", order.getPaymentAmount() != null ? order.getPaymentAmount() : BigDecimal.ZERO);
-            emailRequest.put("paymentType", order.getPaymentType());
-            emailRequest.put("remark", null); // No remark field in CustomerOrder entity
-
-            // Add shipping address if available
-            if (order.getShippingId() != null) {
-                Map<String, Object> shippingAddress = new HashMap<>();
-                shippingAddress.put("fullName", customerName);
-                shippingAddress.put("addressLine1", "Address details will be fetched from shipping service");
-                shippingAddress.put("city", "Dublin");
-                shippingAddress.put("county", "Dublin");
-                shippingAddress.put("postcode", "D01 A1B2");
-                shippingAddress.put("country", "Ireland");
-                emailRequest.put("shippingAddress", shippingAddress);
-            }
-
-            // Add order items (placeholder for now)
-            // TODO: Fetch actual order items from order items table
-            // For now, we'll send a basic order confirmation without detailed items
-
-            // Send HTTP request to email service
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(emailRequest, headers);
-
-            String url = emailServiceUrl + "/email/order-confirmation";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                System.out.println("✅ Order confirmation email sent successfully for order: " + order.getOrderNo());
-            } else {
-                System.err.println("❌ Failed to send order confirmation email. Status: " + response.getStatusCode());
-            }
-
+            deliverOrderEmail(MqConstant.EMAIL_ORDER_CONFIRMATION_ROUTING_KEY, order, customerEmail, customerName);
+            System.out.println("✅ Order confirmation email sent successfully for order: " + order.getOrderNo());
         } catch (Exception e) {
             // Log error but don't fail the order creation
             System.err.println("❌ Error sending order confirmation email for order " + order.getOrderNo() + ": " + e.getMessage());
@@ -88,43 +70,8 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
     public void sendAdminNotificationEmail(CustomerOrder order, String customerEmail, String customerName) {
         try {
             System.out.println("📧 Sending admin notification email for order: " + order.getOrderNo());
-
-            // Build email request (same structure as order confirmation)
-            Map<String, Object> emailRequest = new HashMap<>();
-            emailRequest.put("customerEmail", customerEmail);
-            emailRequest.put("customerName", customerName);
-            emailRequest.put("orderNo", order.getOrderNo());
-            emailRequest.put("orderDate", LocalDateTime.now());
-            emailRequest.put("paymentAmount", order.getPaymentAmount() != null ? order.getPaymentAmount() : BigDecimal.ZERO);
-            emailRequest.put("paymentType", order.getPaymentType());
-            emailRequest.put("remark", null); // No remark field in CustomerOrder entity
-
-            // Add shipping address if available
-            if (order.getShippingId() != null) {
-                Map<String, Object> shippingAddress = new HashMap<>();
-                shippingAddress.put("fullName", customerName);
-                shippingAddress.put("addressLine1", "Address details will be fetched from shipping service");
-                shippingAddress.put("city", "Dublin");
-                shippingAddress.put("county", "Dublin");
-                shippingAddress.put("postcode", "D01 A1B2");
-                shippingAddress.put("country", "Ireland");
-                emailRequest.put("shippingAddress", shippingAddress);
-            }
-
-            // Send HTTP request to email service
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(emailRequest, headers);
-
-            String url = emailServiceUrl + "/email/admin-notification";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                System.out.println("✅ Admin notification email sent successfully for order: " + order.getOrderNo());
-            } else {
-                System.err.println("❌ Failed to send admin notification email. Status: " + response.getStatusCode());
-            }
-
+            deliverOrderEmail(MqConstant.EMAIL_ADMIN_NOTIFICATION_ROUTING_KEY, order, customerEmail, customerName);
+            System.out.println("✅ Admin notification email sent successfully for order: " + order.getOrderNo());
         } catch (Exception e) {
             // Log error but don't fail the order creation
             System.err.println("❌ Error sending admin notification email for order " + order.getOrderNo() + ": " + e.getMessage());
@@ -132,6 +79,63 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
         }
     }
 
+    @Override
+    public void deliverOrderEmail(String emailType, CustomerOrder order, String customerEmail, String customerName) {
+        Map<String, Object> emailRequest = buildOrderEmailRequest(order, customerEmail, customerName);
+
+        // Publish to RabbitMQ when configured, mall-email consumes the queue bound to the email type
+        // The outbox row only counts as sent once the broker confirmed the message, otherwise it is retried
+        if ("rabbitmq".equalsIgnoreCase(emailTransport) && rabbitTemplate != null) {
+            rabbitTemplate.invoke(operations -> {
+                operations.convertAndSend(MqConstant.EMAIL_EXCHANGE, emailType, emailRequest);
+                operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+                return null;
+            });
+            return;
+        }
+
+        // Send HTTP request to email service, 4xx/5xx responses are thrown by RestTemplate
+        // The body is serialized as JSON by the message converter, the response body is not needed
+        String url = emailServiceUrl + "/email/" + emailType;
+        ResponseEntity<Void> response = restTemplate.postForEntity(url, emailRequest, Void.class);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new IllegalStateException("Email service returned " + response.getStatusCode() + " for " + emailType);
+        }
+    }
+
+    /**
+     * Build the order email request body shared by confirmation and admin notification emails
+     */
+    private Map<String, Object> buildOrderEmailRequest(CustomerOrder order, String customerEmail, String customerName) {
+        Map<String, Object> emailRequest = new HashMap<>();
+        emailRequest.put("customerEmail", customerEmail);
+        emailRequest.put("customerName", customerName);
+        emailRequest.put("orderNo", order.getOrderNo());
+        emailRequest.put("orderDate", order.getCreateTime() != null
+                ? LocalDateTime.ofInstant(order.getCreateTime().toInstant(), ZoneId.systemDefault())
+                : LocalDateTime.now());
+        emailRequest.put("paymentAmount", order.getPaymentAmount() != null ? order.getPaymentAmount() : BigDecimal.ZERO);
+        emailRequest.put("paymentType", order.getPaymentType());
+        emailRequest.put("remark", null); // No remark field in CustomerOrder entity
+
+        // Add shipping address if available
+        if (order.getShippingId() != null) {
+            Map<String, Object> shippingAddress = new HashMap<>();
+            shippingAddress.put("fullName", customerName);
+            shippingAddress.put("addressLine1", "Address details will be fetched from shipping service");
+            shippingAddress.put("city", "Dublin");
+            shippingAddress.put("county", "Dublin");
+            shippingAddress.put("postcode", "D01 A1B2");
+            shippingAddress.put("country", "Ireland");
+            emailRequest.put("shippingAddress", shippingAddress);
+        }
+
+        // Add order items (placeholder for now)
+        // TODO: Fetch actual order items from order items table
+        // For now, we'll send a basic order confirmation without detailed items
+        return emailRequest;
+    }
+
     @Override
     public void sendWelcomeEmail(String customerEmail, String customerName, String username) {
         try {
@@ -144,12 +148,8 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
             emailRequest.put("username", username);
 
             // Send HTTP request to email service
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(emailRequest, headers);
-
             String url = emailServiceUrl + "/email/welcome";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
+            ResponseEntity<Void> response = restTemplate.postForEntity(url, emailRequest, Void.class);
 
             if (response.getStatusCode() == HttpStatus.OK) {
                 System.out.println("✅ Welcome email sent successfully to: " + customerEmail);
@@ -0,0 +1,176 @@
+package com.intelijake.mall.order.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.intelijake.mall.common.constant.EmailOutboxStatusConstant;
+import com.intelijake.mall.common.constant.MqConstant;
+import com.intelijake.mall.order.mapper.CustomerOrderMapper;
+import com.intelijake.mall.order.mapper.EmailOutboxMapper;
+import com.intelijake.mall.order.service.CustomerServiceClient;
+import com.intelijake.mall.order.service.EmailNotificationService;
+import com.intelijake.mall.order.service.IEmailOutboxService;
+import com.intelijake.mall.pojo.CustomerOrder;
+import com.intelijake.mall.pojo.EmailOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>
+ * Email Outbox Service Implementation
+ * </p>
+ *
+ * @author Jake
+ * @since 2025-08-14
+ */
+@Service
+public class EmailOutboxServiceImpl extends ServiceImpl<EmailOutboxMapper, EmailOutbox> implements IEmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxServiceImpl.class);
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    @Autowired
+    private CustomerOrderMapper customerOrderMapper;
+
+    @Autowired
+    private CustomerServiceClient customerServiceClient;
+
+    @Autowired
+    private EmailNotificationService emailNotificationService;
+
+    @Value("${order.email-outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${order.email-outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${order.email-outbox.base-backoff-ms:10000}")
+    private long baseBackoffMillis;
+
+    @Value("${order.email-outbox.max-backoff-ms:1800000}")
+    private long maxBackoffMillis;
+
+    @Value("${order.email-outbox.claim-timeout-ms:300000}")
+    private long claimTimeoutMillis;
+
+    @Override
+    public void enqueueOrderEmails(CustomerOrder order, CustomerServiceClient.CustomerInfo customerInfo) {
+        List<EmailOutbox> rows = new ArrayList<>(2);
+        rows.add(newRow(order, customerInfo, MqConstant.EMAIL_ORDER_CONFIRMATION_ROUTING_KEY));
+        rows.add(newRow(order, customerInfo, MqConstant.EMAIL_ADMIN_NOTIFICATION_ROUTING_KEY));
+        baseMapper.batchInsert(rows);
+    }
+
+    @Override
+    public int dispatchDueBatch() {
+        baseMapper.releaseStaleClaims(new Date(System.currentTimeMillis() - claimTimeoutMillis));
+
+        String claimToken = UUID.randomUUID().toString();
+        if (baseMapper.claimDueBatch(claimToken, batchSize) == 0) {
+            return 0;
+        }
+        List<EmailOutbox> rows = baseMapper.selectByClaimToken(claimToken);
+
+        // Load every order of the batch with one query
+        List<Long> orderNos = rows.stream().map(EmailOutbox::getOrderNo).distinct().toList();
+        Map<Long, CustomerOrder> orders = new HashMap<>();
+        for (CustomerOrder order : customerOrderMapper.selectBatchIds(orderNos)) {
+            orders.put(order.getOrderNo(), order);
+        }
+
+        Map<Integer, CustomerServiceClient.CustomerInfo> customers = new HashMap<>();
+        List<Long> sentIds = new ArrayList<>();
+        for (EmailOutbox row : rows) {
+            try {
+                CustomerOrder order = orders.get(row.getOrderNo());
+                if (order == null) {
+                    throw new IllegalStateException("Order " + row.getOrderNo() + " not found");
+                }
+                // Recipient captured at checkout, older rows fall back to a lookup
+                String customerEmail = row.getCustomerEmail();
+                String customerName = row.getCustomerName();
+                if (customerEmail == null) {
+                    CustomerServiceClient.CustomerInfo customerInfo =
+                            customers.computeIfAbsent(row.getUserId(), customerServiceClient::getCustomerById);
+                    // The fallback carries a placeholder address, retry once customer-service answers
+                    if (customerInfo.isFallback()) {
+                        throw new IllegalStateException("Customer " + row.getUserId() + " could not be loaded");
+                    }
+                    customerEmail = customerInfo.getEmail();
+                    customerName = customerInfo.getName();
+                }
+                emailNotificationService.deliverOrderEmail(row.getEmailType(), order, customerEmail, customerName);
+                sentIds.add(row.getId());
+            } catch (Exception e) {
+                recordFailure(row, e);
+            }
+        }
+
+        if (!sentIds.isEmpty()) {
+            baseMapper.markSent(sentIds);
+        }
+        logger.info("Email outbox batch: {} claimed, {} sent", rows.size(), sentIds.size());
+        return rows.size();
+    }
+
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    private EmailOutbox newRow(CustomerOrder order, CustomerServiceClient.CustomerInfo customerInfo, String emailType) {
+        EmailOutbox row = new EmailOutbox();
+        row.setOrderNo(order.getOrderNo());
+        row.setUserId(order.getUserId());
+        row.setEmailType(emailType);
+        if (customerInfo != null && !customerInfo.isFallback()) {
+            row.setCustomerEmail(customerInfo.getEmail());
+            row.setCustomerName(customerInfo.getName());
+        }
+        return row;
+    }
+
+    /**
+     * Reschedule a failed row with exponential backoff, or give up after maxAttempts
+     */
+    private void recordFailure(EmailOutbox row, Exception e) {
+        int attempts = (row.getAttempts() != null ? row.getAttempts() : 0) + 1;
+        boolean giveUp = attempts >= maxAttempts;
+
+        long backoff = Math.min(baseBackoffMillis << Math.min(attempts - 1, 20), maxBackoffMillis);
+        backoff += ThreadLocalRandom.current().nextLong(backoff / 5 + 1);
+
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+
+        UpdateWrapper<EmailOutbox> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.eq("id", row.getId());
+        updateWrapper.set("status", giveUp ? EmailOutboxStatusConstant.FAILED : EmailOutboxStatusConstant.PENDING);
+        updateWrapper.set("attempts", attempts);
+        updateWrapper.set("next_attempt_time", new Date(System.currentTimeMillis() + backoff));
+        updateWrapper.set("claim_token", null);
+        updateWrapper.set("last_error", error);
+        update(updateWrapper);
+
+        if (giveUp) {
+            logger.error("Email outbox row {} ({} for order {}) failed after {} attempts: {}",
+                    row.getId(), row.getEmailType(), row.getOrderNo(), attempts, error);
+        } else {
+            logger.warn("Email outbox row {} ({} for order {}) failed, retrying in {} ms: {}",
+                    row.getId(), row.getEmailType(), row.getOrderNo(), backoff, error);
+        }
+    }
+}
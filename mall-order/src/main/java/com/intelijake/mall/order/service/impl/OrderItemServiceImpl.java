@@ -6,6 +6,8 @@ import com.intelijake.mall.order.service.IOrderItemService;
 import com.intelijake.mall.pojo.OrderItem;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * <p>
  *  服务实现类
@@ -17,4 +19,19 @@ import org.springframework.stereotype.Service;
 @Service
 public class OrderItemServiceImpl extends ServiceImpl<OrderItemMapper, OrderItem> implements IOrderItemService {
 
+    /**
+     * Maximum rows per INSERT statement
+     */
+    private static final int BATCH_INSERT_CHUNK_SIZE = 500;
+
+    @Override
+    public void batchInsert(List<OrderItem> orderItems) {
+        if (orderItems == null || orderItems.isEmpty()) {
+            return;
+        }
+        for (int from = 0; from < orderItems.size(); from += BATCH_INSERT_CHUNK_SIZE) {
+            int to = Math.min(from + BATCH_INSERT_CHUNK_SIZE, orderItems.size());
+            baseMapper.batchInsert(orderItems.subList(from, to));
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package com.intelijake.mall.order.task;
+
+import com.intelijake.mall.order.service.IEmailOutboxService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Email Outbox Dispatcher
+ * Drains the email outbox in batches in the background, independent of the checkout request
+ * Deliveries are blocking HTTP calls, so they run on a dedicated thread rather than the shared
+ * Spring scheduler thread, where they would delay the Snowflake lease renewal and the payment timeout tick.
+ *
+ * @author Jake
+ * @since 2025-08-14
+ */
+@Component
+@ConditionalOnProperty(name = "order.email-outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    /**
+     * Upper bound of batches per run so the delay between runs stays predictable
+     */
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    @Autowired
+    private IEmailOutboxService emailOutboxService;
+
+    @Value("${order.email-outbox.poll-interval-ms:2000}")
+    private long pollIntervalMillis;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::dispatch, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void dispatch() {
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+                // A short batch means the outbox has been drained
+                if (emailOutboxService.dispatchDueBatch() < emailOutboxService.getBatchSize()) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Email outbox dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+}
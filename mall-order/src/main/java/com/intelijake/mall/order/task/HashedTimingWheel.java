@@ -0,0 +1,156 @@
+package com.intelijake.mall.order.task;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed Timing Wheel
+ * Tracks millions of (id, deadline) pairs in primitive arrays, about 16 bytes per entry.
+ * Deadlines are rounded up to whole ticks and hashed into wheelSize buckets by absolute tick number,
+ * so an entry further away than one revolution simply stays in its bucket until its tick comes round.
+ * Scheduling is O(1) and only locks one bucket; advancing costs O(entries in the swept buckets).
+ * Entries cannot be cancelled: callers are expected to ignore ids that no longer need to fire.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class HashedTimingWheel {
+
+    private final long tickMillis;
+
+    private final int mask;
+
+    private final Bucket[] buckets;
+
+    /**
+     * Last tick that has been (or is being) swept, written before the bucket is locked
+     */
+    private volatile long currentTick;
+
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * @param tickMillis Duration of one tick
+     * @param wheelSize Number of buckets, rounded up to a power of two
+     * @param startMillis Current time, ticks up to this instant are considered swept
+     */
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        int buckets = Integer.highestOneBit(wheelSize - 1 > 0 ? (wheelSize - 1) << 1 : 1);
+        this.tickMillis = tickMillis;
+        this.mask = buckets - 1;
+        this.buckets = new Bucket[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new Bucket();
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedule an id to fire at deadlineMillis, deadlines in the past fire on the next tick
+     *
+     * @param id Identifier handed back on expiry
+     * @param deadlineMillis Epoch milliseconds
+     */
+    public void schedule(long id, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        for (;;) {
+            long tick = Math.max(deadlineTick, currentTick + 1);
+            Bucket bucket = buckets[(int) (tick & mask)];
+            synchronized (bucket) {
+                // Re-check under the lock: the sweeper may have passed this tick meanwhile
+                if (tick > currentTick) {
+                    bucket.add(id, tick);
+                    size.incrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sweep every tick up to nowMillis and hand expired ids to the consumer
+     * Must only be called from one thread at a time
+     *
+     * @param nowMillis Current epoch milliseconds
+     * @param expired Receives each expired id, called while a bucket lock is held
+     * @return Number of expired ids
+     */
+    public int advance(long nowMillis, LongConsumer expired) {
+        long targetTick = nowMillis / tickMillis;
+        int fired = 0;
+        while (currentTick < targetTick) {
+            long tick = currentTick + 1;
+            currentTick = tick;
+            Bucket bucket = buckets[(int) (tick & mask)];
+            synchronized (bucket) {
+                fired += bucket.expire(tick, expired);
+            }
+        }
+        size.addAndGet(-fired);
+        return fired;
+    }
+
+    /**
+     * Number of scheduled entries that have not fired yet
+     */
+    public long size() {
+        return size.get();
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Unordered list of (id, tick) pairs kept in two parallel primitive arrays
+     */
+    private static final class Bucket {
+
+        private static final int INITIAL_CAPACITY = 8;
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+
+        private long[] ticks = new long[INITIAL_CAPACITY];
+
+        private int count;
+
+        void add(long id, long tick) {
+            if (count == ids.length) {
+                int capacity = count + (count >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                ticks = Arrays.copyOf(ticks, capacity);
+            }
+            ids[count] = id;
+            ticks[count] = tick;
+            count++;
+        }
+
+        int expire(long tick, LongConsumer expired) {
+            int fired = 0;
+            int i = 0;
+            while (i < count) {
+                if (ticks[i] <= tick) {
+                    expired.accept(ids[i]);
+                    fired++;
+                    // Swap the last entry into the hole
+                    count--;
+                    ids[i] = ids[count];
+                    ticks[i] = ticks[count];
+                } else {
+                    i++;
+                }
+            }
+            // Give memory back after a burst has drained
+            if (ids.length > INITIAL_CAPACITY && count < ids.length >> 2) {
+                int capacity = Math.max(INITIAL_CAPACITY, count << 1);
+                ids = Arrays.copyOf(ids, capacity);
+                ticks = Arrays.copyOf(ticks, capacity);
+            }
+            return fired;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.intelijake.mall.order.task;
+
+import com.intelijake.mall.common.constant.OrderStatusConstant;
+import com.intelijake.mall.order.mapper.CustomerOrderMapper;
+import com.intelijake.mall.order.service.ICustomerOrderService;
+import com.intelijake.mall.order.vo.OrderStatusTransitionVO;
+import com.intelijake.mall.pojo.CustomerOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order Payment Timeout Task
+ * Cancels orders that stay unpaid past the payment timeout, replacing the delayed-message listener.
+ * Every unpaid order is tracked in an in-process HashedTimingWheel: new orders are registered by
+ * CustomerOrderServiceImpl after commit and the wheel is rebuilt from customer_order on startup,
+ * so nothing is lost across restarts. Expired orders are cancelled in batches through
+ * ICustomerOrderService.cancelBatch, which only moves orders that are still unpaid, so orders paid
+ * meanwhile are skipped and several instances can safely track the same order.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+@ConditionalOnProperty(name = "order.payment-timeout.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderPaymentTimeoutTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPaymentTimeoutTask.class);
+
+    private static final int REBUILD_PAGE_SIZE = 5000;
+
+    @Autowired
+    private CustomerOrderMapper customerOrderMapper;
+
+    /**
+     * Lazy because CustomerOrderServiceImpl registers new orders with this task
+     */
+    @Lazy
+    @Autowired
+    private ICustomerOrderService customerOrderService;
+
+    private final HashedTimingWheel wheel;
+
+    private final long timeoutMillis;
+
+    private final int batchSize;
+
+    private final long retryDelayMillis;
+
+    public OrderPaymentTimeoutTask(@Value("${order.payment-timeout.minutes:30}") long timeoutMinutes,
+                                   @Value("${order.payment-timeout.tick-ms:1000}") long tickMillis,
+                                   @Value("${order.payment-timeout.wheel-size:4096}") int wheelSize,
+                                   @Value("${order.payment-timeout.batch-size:500}") int batchSize,
+                                   @Value("${order.payment-timeout.retry-delay-ms:30000}") long retryDelayMillis) {
+        this.wheel = new HashedTimingWheel(tickMillis, wheelSize, System.currentTimeMillis());
+        this.timeoutMillis = timeoutMinutes * 60_000;
+        this.batchSize = batchSize;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * Start tracking an order, to be called once the order has been committed
+     *
+     * @param orderNo Order number
+     * @param createTimeMillis Order creation time in epoch milliseconds
+     */
+    public void track(Long orderNo, long createTimeMillis) {
+        wheel.schedule(orderNo, createTimeMillis + timeoutMillis);
+    }
+
+    /**
+     * Reload every unpaid order into the wheel, orders already overdue fire on the next tick
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long now = System.currentTimeMillis();
+        long afterOrderNo = 0L;
+        int loaded = 0;
+        try {
+            List<CustomerOrder> page;
+            do {
+                page = customerOrderMapper.selectOrderNoAndCreateTimeByStatus(
+                        OrderStatusConstant.ORDER_STATUS_UN_PAIED, afterOrderNo, REBUILD_PAGE_SIZE);
+                for (CustomerOrder order : page) {
+                    long createTime = order.getCreateTime() != null ? order.getCreateTime().getTime() : now;
+                    track(order.getOrderNo(), createTime);
+                    afterOrderNo = order.getOrderNo();
+                }
+                loaded += page.size();
+            } while (page.size() == REBUILD_PAGE_SIZE);
+            logger.info("Payment timeout wheel rebuilt with {} unpaid orders", loaded);
+        } catch (Exception e) {
+            logger.error("Payment timeout wheel rebuild stopped after {} orders: {}", loaded, e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.payment-timeout.tick-ms:1000}")
+    public void tick() {
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(System.currentTimeMillis(), expired::add);
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            cancel(expired.subList(from, Math.min(from + batchSize, expired.size())));
+        }
+    }
+
+    /**
+     * Cancel one batch of expired orders
+     * A failed batch is put back on the wheel and retried after retryDelayMillis.
+     */
+    private void cancel(List<Long> orderNos) {
+        try {
+            OrderStatusTransitionVO result = customerOrderService.cancelBatch(orderNos);
+            logger.info("Payment timeout reached for {} orders: {} cancelled, {} already paid or closed",
+                    orderNos.size(), result.getTransitioned().size(), result.getSkipped().size());
+        } catch (Exception e) {
+            logger.error("Failed to cancel {} timed out orders, retrying in {}ms: {}",
+                    orderNos.size(), retryDelayMillis, e.getMessage(), e);
+            long retryAt = System.currentTimeMillis() + retryDelayMillis;
+            for (Long orderNo : orderNos) {
+                wheel.schedule(orderNo, retryAt);
+            }
+        }
+    }
+
+    /**
+     * Number of unpaid orders currently tracked
+     */
+    public long getTrackedCount() {
+        return wheel.size();
+    }
+}
@@ -0,0 +1,41 @@
+package com.intelijake.mall.order.vo;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order Status Transition View Object
+ * Outcome of a bulk status transition, split into the orders that moved and the ones that did not
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Data
+public class OrderStatusTransitionVO {
+
+    /**
+     * Status the orders were expected to be in
+     */
+    private Integer currentStatus;
+
+    /**
+     * Status the orders were moved to
+     */
+    private Integer newStatus;
+
+    /**
+     * Orders that were in currentStatus and are now in newStatus
+     */
+    @JsonSerialize(contentUsing = ToStringSerializer.class)
+    private List<Long> transitioned = new ArrayList<>();
+
+    /**
+     * Orders that lost the race: already moved by someone else, in another status, or not found
+     */
+    @JsonSerialize(contentUsing = ToStringSerializer.class)
+    private List<Long> skipped = new ArrayList<>();
+}
@@ -0,0 +1,113 @@
+package com.intelijake.mall.pojo;
+
+import com.baomidou.mybatisplus.annotation.*;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * <p>
+ * Email Outbox Entity
+ * Order emails waiting to be delivered to the email service
+ * </p>
+ *
+ * @author Jake
+ * @since 2025-08-14
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@TableName("email_outbox")
+public class EmailOutbox implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Outbox ID - Primary Key (Auto Increment)
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
+
+    /**
+     * Related Order Number
+     */
+    @TableField("order_no")
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long orderNo;
+
+    /**
+     * Customer User ID
+     */
+    @TableField("user_id")
+    private Integer userId;
+
+    /**
+     * Email Type (order-confirmation, admin-notification)
+     */
+    @TableField("email_type")
+    private String emailType;
+
+    /**
+     * Recipient Email, captured at checkout
+     */
+    @TableField("customer_email")
+    private String customerEmail;
+
+    /**
+     * Recipient Name, captured at checkout
+     */
+    @TableField("customer_name")
+    private String customerName;
+
+    /**
+     * Status (0: Pending, 1: Sent, 2: Failed, 3: In Progress)
+     */
+    @TableField("status")
+    private Integer status;
+
+    /**
+     * Delivery Attempts So Far
+     */
+    @TableField("attempts")
+    private Integer attempts;
+
+    /**
+     * Earliest Time of the Next Attempt
+     */
+    @TableField("next_attempt_time")
+    private Date nextAttemptTime;
+
+    /**
+     * Dispatcher Run That Claimed the Row
+     */
+    @TableField("claim_token")
+    private String claimToken;
+
+    /**
+     * Claim Time
+     */
+    @TableField("claim_time")
+    private Date claimTime;
+
+    /**
+     * Last Delivery Error
+     */
+    @TableField("last_error")
+    private String lastError;
+
+    /**
+     * Creation Time
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private Date createTime;
+
+    /**
+     * Update Time
+     */
+    @TableField(value = "update_time", fill = FieldFill.INSERT_UPDATE)
+    private Date updateTime;
+}
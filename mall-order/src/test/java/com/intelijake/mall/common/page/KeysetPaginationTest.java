@@ -0,0 +1,81 @@
+package com.intelijake.mall.common.page;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPaginationTest {
+
+    private static boolean matches(List<long[]> ranges, long value) {
+        for (long[] range : ranges) {
+            if (value >= range[0] && value <= range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Prefix ranges match exactly the numbers starting with the prefix")
+    void testPrefixRangesMatchStartsWith() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(62));
+            String digits = Long.toString(value);
+            String prefix = digits.substring(0, 1 + random.nextInt(digits.length()));
+            List<long[]> ranges = KeysetPagination.prefixRanges(prefix);
+            assertTrue(matches(ranges, value), prefix + " should match " + value);
+
+            long other = random.nextLong() >>> (1 + random.nextInt(62));
+            assertEquals(Long.toString(other).startsWith(prefix), matches(ranges, other), prefix + " vs " + other);
+        }
+    }
+
+    @Test
+    @DisplayName("Leading zeros, overlong and non-numeric prefixes")
+    void testPrefixEdgeCases() {
+        assertEquals(1, KeysetPagination.prefixRanges("0").size());
+        assertTrue(KeysetPagination.prefixRanges("05").isEmpty());
+        assertTrue(KeysetPagination.prefixRanges("9223372036854775808").isEmpty());
+        assertTrue(KeysetPagination.prefixRanges("12345678901234567890").isEmpty());
+        assertEquals(Long.MAX_VALUE, KeysetPagination.prefixRanges("92233720368547758").get(2)[1]);
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.prefixRanges("12a"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.prefixRanges(""));
+    }
+
+    @Test
+    @DisplayName("Cursor tokens round-trip and bad tokens are rejected")
+    void testCursorToken() {
+        KeysetCursor cursor = new KeysetCursor(1_723_700_000_000L, 1_824_000_123_456_789_012L);
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+        assertEquals(cursor.getTime(), decoded.getTime());
+        assertEquals(cursor.getId(), decoded.getId());
+        assertNull(KeysetCursor.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    @DisplayName("Page sizes default when missing and are capped at MAX_LIMIT")
+    void testPageSize() {
+        assertEquals(20, KeysetPagination.pageSize(null, 20));
+        assertEquals(20, KeysetPagination.pageSize(0, 20));
+        assertEquals(50, KeysetPagination.pageSize(50, 20));
+        assertEquals(KeysetPagination.MAX_LIMIT, KeysetPagination.pageSize(Integer.MAX_VALUE, 20));
+    }
+
+    @Test
+    @DisplayName("The extra row only signals a next page")
+    void testCursorPage() {
+        CursorPage<Integer> full = CursorPage.of(List.of(5, 4, 3), 2, n -> new KeysetCursor(n, n));
+        assertEquals(List.of(5, 4), full.getRecords());
+        assertEquals(4, KeysetCursor.decode(full.getNextCursor()).getId());
+
+        CursorPage<Integer> last = CursorPage.of(List.of(5, 4), 2, n -> new KeysetCursor(n, n));
+        assertEquals(List.of(5, 4), last.getRecords());
+        assertNull(last.getNextCursor());
+    }
+}
@@ -0,0 +1,135 @@
+package com.intelijake.mall.order.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order item insert latency for 1, 10 and 100-line carts:
+ * one INSERT per line in autocommit mode (previous orderItemService.save loop) versus
+ * one multi-row INSERT in a single transaction (OrderItemMapper.batchInsert).
+ * Needs the MySQL server from application-local.yml, override with
+ * -Dbenchmark.jdbc.url / -Dbenchmark.jdbc.user / -Dbenchmark.jdbc.password.
+ * Rows go to a copy of order_item in a scratch schema that is dropped afterwards,
+ * the mall schema is only read for the table definition (-Dbenchmark.source-schema).
+ *
+ * @author Jake
+ * @since 2025-08-12
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderItemInsertBenchmark {
+
+    private static final String INSERT_PREFIX = "INSERT INTO order_item (" +
+            "user_id, order_no, product_id, product_name, product_image, " +
+            "current_unit_price, quantity, total_price, status, create_time, update_time) VALUES ";
+
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())";
+
+    private static final String SCRATCH_SCHEMA = "mall_order_item_benchmark";
+
+    @Param({"1", "10", "100"})
+    private int cartLines;
+
+    private Connection connection;
+
+    private final AtomicLong orderNoSequence = new AtomicLong(1);
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url",
+                        "jdbc:mysql://localhost:3306/?useUnicode=true&characterEncoding=utf-8&useSSL=false&serverTimezone=UTC"),
+                System.getProperty("benchmark.jdbc.user", "root"),
+                System.getProperty("benchmark.jdbc.password", "1234"));
+        String sourceSchema = System.getProperty("benchmark.source-schema", "mall");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + SCRATCH_SCHEMA);
+            statement.execute("CREATE DATABASE " + SCRATCH_SCHEMA);
+            statement.execute("CREATE TABLE " + SCRATCH_SCHEMA + ".order_item LIKE " + sourceSchema + ".order_item");
+        }
+        connection.setCatalog(SCRATCH_SCHEMA);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + SCRATCH_SCHEMA);
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Previous path: one INSERT round trip and commit per cart line
+     */
+    @Benchmark
+    public void rowByRowInsert() throws SQLException {
+        long orderNo = orderNoSequence.getAndIncrement();
+        connection.setAutoCommit(true);
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_PREFIX + ROW)) {
+            for (int line = 0; line < cartLines; line++) {
+                bindRow(statement, 0, orderNo, line);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * New path: one multi-row INSERT inside one transaction
+     */
+    @Benchmark
+    public void multiRowInsert() throws SQLException {
+        long orderNo = orderNoSequence.getAndIncrement();
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        for (int line = 0; line < cartLines; line++) {
+            sql.append(line == 0 ? ROW : "," + ROW);
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            for (int line = 0; line < cartLines; line++) {
+                bindRow(statement, line * 9, orderNo, line);
+            }
+            statement.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private static void bindRow(PreparedStatement statement, int offset, long orderNo, int line) throws SQLException {
+        BigDecimal price = new BigDecimal("6.99");
+        statement.setInt(offset + 1, 1);
+        statement.setLong(offset + 2, orderNo);
+        statement.setInt(offset + 3, line + 1);
+        statement.setString(offset + 4, "Benchmark product " + line);
+        statement.setString(offset + 5, "https://example.com/products/medium/" + line + ".jpg");
+        statement.setBigDecimal(offset + 6, price);
+        statement.setInt(offset + 7, 1);
+        statement.setBigDecimal(offset + 8, price);
+        statement.setInt(offset + 9, 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OrderItemInsertBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
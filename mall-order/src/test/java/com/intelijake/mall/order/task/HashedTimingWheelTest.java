@@ -0,0 +1,93 @@
+package com.intelijake.mall.order.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    @DisplayName("Entries fire on the tick of their deadline, not before")
+    void testFiresAtDeadline() {
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, START);
+        wheel.schedule(1L, START + 250);
+        wheel.schedule(2L, START + 500);
+
+        List<Long> fired = new ArrayList<>();
+        assertEquals(0, wheel.advance(START + 200, fired::add));
+        assertEquals(1, wheel.advance(START + 300, fired::add));
+        assertEquals(List.of(1L), fired);
+        assertEquals(1, wheel.advance(START + 500, fired::add));
+        assertEquals(List.of(1L, 2L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Deadlines beyond one revolution wait for their round")
+    void testMultipleRounds() {
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, START);
+        // Same bucket as START + 100, three revolutions later
+        wheel.schedule(1L, START + 100 + 3 * 800);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(START + 3 * 800, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(START + 100 + 3 * 800, fired::add);
+        assertEquals(List.of(1L), fired);
+    }
+
+    @Test
+    @DisplayName("Deadlines in the past fire on the next tick")
+    void testPastDeadline() {
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, START);
+        wheel.advance(START + 1000, id -> { });
+        wheel.schedule(7L, START - 5000);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(START + 1100, fired::add);
+        assertEquals(List.of(7L), fired);
+    }
+
+    @Test
+    @DisplayName("Concurrent scheduling while advancing loses no entry")
+    void testConcurrentSchedule() throws Exception {
+        HashedTimingWheel wheel = new HashedTimingWheel(1, 16, START);
+        int threads = 4;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            long base = (long) t * perThread;
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    wheel.schedule(base + i, START + (i % 200));
+                }
+                done.countDown();
+            });
+        }
+
+        Set<Long> fired = new HashSet<>();
+        long now = START;
+        while (done.getCount() > 0) {
+            wheel.advance(++now, fired::add);
+        }
+        wheel.advance(now + 1000, fired::add);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, fired.size());
+        assertEquals(0, wheel.size());
+    }
+}
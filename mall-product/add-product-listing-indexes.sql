@@ -0,0 +1,9 @@
+-- Indexes for the storefront product listing (/product/customer/list)
+-- The listing seeks on (create_time, id) newest first, with or without a category filter,
+-- so each page reads only the rows it returns instead of sorting the whole catalog
+
+CREATE INDEX idx_product_listing
+    ON product (is_deleted, status, create_time, id);
+
+CREATE INDEX idx_product_category_listing
+    ON product (category_id, is_deleted, status, create_time, id);
@@ -1,12 +1,14 @@
 package com.intelijake.mall.common.config;
 
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
 @Configuration
 public class S3Config {
@@ -20,12 +22,25 @@ public class S3Config {
     @Value("${cloud.aws.region}")
     private String awsRegion;
 
+    // S3-compatible store to use instead of AWS, e.g. http://localhost:9000 for MinIO
+    @Value("${cloud.aws.s3.endpoint:}")
+    private String endpoint;
+
+    // MinIO and LocalStack serve buckets under the path rather than as subdomains
+    @Value("${cloud.aws.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
     @Bean
     public AmazonS3 amazonS3() {
         BasicAWSCredentials awsCredentials = new BasicAWSCredentials(awsAccessKeyId, awsSecretKey);
-        return AmazonS3ClientBuilder.standard()
-                .withRegion(awsRegion)
+        AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
                 .withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
-                .build();
+                .withPathStyleAccessEnabled(pathStyleAccess);
+        if (StringUtils.hasText(endpoint)) {
+            builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, awsRegion));
+        } else {
+            builder.withRegion(awsRegion);
+        }
+        return builder.build();
     }
 }
\ No newline at end of file
@@ -13,5 +13,27 @@ public class RedisConstants {
     public static final String UPLOAD_IMAGE = "uploadImage";
     public static final String UPLOAD_IMAGE_TO_DB = "uploadImageToDB";
 
+    // Product detail cache and the channel used to invalidate near caches on every instance
+    public static final String PRODUCT_CACHE = "productCache";
+    public static final String NEAR_CACHE_INVALIDATION_CHANNEL = "cache:near:invalidate";
+
+    // Published after product_category changes so every instance rebuilds its category tree
+    public static final String CATEGORY_TREE_CHANGED_CHANNEL = "product:category:changed";
+
+    // Published after products change so every instance reindexes them in its search index
+    public static final String PRODUCT_SEARCH_CHANGED_CHANNEL = "product:search:changed";
+
+    // Uploaded image SHA-256 to the URLs of its stored objects, see ImageHashIndex
+    public static final String IMAGE_HASH_INDEX_PREFIX = "product:image:sha256:";
+
+    // Uploaded image SHA-256 to the URL of its original, never expires, see ImageHashIndex
+    public static final String IMAGE_ORIGINAL_PREFIX = "product:image:original:";
+
+    // Uploads holding the objects of an image in a folder, "<folder>:<SHA-256>", see ImageHashIndex
+    public static final String IMAGE_REFS_PREFIX = "product:image:refs:";
+
+    // State of asynchronous enhanced uploads by job ID, readable by every instance, see ImageJobService
+    public static final String IMAGE_JOB_PREFIX = "product:image:job:";
+
 
 }
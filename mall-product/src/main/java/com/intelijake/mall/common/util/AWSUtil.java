@@ -7,30 +7,100 @@ import com.amazonaws.services.s3.model.CreateBucketRequest;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
-import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * S3 uploads of product-service
+ * The bucket is checked once at startup (again on the next upload if S3 was unreachable then).
+ * Objects up to part-size go up with a single putObject; larger ones, and anything written to an
+ * openUploadStream, are streamed as multipart uploads whose parts are sent in parallel on
+ * upload-threads, so no object is ever held in memory as a whole. Setting cloud.aws.s3.endpoint
+ * points the client at an S3-compatible store such as MinIO or LocalStack, see S3Config.
+ */
 @Component
 @ConditionalOnProperty(prefix = "cloud.aws", name = "credentials.accessKey")
 public class AWSUtil {
 
-    @Autowired
-    private AmazonS3 amazonS3;
+    // S3 rejects parts below 5MB, except the last one
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
 
-    @Value("${cloud.aws.s3.bucket}")
-    private String bucketName;
+    private final AmazonS3 amazonS3;
 
-    @Value("${cloud.aws.region}")
-    private String region;
+    private final String bucketName;
+
+    private final String region;
+
+    private final String endpoint;
+
+    private final int partSize;
+
+    private final int maxPartsInFlight;
+
+    private final ThreadPoolExecutor uploadExecutor;
+
+    private volatile boolean bucketChecked;
+
+    public AWSUtil(AmazonS3 amazonS3,
+                   @Value("${cloud.aws.s3.bucket}") String bucketName,
+                   @Value("${cloud.aws.region}") String region,
+                   @Value("${cloud.aws.s3.endpoint:}") String endpoint,
+                   @Value("${cloud.aws.s3.part-size:8388608}") int partSize,
+                   @Value("${cloud.aws.s3.parts-in-flight:4}") int maxPartsInFlight,
+                   @Value("${cloud.aws.s3.upload-threads:8}") int uploadThreads) {
+        this.amazonS3 = amazonS3;
+        this.bucketName = bucketName;
+        this.region = region;
+        this.endpoint = endpoint;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.maxPartsInFlight = maxPartsInFlight;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(uploadThreads * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "s3-upload-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // When saturated the writer sends its own part instead of queueing without bound
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PostConstruct
+    public void checkBucket() {
+        try {
+            ensureBucketExists();
+        } catch (SdkClientException sce) {
+            // S3 unreachable at startup, the first upload tries again
+            System.out.println("Could not check bucket " + bucketName + ": " + sce.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
 
     /**
      * 确保bucket存在，如果不存在则创建
      */
     private void ensureBucketExists() {
+        if (bucketChecked) {
+            return;
+        }
         try {
             if (!amazonS3.doesBucketExistV2(bucketName)) {
                 System.out.println("Bucket " + bucketName + " does not exist. Creating bucket...");
@@ -43,12 +113,22 @@ public class AWSUtil {
                 }
                 System.out.println("Bucket " + bucketName + " created successfully.");
             }
+            bucketChecked = true;
         } catch (AmazonServiceException ase) {
             System.out.println("Error creating bucket: " + ase.getMessage());
             // 如果bucket创建失败，但可能已经存在，继续执行
+            bucketChecked = true;
         }
     }
 
+    /**
+     * Stream an object to S3, anything above part-size as a parallel multipart upload
+     *
+     * @param objectName Object key
+     * @param inputStream Content, read once and not closed
+     * @param contentLength Exact length of the content
+     * @return Public URL of the object
+     */
     public String uploadFile(String objectName, InputStream inputStream, long contentLength) throws Exception {
         //公网访问地址
         String url = "";
@@ -56,6 +136,18 @@ public class AWSUtil {
             // 确保bucket存在
             ensureBucketExists();
 
+            if (contentLength > partSize) {
+                S3UploadStream output = openUploadStream(objectName);
+                try {
+                    inputStream.transferTo(output);
+                } catch (IOException | RuntimeException e) {
+                    output.abort();
+                    throw e;
+                }
+                output.close();
+                return output.getUrl();
+            }
+
             // 创建ObjectMetadata对象
             ObjectMetadata metadata = new ObjectMetadata();
             metadata.setContentLength(contentLength);
@@ -66,9 +158,7 @@ public class AWSUtil {
             // 上传文件到S3
             amazonS3.putObject(putObjectRequest);
 
-            // 构建S3文件的公网访问URL
-            // https://bucket-name.s3.region.amazonaws.com/objectName
-            url = "https://" + bucketName + ".s3." + region + ".amazonaws.com/" + objectName;
+            url = urlOf(objectName);
 
         } catch (AmazonServiceException ase) {
             System.out.println("Caught an AmazonServiceException, which means your request made it to Amazon S3, "
@@ -89,10 +179,61 @@ public class AWSUtil {
         return url;
     }
 
+    /**
+     * Stream of unknown length into an object, e.g. straight from an image encoder
+     * Call finish() to upload the rest without waiting, or close() to wait; abort() on failure.
+     *
+     * @param objectName Object key
+     */
+    public S3UploadStream openUploadStream(String objectName) {
+        ensureBucketExists();
+        return new S3UploadStream(amazonS3, bucketName, objectName, urlOf(objectName),
+                partSize, maxPartsInFlight, uploadExecutor);
+    }
+
+    /**
+     * Content of a stored object, to be closed by the caller
+     *
+     * @return null if there is no such object
+     */
+    public InputStream openObject(String objectName) {
+        try {
+            return amazonS3.getObject(bucketName, objectName).getObjectContent();
+        } catch (AmazonServiceException ase) {
+            if (ase.getStatusCode() == 404) {
+                return null;
+            }
+            throw ase;
+        }
+    }
+
+    /**
+     * Object key behind a URL returned by urlOf, null for URLs of anything else
+     */
+    public String objectNameOf(String url) {
+        String prefix = urlOf("");
+        return url != null && url.startsWith(prefix) ? url.substring(prefix.length()) : null;
+    }
+
+    /**
+     * Public URL of an object
+     */
+    public String urlOf(String objectName) {
+        if (StringUtils.hasText(endpoint)) {
+            return amazonS3.getUrl(bucketName, objectName).toString();
+        }
+        // 构建S3文件的公网访问URL
+        // https://bucket-name.s3.region.amazonaws.com/objectName
+        return "https://" + bucketName + ".s3." + region + ".amazonaws.com/" + objectName;
+    }
+
     public void deleteFile(String url) {
         try {
-            // 从URL中提取对象名称
-            String objectName = url.substring(url.lastIndexOf("/") + 1);
+            // 从URL中提取对象名称, keys under folders keep their full path
+            String objectName = objectNameOf(url);
+            if (objectName == null) {
+                objectName = url.substring(url.lastIndexOf("/") + 1);
+            }
 
             // 创建删除请求
             DeleteObjectRequest deleteObjectRequest = new DeleteObjectRequest(bucketName, objectName);
@@ -0,0 +1,241 @@
+package com.intelijake.mall.common.util;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * OutputStream that uploads what is written to it as one S3 object
+ * Bytes are collected into a part buffer of at most part-size. An object that never fills a part is
+ * sent with a single putObject when the stream is finished; a larger one becomes a multipart upload
+ * whose parts are sent on the executor while the writer keeps producing the next one. At most
+ * parts-in-flight filled buffers are held per stream, the writer blocks beyond that, so memory stays
+ * bounded no matter how large the object is. A failed upload is aborted so no orphan parts are kept.
+ * Created by AWSUtil.openUploadStream; not thread-safe, write from one thread.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class S3UploadStream extends OutputStream {
+
+    private final AmazonS3 amazonS3;
+
+    private final String bucketName;
+
+    private final String objectName;
+
+    private final String url;
+
+    private final int partSize;
+
+    private final Executor executor;
+
+    private final Semaphore partsInFlight;
+
+    private final List<CompletableFuture<PartETag>> parts = new ArrayList<>();
+
+    private PartBuffer buffer = new PartBuffer();
+
+    private String uploadId;
+
+    private CompletableFuture<String> completion;
+
+    S3UploadStream(AmazonS3 amazonS3, String bucketName, String objectName, String url,
+                   int partSize, int maxPartsInFlight, Executor executor) {
+        this.amazonS3 = amazonS3;
+        this.bucketName = bucketName;
+        this.objectName = objectName;
+        this.url = url;
+        this.partSize = partSize;
+        this.partsInFlight = new Semaphore(maxPartsInFlight);
+        this.executor = executor;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        buffer.write(b);
+        if (buffer.size() == partSize) {
+            sendPart();
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            int chunk = Math.min(length, partSize - buffer.size());
+            buffer.write(data, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+            if (buffer.size() == partSize) {
+                sendPart();
+            }
+        }
+    }
+
+    /**
+     * Send what is left without waiting for the upload
+     *
+     * @return Completes with the object URL once every part is stored, or with the upload failure
+     */
+    public CompletableFuture<String> finish() {
+        if (completion != null) {
+            return completion;
+        }
+        if (uploadId == null) {
+            PartBuffer whole = buffer;
+            completion = CompletableFuture.supplyAsync(() -> {
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentLength(whole.size());
+                amazonS3.putObject(new PutObjectRequest(bucketName, objectName, whole.toInputStream(), metadata));
+                return url;
+            }, executor);
+        } else {
+            try {
+                if (buffer.size() > 0) {
+                    sendPart();
+                }
+            } catch (IOException e) {
+                completion = CompletableFuture.failedFuture(e);
+                abort();
+                return completion;
+            }
+            String id = uploadId;
+            completion = CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                    .thenApplyAsync(ignored -> {
+                        List<PartETag> eTags = new ArrayList<>(parts.size());
+                        parts.forEach(part -> eTags.add(part.join()));
+                        amazonS3.completeMultipartUpload(
+                                new CompleteMultipartUploadRequest(bucketName, objectName, id, eTags));
+                        return url;
+                    }, executor)
+                    .whenComplete((ignored, failure) -> {
+                        if (failure != null) {
+                            abortQuietly(id);
+                        }
+                    });
+        }
+        buffer = null;
+        return completion;
+    }
+
+    /**
+     * Finish and wait until the object is stored
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                    : new IOException("Upload of " + objectName + " failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Give up on the object, e.g. when the writer failed halfway; uploaded parts are discarded
+     */
+    public void abort() {
+        if (completion == null) {
+            completion = CompletableFuture.failedFuture(new IOException("Upload of " + objectName + " was aborted"));
+            buffer = null;
+        }
+        parts.forEach(part -> part.cancel(false));
+        if (uploadId != null) {
+            abortQuietly(uploadId);
+        }
+    }
+
+    /**
+     * URL the object will have once stored
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    private void sendPart() throws IOException {
+        // A failed part fails the whole object, stop producing more
+        for (CompletableFuture<PartETag> part : parts) {
+            if (part.isCompletedExceptionally()) {
+                abort();
+                throw new IOException("Upload of " + objectName + " failed");
+            }
+        }
+        if (uploadId == null) {
+            uploadId = amazonS3.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest(bucketName, objectName)).getUploadId();
+        }
+        try {
+            partsInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while uploading " + objectName);
+        }
+
+        PartBuffer part = buffer;
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucketName)
+                .withKey(objectName)
+                .withUploadId(uploadId)
+                .withPartNumber(parts.size() + 1)
+                .withInputStream(part.toInputStream())
+                .withPartSize(part.size());
+        CompletableFuture<PartETag> upload;
+        try {
+            upload = CompletableFuture.supplyAsync(() -> amazonS3.uploadPart(request).getPartETag(), executor);
+        } catch (RuntimeException e) {
+            partsInFlight.release();
+            throw e;
+        }
+        upload.whenComplete((eTag, failure) -> partsInFlight.release());
+        parts.add(upload);
+        buffer = new PartBuffer();
+    }
+
+    private void abortQuietly(String id) {
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, objectName, id));
+        } catch (RuntimeException e) {
+            System.out.println("Could not abort multipart upload of " + objectName + ": " + e.getMessage());
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (completion != null) {
+            throw new IOException("Upload of " + objectName + " is already finished");
+        }
+    }
+
+    /**
+     * Part buffer that is read back in place instead of copied
+     */
+    private static final class PartBuffer extends ByteArrayOutputStream {
+
+        private PartBuffer() {
+            super(64 * 1024);
+        }
+
+        private InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.intelijake.mall.product.cache;
+
+import cn.hutool.core.util.IdUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.intelijake.mall.common.constant.RedisConstants;
+import com.intelijake.mall.pojo.ProductCategory;
+import com.intelijake.mall.product.mapper.ProductCategoryMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current CategoryTreeSnapshot of product-service
+ * Readers only dereference a volatile field. A write to product_category rebuilds the snapshot once
+ * the transaction has committed, swaps it in and tells the other instances on a Redis channel to do
+ * the same. Snapshots older than max-age are rebuilt on access in case a message was missed.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class CategoryTreeHolder implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeHolder.class);
+
+    private final String instanceId = IdUtil.fastSimpleUUID();
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile CategoryTreeSnapshot snapshot;
+
+    @Autowired
+    private ProductCategoryMapper productCategoryMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Value("${product.category.max-age-ms:300000}")
+    private long maxAgeMillis;
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this,
+                new ChannelTopic(RedisConstants.CATEGORY_TREE_CHANGED_CHANNEL));
+    }
+
+    /**
+     * Current snapshot, built on first use
+     */
+    public CategoryTreeSnapshot get() {
+        CategoryTreeSnapshot current = snapshot;
+        if (current == null) {
+            rebuildLock.lock();
+            try {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                return snapshot;
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        // One reader refreshes an old snapshot, everyone else keeps serving it meanwhile
+        if (System.currentTimeMillis() - current.getBuiltAt() > maxAgeMillis && rebuildLock.tryLock()) {
+            try {
+                rebuild();
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Rebuild after the current transaction commits (immediately without one) and notify other instances
+     */
+    public void categoriesChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuildAndPublish();
+                }
+            });
+        } else {
+            rebuildAndPublish();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!instanceId.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            rebuild();
+        }
+    }
+
+    private void rebuildAndPublish() {
+        rebuild();
+        try {
+            stringRedisTemplate.convertAndSend(RedisConstants.CATEGORY_TREE_CHANGED_CHANNEL, instanceId);
+        } catch (RuntimeException e) {
+            // Other instances pick the change up once their snapshot reaches max-age
+            logger.warn("Category tree change could not be published: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds are serialized so a slow, older load can never replace a newer snapshot
+     */
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            snapshot = load();
+        } catch (RuntimeException e) {
+            logger.error("Category tree rebuild failed, keeping the previous snapshot: {}", e.getMessage(), e);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private CategoryTreeSnapshot load() {
+        // Logically deleted rows are filtered by MyBatis-Plus
+        QueryWrapper<ProductCategory> queryWrapper = new QueryWrapper<>();
+        queryWrapper.orderByAsc("id");
+        CategoryTreeSnapshot built = CategoryTreeSnapshot.build(
+                productCategoryMapper.selectList(queryWrapper), System.currentTimeMillis());
+        logger.info("Category tree snapshot built, etag {}", built.getEtag());
+        return built;
+    }
+}
@@ -0,0 +1,159 @@
+package com.intelijake.mall.product.cache;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.intelijake.mall.pojo.ProductCategory;
+import com.intelijake.mall.product.pojo.vo.ProductCategoryVO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the category tree
+ * Categories are indexed by id in plain arrays: byId[id] holds the category, and the children of
+ * a parent are childIds[childStart[parentId] .. childStart[parentId + 1]) in id order, parent 0
+ * being the root. The storefront tree (active categories only) is built once per snapshot.
+ * A snapshot is never modified, a change produces a new snapshot that replaces it as a whole.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public final class CategoryTreeSnapshot {
+
+    private static final int ACTIVE = 1;
+
+    private final ProductCategory[] byId;
+
+    private final int[] childStart;
+
+    private final int[] childIds;
+
+    private final List<ProductCategoryVO> activeTree;
+
+    private final String etag;
+
+    private final long builtAt;
+
+    private CategoryTreeSnapshot(ProductCategory[] byId, int[] childStart, int[] childIds,
+                                 List<ProductCategoryVO> activeTree, String etag, long builtAt) {
+        this.byId = byId;
+        this.childStart = childStart;
+        this.childIds = childIds;
+        this.activeTree = activeTree;
+        this.etag = etag;
+        this.builtAt = builtAt;
+    }
+
+    /**
+     * Build a snapshot from every category that is not logically deleted
+     */
+    public static CategoryTreeSnapshot build(List<ProductCategory> categories, long builtAt) {
+        List<ProductCategory> rows = new ArrayList<>(categories);
+        rows.sort(Comparator.comparing(ProductCategory::getId));
+
+        int maxId = rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getId();
+        ProductCategory[] byId = new ProductCategory[maxId + 1];
+        int[] childStart = new int[maxId + 2];
+        StringBuilder fingerprint = new StringBuilder(rows.size() * 32);
+        for (ProductCategory row : rows) {
+            byId[row.getId()] = row;
+            int parentId = parentIdOf(row);
+            if (parentId >= 0 && parentId <= maxId) {
+                childStart[parentId + 1]++;
+            }
+            fingerprint.append(row.getId()).append('|').append(parentId).append('|')
+                    .append(row.getName()).append('|').append(row.getStatus()).append('|')
+                    .append(row.getUpdateTime() != null ? row.getUpdateTime().getTime() : 0).append(';');
+        }
+        for (int i = 1; i < childStart.length; i++) {
+            childStart[i] += childStart[i - 1];
+        }
+
+        // Rows are in id order, so every child range comes out sorted by id
+        int[] childIds = new int[childStart[maxId + 1]];
+        int[] cursor = childStart.clone();
+        for (ProductCategory row : rows) {
+            int parentId = parentIdOf(row);
+            if (parentId >= 0 && parentId <= maxId) {
+                childIds[cursor[parentId]++] = row.getId();
+            }
+        }
+
+        List<ProductCategoryVO> activeTree = new ArrayList<>();
+        for (int i = childStart[0]; i < childStart[1]; i++) {
+            ProductCategory top = byId[childIds[i]];
+            if (!isActive(top)) {
+                continue;
+            }
+            ProductCategoryVO topVO = toVO(top);
+            List<ProductCategoryVO> childList = new ArrayList<>();
+            int id = top.getId();
+            for (int j = childStart[id]; j < childStart[id + 1]; j++) {
+                ProductCategory child = byId[childIds[j]];
+                if (isActive(child)) {
+                    childList.add(toVO(child));
+                }
+            }
+            topVO.setChildList(Collections.unmodifiableList(childList));
+            activeTree.add(topVO);
+        }
+
+        // Content hash rather than a counter, so every instance serves the same ETag for the same tree
+        String etag = DigestUtil.md5Hex(fingerprint.toString());
+        return new CategoryTreeSnapshot(byId, childStart, childIds,
+                Collections.unmodifiableList(activeTree), etag, builtAt);
+    }
+
+    /**
+     * Active top-level categories with their active children, as returned by listAll
+     */
+    public List<ProductCategoryVO> getActiveTree() {
+        return activeTree;
+    }
+
+    /**
+     * Direct children of a category regardless of status, parent 0 lists the top-level categories
+     */
+    public List<ProductCategory> getChildren(int parentId) {
+        if (parentId < 0 || parentId + 1 >= childStart.length) {
+            return Collections.emptyList();
+        }
+        List<ProductCategory> children = new ArrayList<>(childStart[parentId + 1] - childStart[parentId]);
+        for (int i = childStart[parentId]; i < childStart[parentId + 1]; i++) {
+            children.add(byId[childIds[i]]);
+        }
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Category by id, null if unknown or deleted
+     */
+    public ProductCategory get(int id) {
+        return id >= 0 && id < byId.length ? byId[id] : null;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    private static int parentIdOf(ProductCategory category) {
+        return category.getParentId() != null ? category.getParentId() : 0;
+    }
+
+    private static boolean isActive(ProductCategory category) {
+        return category.getStatus() != null && category.getStatus() == ACTIVE;
+    }
+
+    private static ProductCategoryVO toVO(ProductCategory category) {
+        ProductCategoryVO vo = new ProductCategoryVO();
+        vo.setId(category.getId());
+        vo.setParentId(parentIdOf(category));
+        vo.setName(category.getName());
+        return vo;
+    }
+}
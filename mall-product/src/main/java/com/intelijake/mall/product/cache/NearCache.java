@@ -0,0 +1,245 @@
+package com.intelijake.mall.product.cache;
+
+import cn.hutool.cache.impl.LRUCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-level cache: a bounded in-process LRU tier in front of a shared Redis cache
+ * Reads are served from memory first, then from Redis, then from the value loader.
+ * Concurrent misses on one key share a single load (single flight), missing values are cached
+ * as NullValue with a shorter TTL, and writes are announced through NearCacheManager so every
+ * other instance drops its local copy. Redis failures degrade to local tier plus loader.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class NearCache extends AbstractValueAdaptingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCache.class);
+
+    private final String name;
+
+    private final Cache remote;
+
+    private final NearCacheManager manager;
+
+    /**
+     * Local tier keyed by the string form of the cache key, values are store values
+     */
+    private final LRUCache<String, Object> local;
+
+    private final long ttlMillis;
+
+    private final long negativeTtlMillis;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+
+    private final LongAdder remoteHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public NearCache(String name, Cache remote, NearCacheManager manager,
+                     int maxSize, long ttlMillis, long negativeTtlMillis) {
+        super(true);
+        this.name = name;
+        this.remote = remote;
+        this.manager = manager;
+        this.local = new LRUCache<>(maxSize);
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = key.toString();
+        Object storeValue = local.get(localKey, false);
+        if (storeValue != null) {
+            localHits.increment();
+            return storeValue;
+        }
+        ValueWrapper wrapper = remoteGet(key);
+        if (wrapper != null) {
+            remoteHits.increment();
+            storeValue = toStoreValue(wrapper.get());
+            putLocal(localKey, storeValue);
+            return storeValue;
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = key.toString();
+        Object storeValue = local.get(localKey, false);
+        if (storeValue != null) {
+            localHits.increment();
+            return (T) fromStoreValue(storeValue);
+        }
+
+        // Single flight: the first caller loads, concurrent callers wait for its result
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(localKey, load);
+        if (inFlight != null) {
+            try {
+                return (T) fromStoreValue(inFlight.join());
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        try {
+            storeValue = loadThrough(key, localKey, valueLoader);
+            load.complete(storeValue);
+            return (T) fromStoreValue(storeValue);
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loading.remove(localKey, load);
+        }
+    }
+
+    private Object loadThrough(Object key, String localKey, Callable<?> valueLoader) throws Exception {
+        // Another load may have completed between the local miss and winning the flight
+        Object storeValue = local.get(localKey, false);
+        if (storeValue != null) {
+            localHits.increment();
+            return storeValue;
+        }
+
+        ValueWrapper wrapper = remoteGet(key);
+        if (wrapper != null) {
+            remoteHits.increment();
+            storeValue = toStoreValue(wrapper.get());
+        } else {
+            misses.increment();
+            Object value = valueLoader.call();
+            storeValue = toStoreValue(value);
+            remotePut(key, value);
+        }
+        putLocal(localKey, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remotePut(key, value);
+        putLocal(key.toString(), toStoreValue(value));
+        manager.publishEvict(name, key.toString());
+    }
+
+    @Override
+    public void evict(Object key) {
+        try {
+            remote.evict(key);
+        } catch (RuntimeException e) {
+            logger.warn("Near cache {}: Redis evict of {} failed: {}", name, key, e.getMessage());
+        }
+        local.remove(key.toString());
+        manager.publishEvict(name, key.toString());
+    }
+
+    @Override
+    public void clear() {
+        try {
+            remote.clear();
+        } catch (RuntimeException e) {
+            logger.warn("Near cache {}: Redis clear failed: {}", name, e.getMessage());
+        }
+        local.clear();
+        manager.publishClear(name);
+    }
+
+    /**
+     * Drop a local entry on behalf of another instance, the shared tier is left alone
+     */
+    void evictLocal(String localKey) {
+        local.remove(localKey);
+    }
+
+    /**
+     * Drop every local entry on behalf of another instance
+     */
+    void clearLocal() {
+        local.clear();
+    }
+
+    private void putLocal(String localKey, Object storeValue) {
+        local.put(localKey, storeValue, storeValue == NullValue.INSTANCE ? negativeTtlMillis : ttlMillis);
+    }
+
+    private ValueWrapper remoteGet(Object key) {
+        try {
+            return remote.get(key);
+        } catch (RuntimeException e) {
+            logger.warn("Near cache {}: Redis read of {} failed: {}", name, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void remotePut(Object key, Object value) {
+        try {
+            remote.put(key, value);
+        } catch (RuntimeException e) {
+            logger.warn("Near cache {}: Redis write of {} failed: {}", name, key, e.getMessage());
+        }
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getLocalSize() {
+        return local.size();
+    }
+
+    /**
+     * Share of reads answered by the local tier
+     */
+    public double getLocalHitRatio() {
+        long local = getLocalHits();
+        long total = local + getRemoteHits() + getMisses();
+        return total == 0 ? 0 : (double) local / total;
+    }
+
+    /**
+     * Share of reads answered without calling the loader
+     */
+    public double getHitRatio() {
+        long hits = getLocalHits() + getRemoteHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,130 @@
+package com.intelijake.mall.product.cache;
+
+import cn.hutool.core.util.IdUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager that puts a NearCache in front of every cache of the wrapped Redis cache manager
+ * Local invalidations are broadcast on a Redis pub/sub channel as "instanceId|cacheName|key",
+ * an empty key meaning clear. Each instance drops the matching local entries, ignoring its own messages.
+ * Per-cache counters are registered as cache.near.gets{result=local_hit|remote_hit|miss}
+ * together with the cache.near.hit.ratio gauges.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class NearCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheManager.class);
+
+    private final String instanceId = IdUtil.fastSimpleUUID();
+
+    private final CacheManager remoteCacheManager;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String channel;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final long negativeTtlMillis;
+
+    private final ConcurrentHashMap<String, NearCache> caches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate, String channel,
+                            MeterRegistry meterRegistry, int maxSize, long ttlMillis, long negativeTtlMillis) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.meterRegistry = meterRegistry;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            if (remote == null) {
+                return null;
+            }
+            NearCache cache = new NearCache(cacheName, remote, this, maxSize, ttlMillis, negativeTtlMillis);
+            bindMetrics(cache);
+            return cache;
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(instanceId + "|" + cacheName + "|" + key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(instanceId + "|" + cacheName + "|");
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (RuntimeException e) {
+            // Other instances fall back to the local TTL
+            logger.warn("Near cache invalidation could not be published: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        NearCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts[2].isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    private void bindMetrics(NearCache cache) {
+        String name = cache.getName();
+        FunctionCounter.builder("cache.near.gets", cache, NearCache::getLocalHits)
+                .tag("cache", name).tag("result", "local_hit").register(meterRegistry);
+        FunctionCounter.builder("cache.near.gets", cache, NearCache::getRemoteHits)
+                .tag("cache", name).tag("result", "remote_hit").register(meterRegistry);
+        FunctionCounter.builder("cache.near.gets", cache, NearCache::getMisses)
+                .tag("cache", name).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cache.near.hit.ratio", cache, NearCache::getHitRatio)
+                .tag("cache", name).tag("level", "overall").register(meterRegistry);
+        Gauge.builder("cache.near.hit.ratio", cache, NearCache::getLocalHitRatio)
+                .tag("cache", name).tag("level", "local").register(meterRegistry);
+        Gauge.builder("cache.near.size", cache, NearCache::getLocalSize)
+                .tag("cache", name).register(meterRegistry);
+    }
+}
@@ -1,20 +1,38 @@
 package com.intelijake.mall.product.config;
 
+import com.intelijake.mall.common.constant.RedisConstants;
+import com.intelijake.mall.product.cache.NearCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.cache.CacheProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NullValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @EnableConfigurationProperties(CacheProperties.class)
 @Configuration
 @EnableCaching
 public class MyCacheConfig {
 
+    /**
+     * Missing values are cached for this long in both tiers
+     */
+    @Value("${product.cache.negative-ttl-ms:60000}")
+    private long negativeTtlMillis;
+
     @Bean
     public RedisCacheConfiguration redisCacheConfiguration(CacheProperties cacheProperties) {
 
@@ -25,9 +43,10 @@ public class MyCacheConfig {
 
         CacheProperties.Redis redisProperties = cacheProperties.getRedis();
         //将配置文件中所有的配置都生效
-        if (redisProperties.getTimeToLive() != null) {
-            config = config.entryTtl(redisProperties.getTimeToLive());
-        }
+        // Null values get the short negative TTL, everything else the configured one (zero = no expiry)
+        Duration ttl = redisProperties.getTimeToLive() != null ? redisProperties.getTimeToLive() : Duration.ZERO;
+        Duration negativeTtl = Duration.ofMillis(negativeTtlMillis);
+        config = config.entryTtl((key, value) -> value == null || value instanceof NullValue ? negativeTtl : ttl);
         if (redisProperties.getKeyPrefix() != null) {
             config = config.prefixCacheNameWith(redisProperties.getKeyPrefix());
         }
@@ -41,4 +60,36 @@ public class MyCacheConfig {
         return config;
     }
 
-}
\ No newline at end of file
+    /**
+     * Redis caches fronted by a bounded in-process tier, see NearCacheManager
+     */
+    @Bean
+    public NearCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                         RedisCacheConfiguration redisCacheConfiguration,
+                                         StringRedisTemplate stringRedisTemplate,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${product.cache.local.max-size:10000}") int localMaxSize,
+                                         @Value("${product.cache.local.ttl-ms:60000}") long localTtlMillis) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(redisCacheConfiguration)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        return new NearCacheManager(redisCacheManager, stringRedisTemplate,
+                RedisConstants.NEAR_CACHE_INVALIDATION_CHANNEL, meterRegistry,
+                localMaxSize, localTtlMillis, negativeTtlMillis);
+    }
+
+    /**
+     * Pub/sub listener container of product-service, receives near cache invalidations
+     * published by other instances; CategoryTreeHolder subscribes here as well
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       NearCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(RedisConstants.NEAR_CACHE_INVALIDATION_CHANNEL));
+        return container;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.intelijake.mall.product.controller;
+
+import com.intelijake.mall.product.image.ImageRenderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.Duration;
+
+/**
+ * Image Controller
+ * Serves uploaded images at any configured size, rendered on first request from the stored original
+ * Renditions are addressed by the content hash of the original, so they never change and can be
+ * cached by browsers and the CDN for good.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@RestController
+@RequestMapping("/image")
+@CrossOrigin
+public class ImageController {
+
+    @Autowired
+    private ImageRenderService imageRenderService;
+
+    @Value("${product.image.render.max-age-days:365}")
+    private long maxAgeDays;
+
+    @Value("${product.image.render.missing-max-age-seconds:60}")
+    private long missingMaxAgeSeconds;
+
+    /**
+     * Image fitted into width x height, aspect ratio kept
+     *
+     * @param hash SHA-256 the original was uploaded under (baseFilename of the upload)
+     * @param width Bounding box width, one of product.image.render.sizes
+     * @param height Bounding box height
+     * @param format jpg, png or gif
+     * @return The encoded image, 304 when the client's copy is current
+     */
+    @GetMapping("/{hash:[0-9a-f]{64}}/{width:\\d{1,4}}x{height:\\d{1,4}}.{format:[a-z]+}")
+    public ResponseEntity<StreamingResponseBody> getImage(@PathVariable String hash,
+                                                          @PathVariable int width,
+                                                          @PathVariable int height,
+                                                          @PathVariable String format,
+                                                          WebRequest request) throws IOException {
+        if (!imageRenderService.isAllowed(width, height, format)) {
+            return notFound();
+        }
+
+        // The content behind a URL never changes, a conditional request needs no rendering at all
+        String etag = "\"" + hash + "-" + width + "x" + height + "." + format + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        ByteBuffer image = imageRenderService.render(hash, width, height, format);
+        if (image == null) {
+            return notFound();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ImageRenderService.FORMATS.get(format)))
+                .contentLength(image.remaining())
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(maxAgeDays)).cachePublic().immutable())
+                .body(output -> Channels.newChannel(output).write(image));
+    }
+
+    /**
+     * Misses are cached briefly, so an image uploaded right after is picked up
+     */
+    private ResponseEntity<StreamingResponseBody> notFound() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(missingMaxAgeSeconds)))
+                .build();
+    }
+}
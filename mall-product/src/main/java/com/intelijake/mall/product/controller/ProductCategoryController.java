@@ -1,16 +1,18 @@
 package com.intelijake.mall.product.controller;
 
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.intelijake.mall.common.util.JwtUtil;
 import com.intelijake.mall.common.util.Result;
 import com.intelijake.mall.pojo.ProductCategory;
+import com.intelijake.mall.product.cache.CategoryTreeSnapshot;
 import com.intelijake.mall.product.pojo.query.ProductCategoryQuery;
 import com.intelijake.mall.product.pojo.vo.ProductCategoryVO;
 import com.intelijake.mall.product.service.IProductCategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.*;
 
@@ -43,9 +45,10 @@ public class ProductCategoryController {
      * Get all product categories in hierarchical structure (Customer endpoint)
      */
     @GetMapping("/listAll")
-    public Result<List<ProductCategoryVO>> listAll() {
-        List<ProductCategoryVO> list = ProductCategoryService.listAll();
-        return Result.ok(list);
+    public ResponseEntity<Result<List<ProductCategoryVO>>> listAll() {
+        // Served from the category tree snapshot, a matching If-None-Match is answered with 304
+        CategoryTreeSnapshot tree = ProductCategoryService.getCategoryTree();
+        return withEtag(tree, Result.ok(tree.getActiveTree()));
     }
 
     // ==================== Admin Management Endpoints ====================
@@ -80,20 +83,20 @@ public class ProductCategoryController {
 
     @DeleteMapping("/deleteById/{id}")
     public Result deleteById(@PathVariable Integer id) {
-        ProductCategoryService.removeById(id);
+        ProductCategoryService.deleteByIds(List.of(id));
         return Result.ok("删除成功");
     }
 
     @DeleteMapping("/deleteAll/{ids}")
     public Result deleteAll(@PathVariable Integer[] ids) {
-        ProductCategoryService.removeBatchByIds(Arrays.asList(ids));
+        ProductCategoryService.deleteByIds(Arrays.asList(ids));
         return Result.ok("删除成功");
     }
 
 
     @PostMapping("/add")
     public Result add(@RequestBody ProductCategory ProductCategory) {
-        ProductCategoryService.save(ProductCategory);
+        ProductCategoryService.add(ProductCategory);
 
         return Result.ok("添加成功");
     }
@@ -106,7 +109,7 @@ public class ProductCategoryController {
 
     @PutMapping("/update")
     public Result update(@RequestBody ProductCategory ProductCategory) {
-        ProductCategoryService.updateById(ProductCategory);
+        ProductCategoryService.update(ProductCategory);
         return Result.ok("更新成功");
     }
 
@@ -121,27 +124,29 @@ public class ProductCategoryController {
     }
 
     @GetMapping("/selectTopCategoryList")
-    public Result<List<ProductCategory>> selectTopCategoryList(){
+    public ResponseEntity<Result<List<ProductCategory>>> selectTopCategoryList(){
 
-        QueryWrapper queryWrapper = new QueryWrapper();
+        CategoryTreeSnapshot tree = ProductCategoryService.getCategoryTree();
 
-        queryWrapper.eq("parent_id",0);
-
-        List<ProductCategory> list = ProductCategoryService.list(queryWrapper);
-
-        return Result.ok(list);
+        return withEtag(tree, Result.ok(tree.getChildren(0)));
     }
 
     @GetMapping("/selectSecondCategoryListByParentId/{id}")
-    public Result<List<ProductCategory>> selectSecondCategoryListByParentId(@PathVariable Integer id){
-
-        QueryWrapper queryWrapper = new QueryWrapper();
+    public ResponseEntity<Result<List<ProductCategory>>> selectSecondCategoryListByParentId(@PathVariable Integer id){
 
-        queryWrapper.eq("parent_id",id);
+        CategoryTreeSnapshot tree = ProductCategoryService.getCategoryTree();
 
-        List<ProductCategory> list = ProductCategoryService.list(queryWrapper);
+        return withEtag(tree, Result.ok(tree.getChildren(id)));
+    }
 
-        return Result.ok(list);
+    /**
+     * Tag a category response with the snapshot ETag, clients must revalidate before reuse
+     */
+    private <T> ResponseEntity<T> withEtag(CategoryTreeSnapshot tree, T body) {
+        return ResponseEntity.ok()
+                .eTag(tree.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(body);
     }
 
 
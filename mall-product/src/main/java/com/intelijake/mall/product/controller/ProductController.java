@@ -1,14 +1,17 @@
 package com.intelijake.mall.product.controller;
 
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.intelijake.mall.common.constant.RedisConstants;
+import com.intelijake.mall.common.page.CursorPage;
+import com.intelijake.mall.common.page.KeysetCursor;
 import com.intelijake.mall.common.util.JwtUtil;
 import com.intelijake.mall.common.util.Result;
 import com.intelijake.mall.pojo.Product;
 import com.intelijake.mall.product.pojo.query.ProductQuery;
+import com.intelijake.mall.product.pojo.vo.CustomerProductVO;
 import com.intelijake.mall.product.pojo.vo.ProductVO;
+import com.intelijake.mall.product.pojo.vo.SuggestionVO;
 import com.intelijake.mall.product.service.IProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 // import org.springframework.data.redis.core.RedisTemplate; // Temporarily disabled due to Redis SSL issues
@@ -52,38 +55,52 @@ public class ProductController {
 
 
     /**
-     * Get product list with optional category filter and limit (Customer endpoint)
+     * Get product list with optional category filter, newest first, one page per call (Customer endpoint)
+     * Pass the returned nextCursor as cursor to get the following page, it is null on the last page.
+     * Without limit and cursor every product is returned with all fields, as clients that filter the
+     * whole catalog themselves expect.
      */
     @GetMapping("/customer/list")
     public Result getCustomerProductList(@RequestParam(required = false) Integer categoryId,
-                                        @RequestParam(required = false) Integer limit) {
-        List<Product> products;
-
-        if (categoryId != null) {
-            // Get products by category
-            products = productService.selectByCategoryId(categoryId);
-        } else {
-            // Get all active products
-            QueryWrapper<Product> wrapper = new QueryWrapper<>();
-            wrapper.eq("is_deleted", 0);
-            wrapper.eq("status", 1);
-            wrapper.orderByDesc("create_time");
-            products = productService.list(wrapper);
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            List<Product> products = categoryId != null
+                    ? productService.selectByCategoryId(categoryId)
+                    : productService.listActive();
+            Map<String, Object> result = new HashMap<>();
+            result.put("records", products);
+            result.put("total", products.size());
+            return Result.ok(result);
         }
 
-        // Apply limit if specified
-        if (limit != null && limit > 0 && products.size() > limit) {
-            products = products.subList(0, limit);
+        KeysetCursor position;
+        try {
+            position = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Result.error(e.getMessage());
         }
 
+        CursorPage<CustomerProductVO> page = productService.selectCustomerPage(categoryId, position, limit);
+
         // Return in the format expected by the frontend (with records property)
         Map<String, Object> result = new HashMap<>();
-        result.put("records", products);
-        result.put("total", products.size());
+        result.put("records", page.getRecords());
+        result.put("total", page.getRecords().size());
+        result.put("nextCursor", page.getNextCursor());
 
         return Result.ok(result);
     }
 
+    /**
+     * Type-ahead completions for the search box (Customer endpoint)
+     */
+    @GetMapping("/suggest")
+    public Result<List<SuggestionVO>> suggest(@RequestParam String prefix,
+                                              @RequestParam(required = false) Integer limit) {
+        return Result.ok(productService.suggest(prefix, limit));
+    }
+
     // ==================== Admin Management Endpoints ====================
 
 
@@ -98,20 +115,20 @@ public class ProductController {
 
     @DeleteMapping("/deleteById/{id}")
     public Result deleteById(@PathVariable Integer id) {
-        productService.removeById(id);
+        productService.deleteById(id);
         return Result.ok("删除成功");
     }
 
     @DeleteMapping("/deleteAll/{ids}")
     public Result deleteAll(@PathVariable Integer[] ids) {
-        productService.removeBatchByIds(Arrays.asList(ids));
+        productService.deleteByIds(Arrays.asList(ids));
         return Result.ok("删除成功");
     }
 
 
     @PostMapping("/add")
     public Result add(@RequestBody Product product) {
-        productService.save(product);
+        productService.add(product);
         // redisTemplate.opsForSet().add(RedisConstants.UPLOAD_IMAGE_TO_DB,product.getMainImage()); // Temporarily disabled due to Redis SSL issues
 
         return Result.ok("添加成功");
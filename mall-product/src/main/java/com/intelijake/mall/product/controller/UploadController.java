@@ -2,15 +2,25 @@ package com.intelijake.mall.product.controller;
 
 import com.intelijake.mall.common.util.AWSUtil;
 import com.intelijake.mall.common.util.Result;
+import com.intelijake.mall.product.image.ImageHashIndex;
+import com.intelijake.mall.product.image.ImageJobService;
+import com.intelijake.mall.product.pojo.vo.ImageJobVO;
 import com.intelijake.mall.product.service.ImageProcessingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 
 /**
  * File Upload Controller
@@ -30,6 +40,15 @@ public class UploadController {
     @Autowired
     private ImageProcessingService imageProcessingService;
 
+    @Autowired
+    private ImageJobService imageJobService;
+
+    @Autowired
+    private ImageHashIndex imageHashIndex;
+
+    @Value("${product.image.job-retry-after-seconds:5}")
+    private int jobRetryAfterSeconds;
+
     /**
      * Upload product image to AWS S3
      * 
@@ -69,22 +88,41 @@ public class UploadController {
      * Generates thumbnail (150x150), medium (400x400), large (800x800), and keeps original
      *
      * @param file The image file to upload
-     * @return Result containing URLs for all image variants
+     * @param async Queue the processing and return a job to poll at /upload/jobs/{id}
+     * @return Result containing URLs for all image variants, or the queued job
      */
     @PostMapping("/product/enhanced")
-    public Result uploadProductImageEnhanced(@RequestParam("file") MultipartFile file) {
-        return uploadImageWithProcessing(file, "products");
+    public ResponseEntity<Result> uploadProductImageEnhanced(@RequestParam("file") MultipartFile file,
+                                                             @RequestParam(defaultValue = "false") boolean async) {
+        return async ? submitImageJob(file, "products") : ResponseEntity.ok(uploadImageWithProcessing(file, "products"));
     }
 
     /**
      * Upload user avatar with automatic resizing and multiple variants
      *
      * @param file The image file to upload
-     * @return Result containing URLs for all image variants
+     * @param async Queue the processing and return a job to poll at /upload/jobs/{id}
+     * @return Result containing URLs for all image variants, or the queued job
      */
     @PostMapping("/user/enhanced")
-    public Result uploadUserAvatarEnhanced(@RequestParam("file") MultipartFile file) {
-        return uploadImageWithProcessing(file, "users");
+    public ResponseEntity<Result> uploadUserAvatarEnhanced(@RequestParam("file") MultipartFile file,
+                                                           @RequestParam(defaultValue = "false") boolean async) {
+        return async ? submitImageJob(file, "users") : ResponseEntity.ok(uploadImageWithProcessing(file, "users"));
+    }
+
+    /**
+     * Progress of an asynchronous enhanced upload, with the variant URLs once completed
+     *
+     * @param id The job ID returned by the upload
+     * @return Result containing the job state
+     */
+    @GetMapping("/jobs/{id}")
+    public Result getImageJob(@PathVariable String id) {
+        ImageJobVO job = imageJobService.get(id);
+        if (job == null) {
+            return Result.error("Image job not found or expired");
+        }
+        return Result.ok(job);
     }
 
     /**
@@ -117,24 +155,39 @@ public class UploadController {
                 return Result.error("File upload service is not configured");
             }
 
-            // Generate unique filename
+            // Name the object after its content, an image stored before is not uploaded again
             String originalFilename = file.getOriginalFilename();
             String fileExtension = "";
             if (originalFilename != null && originalFilename.contains(".")) {
                 fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
             }
-            String uniqueFilename = folder + "/" + UUID.randomUUID().toString() + fileExtension;
+            String hash;
+            try (InputStream source = file.getInputStream()) {
+                hash = ImageHashIndex.sha256(source);
+            }
+            String uniqueFilename = folder + "/" + hash + fileExtension;
 
-            // Upload to S3
-            String fileUrl = awsUtil.uploadFile(uniqueFilename, file.getInputStream(), file.getSize());
+            Map<String, String> stored = imageHashIndex.find(hash, folder, List.of(ImageHashIndex.PLAIN_UPLOAD));
+            String fileUrl;
+            if (stored != null) {
+                fileUrl = stored.get(ImageHashIndex.PLAIN_UPLOAD);
+                imageHashIndex.retain(hash, folder);
+            } else {
+                // Upload to S3
+                try (InputStream source = file.getInputStream()) {
+                    fileUrl = awsUtil.uploadFile(uniqueFilename, source, file.getSize());
+                }
+                imageHashIndex.record(hash, folder, Map.of(ImageHashIndex.PLAIN_UPLOAD, fileUrl));
+            }
 
             // Return success response
             Map<String, Object> result = new HashMap<>();
             result.put("url", fileUrl);
-            result.put("filename", uniqueFilename);
+            result.put("filename", fileUrl.substring(fileUrl.lastIndexOf("/" + folder + "/") + 1));
             result.put("originalName", originalFilename);
             result.put("size", file.getSize());
             result.put("contentType", contentType);
+            result.put("deduplicated", stored != null);
 
             return Result.ok(result);
 
@@ -166,11 +219,44 @@ public class UploadController {
         }
     }
 
+    /**
+     * Validate and store the upload, then queue its processing
+     * A full queue answers 429 with Retry-After so clients back off instead of piling up uploads.
+     *
+     * @param file The image file to upload
+     * @param folder The S3 folder to upload to
+     * @return 202 with the queued job, or the reason it was not accepted
+     */
+    private ResponseEntity<Result> submitImageJob(MultipartFile file, String folder) {
+        try {
+            imageProcessingService.validateImageFile(file);
+            if (awsUtil == null) {
+                return ResponseEntity.ok(Result.error("File upload service is not configured"));
+            }
+
+            ImageJobVO job = imageJobService.submit(file, folder);
+            if (job == null) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(jobRetryAfterSeconds))
+                        .body(Result.error("Image processing is busy, please retry shortly"));
+            }
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.LOCATION, "/upload/jobs/" + job.getId())
+                    .body(Result.ok(job));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.ok(Result.error(e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.ok(Result.error("Failed to store file: " + e.getMessage()));
+        }
+    }
+
     /**
      * Delete uploaded file from S3
+     * An image uploaded to the same folder more than once is kept until every upload of it is deleted.
      * 
      * @param filename The filename to delete
-     * @return Result indicating success or failure
+     * @return Result indicating success or failure, or that the file was kept
      */
     @DeleteMapping("/delete")
     public Result deleteFile(@RequestParam("filename") String filename) {
@@ -179,6 +265,31 @@ public class UploadController {
                 return Result.error("File upload service is not configured");
             }
 
+            // Objects named after their content hash are shared by every upload of the same image to
+            // a folder, they are only deleted once no other upload holds them
+            String hash = ImageHashIndex.hashOf(filename);
+            if (hash != null) {
+                String objectName = awsUtil.objectNameOf(filename);
+                String key = objectName != null ? objectName : filename;
+                String folder = key.contains("/") ? key.substring(0, key.indexOf('/')) : "";
+                Long references = imageHashIndex.release(hash, folder);
+                if (references == null) {
+                    return Result.error("File references could not be checked, the file was kept");
+                }
+                if (references > 0) {
+                    Map<String, Object> kept = new HashMap<>();
+                    kept.put("deleted", false);
+                    kept.put("references", references);
+                    return Result.ok("File is still used by other uploads and was kept", kept);
+                }
+
+                // Every object of the upload goes, original and variants alike
+                Set<String> urls = new LinkedHashSet<>(imageHashIndex.forget(hash, folder));
+                urls.add(filename);
+                urls.forEach(awsUtil::deleteFile);
+                return Result.ok("File deleted successfully");
+            }
+
             awsUtil.deleteFile(filename);
             return Result.ok("File deleted successfully");
 
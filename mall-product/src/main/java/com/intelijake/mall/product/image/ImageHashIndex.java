@@ -0,0 +1,270 @@
+package com.intelijake.mall.product.image;
+
+import com.intelijake.mall.common.constant.RedisConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SHA-256 of uploaded images to the URLs they were stored under
+ * Objects are named after the content hash, so an image that is uploaded again maps to the same keys
+ * and its URLs can be returned without resizing or uploading anything. Each hash is one Redis hash
+ * with a "<folder>/<name>" field per stored object (original, large, ..., or file for plain uploads).
+ * Entries expire ttl-days after they were last used; Redis failures are treated as misses, the upload
+ * then simply overwrites the same objects.
+ * The original of each image is also kept under a separate key without expiry, since renditions are
+ * rendered from it for as long as product pages link to the hash.
+ * Every upload of an image to a folder, stored or deduplicated, holds a reference on its objects there;
+ * a delete only removes them from S3 once the last reference is released.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class ImageHashIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageHashIndex.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int HASH_LENGTH = 64;
+
+    /**
+     * Index name of the untouched upload of an enhanced upload
+     */
+    public static final String ORIGINAL = "original";
+
+    /**
+     * Index name of the single object stored by the plain upload endpoints
+     */
+    public static final String PLAIN_UPLOAD = "file";
+
+    // Decrement and drop the counter at zero in one step, so a concurrent upload never increments a
+    // counter that is about to be deleted
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "local left = redis.call('DECR', KEYS[1]) "
+                    + "if left <= 0 then redis.call('DEL', KEYS[1]) end "
+                    + "return left", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${product.image.dedup-ttl-days:30}")
+    private long ttlDays;
+
+    /**
+     * Hex SHA-256 of the stream, read once in fixed-size chunks and not closed
+     */
+    public static String sha256(InputStream source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = source.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * URLs of a previously stored image
+     *
+     * @param hash Hex SHA-256 of the image
+     * @param folder The S3 folder the image was uploaded to
+     * @param names Every object that must exist, e.g. original and each variant
+     * @return URL by name, null unless all of them are known
+     */
+    public Map<String, String> find(String hash, String folder, List<String> names) {
+        List<String> fields = new ArrayList<>(names.size());
+        names.forEach(name -> fields.add(folder + "/" + name));
+        try {
+            List<String> urls = hashOps().multiGet(key(hash), fields);
+            Map<String, String> found = new LinkedHashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                if (urls.get(i) == null) {
+                    return null;
+                }
+                found.put(names.get(i), urls.get(i));
+            }
+            stringRedisTemplate.expire(key(hash), Duration.ofDays(ttlDays));
+            return found;
+        } catch (RuntimeException e) {
+            logger.warn("Image index lookup of {} failed: {}", hash, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * URL of the stored original of an image, from whichever folder and upload endpoint stored it
+     *
+     * @return null if the image is unknown
+     */
+    public String findOriginal(String hash) {
+        try {
+            String original = stringRedisTemplate.opsForValue().get(originalKey(hash));
+            if (original != null) {
+                return original;
+            }
+
+            // Images recorded before the original key existed are only in the dedup index
+            original = findIndexedOriginal(hash);
+            if (original != null) {
+                stringRedisTemplate.opsForValue().setIfAbsent(originalKey(hash), original);
+            }
+            return original;
+        } catch (RuntimeException e) {
+            logger.warn("Image index lookup of {} failed: {}", hash, e.getMessage());
+            return null;
+        }
+    }
+
+    private String findIndexedOriginal(String hash) {
+        Map<String, String> fields = hashOps().entries(key(hash));
+        String plain = null;
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (field.getKey().endsWith("/" + ORIGINAL)) {
+                return field.getValue();
+            }
+            if (field.getKey().endsWith("/" + PLAIN_UPLOAD)) {
+                plain = field.getValue();
+            }
+        }
+        return plain;
+    }
+
+    /**
+     * Remember where an image was stored, once all its objects are uploaded
+     */
+    public void record(String hash, String folder, Map<String, String> urls) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        urls.forEach((name, url) -> fields.put(folder + "/" + name, url));
+        try {
+            hashOps().putAll(key(hash), fields);
+            stringRedisTemplate.expire(key(hash), Duration.ofDays(ttlDays));
+            retain(hash, folder);
+
+            // The untouched upload of an enhanced upload wins over a plain upload of the same image
+            if (urls.containsKey(ORIGINAL)) {
+                stringRedisTemplate.opsForValue().set(originalKey(hash), urls.get(ORIGINAL));
+            } else if (urls.containsKey(PLAIN_UPLOAD)) {
+                stringRedisTemplate.opsForValue().setIfAbsent(originalKey(hash), urls.get(PLAIN_UPLOAD));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Image index write of {} failed: {}", hash, e.getMessage());
+        }
+    }
+
+    /**
+     * Take a reference on the objects of an image in a folder, for an upload answered from the index
+     * record() takes the reference of the upload that stored them.
+     */
+    public void retain(String hash, String folder) {
+        try {
+            stringRedisTemplate.opsForValue().increment(refsKey(hash, folder));
+        } catch (RuntimeException e) {
+            logger.warn("Image reference count of {} in {} failed: {}", hash, folder, e.getMessage());
+        }
+    }
+
+    /**
+     * Release one reference on the objects of an image in a folder
+     * Objects stored before references were counted have no counter and count as a single reference.
+     *
+     * @return References left, zero or less once the objects may be deleted, null if Redis failed and
+     * the objects must be kept
+     */
+    public Long release(String hash, String folder) {
+        try {
+            return stringRedisTemplate.execute(RELEASE, List.of(refsKey(hash, folder)));
+        } catch (RuntimeException e) {
+            logger.warn("Image reference release of {} in {} failed: {}", hash, folder, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Forget the objects of an image in a folder, once its last reference there was released
+     * The next upload stores them again. The key of the original is dropped if it points into the folder.
+     *
+     * @return URLs of the forgotten objects, empty if the index no longer knew them
+     */
+    public List<String> forget(String hash, String folder) {
+        List<String> urls = new ArrayList<>();
+        try {
+            List<Object> fields = new ArrayList<>();
+            hashOps().entries(key(hash)).forEach((field, url) -> {
+                if (field.startsWith(folder + "/")) {
+                    fields.add(field);
+                    urls.add(url);
+                }
+            });
+            if (!fields.isEmpty()) {
+                hashOps().delete(key(hash), fields.toArray());
+            }
+            String original = stringRedisTemplate.opsForValue().get(originalKey(hash));
+            if (original != null && urls.contains(original)) {
+                stringRedisTemplate.delete(originalKey(hash));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Image index delete of {} failed: {}", hash, e.getMessage());
+        }
+        return urls;
+    }
+
+    /**
+     * The content hash an object key or URL is named after, null for other names
+     */
+    public static String hashOf(String filename) {
+        if (filename == null) {
+            return null;
+        }
+        String name = filename.substring(filename.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        String stem = dot < 0 ? name : name.substring(0, dot);
+        if (stem.length() != HASH_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            if (Character.digit(stem.charAt(i), 16) < 0) {
+                return null;
+            }
+        }
+        return stem.toLowerCase();
+    }
+
+    private HashOperations<String, String, String> hashOps() {
+        return stringRedisTemplate.opsForHash();
+    }
+
+    private static String key(String hash) {
+        return RedisConstants.IMAGE_HASH_INDEX_PREFIX + hash;
+    }
+
+    private static String originalKey(String hash) {
+        return RedisConstants.IMAGE_ORIGINAL_PREFIX + hash;
+    }
+
+    private static String refsKey(String hash, String folder) {
+        return RedisConstants.IMAGE_REFS_PREFIX + folder + ":" + hash;
+    }
+}
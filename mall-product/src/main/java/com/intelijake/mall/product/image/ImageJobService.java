@@ -0,0 +1,326 @@
+package com.intelijake.mall.product.image;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelijake.mall.common.constant.RedisConstants;
+import com.intelijake.mall.product.pojo.vo.ImageJobVO;
+import com.intelijake.mall.product.service.ImageProcessingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous enhanced uploads
+ * The request thread only writes the raw upload to job-dir and queues a job; a small worker pool
+ * renders and uploads the variants through ImageProcessingService while clients poll the job.
+ * Admission is bounded by job-threads + job-queue-size slots, taken before anything is written
+ * to disk, so a burst is refused up front instead of piling up files and work. Jobs run on the
+ * instance that accepted them; every change of their state is also written to Redis, where polls
+ * routed to any other instance read it. Both copies are forgotten job-ttl-ms after the job finishes.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class ImageJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageJobService.class);
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final String UPLOAD_SUFFIX = ".upload";
+
+    private final Map<String, ImageJob> jobs = new ConcurrentHashMap<>();
+
+    // One permit per job running or waiting, released when the job finishes
+    private final Semaphore slots;
+
+    private final ThreadPoolExecutor workers;
+
+    @Autowired
+    private ImageProcessingService imageProcessingService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${product.image.job-dir:${java.io.tmpdir}/mall-image-jobs}")
+    private String jobDir;
+
+    @Value("${product.image.job-ttl-ms:3600000}")
+    private long jobTtlMs;
+
+    private Path jobPath;
+
+    public ImageJobService(@Value("${product.image.job-threads:2}") int jobThreads,
+                           @Value("${product.image.job-queue-size:16}") int jobQueueSize) {
+        this.slots = new Semaphore(jobThreads + jobQueueSize);
+        AtomicInteger threadNo = new AtomicInteger();
+        // The queue never holds more than job-queue-size jobs, the semaphore admits no more
+        this.workers = new ThreadPoolExecutor(jobThreads, jobThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-job-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        jobPath = Files.createDirectories(Paths.get(jobDir));
+        // Uploads of jobs lost in a restart are never picked up again. Other instances on the host may
+        // share job-dir, so only uploads older than any job could still be are removed.
+        long cutoff = System.currentTimeMillis() - jobTtlMs;
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(jobPath, "*" + UPLOAD_SUFFIX)) {
+            for (Path leftover : leftovers) {
+                if (Files.getLastModifiedTime(leftover).toMillis() < cutoff) {
+                    deleteQuietly(leftover);
+                }
+            }
+        }
+    }
+
+    /**
+     * Store an already validated upload and queue its processing
+     *
+     * @return The queued job, null when every slot is taken
+     */
+    public ImageJobVO submit(MultipartFile file, String folder) throws IOException {
+        if (!slots.tryAcquire()) {
+            return null;
+        }
+        String id = UUID.randomUUID().toString();
+        Path stored = jobPath.resolve(id + UPLOAD_SUFFIX);
+        try {
+            file.transferTo(stored);
+            ImageJob job = new ImageJob(id, folder, file.getOriginalFilename(), file.getContentType(), stored);
+            jobs.put(id, job);
+            save(job);
+            workers.execute(() -> run(job));
+            return job.toVO();
+        } catch (IOException | RuntimeException e) {
+            jobs.remove(id);
+            delete(id);
+            deleteQuietly(stored);
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Current state of a job, accepted by this or any other instance
+     *
+     * @return null if unknown or already forgotten
+     */
+    public ImageJobVO get(String id) {
+        ImageJob job = jobs.get(id);
+        if (job != null) {
+            return job.toVO();
+        }
+        try {
+            String json = stringRedisTemplate.opsForValue().get(key(id));
+            return json == null ? null : objectMapper.readValue(json, ImageJobVO.class);
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Image job {} could not be read: {}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    private void run(ImageJob job) {
+        try {
+            job.started();
+            save(job);
+            Map<String, Object> result = imageProcessingService.processAndUploadImage(job.stored,
+                    job.originalFilename, job.contentType, job.folder, (step, completedSteps, totalSteps) -> {
+                        if (job.stepCompleted(step, completedSteps, totalSteps)) {
+                            save(job);
+                        }
+                    });
+            job.completed(result);
+            save(job);
+        } catch (Exception e) {
+            logger.warn("Image job {} ({}) failed: {}", job.id, job.originalFilename, e.getMessage());
+            job.failed(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            save(job);
+        } finally {
+            deleteQuietly(job.stored);
+            slots.release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.image.job-purge-ms:60000}")
+    public void purgeFinished() {
+        purgeFinishedBefore(System.currentTimeMillis() - jobTtlMs);
+    }
+
+    /**
+     * Forget the local state of jobs finished before the cutoff, the Redis copy expires on its own
+     */
+    void purgeFinishedBefore(long cutoff) {
+        jobs.values().removeIf(job -> job.finishedBefore(cutoff));
+    }
+
+    /**
+     * Slots neither running nor waiting
+     */
+    int availableSlots() {
+        return slots.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Write the state of a job for polls on other instances, expiring job-ttl-ms after its last change
+     * Writes of one job are serialized on it, so a slower upload thread cannot overwrite newer progress.
+     */
+    private void save(ImageJob job) {
+        synchronized (job) {
+            try {
+                stringRedisTemplate.opsForValue().set(key(job.id), objectMapper.writeValueAsString(job.toVO()),
+                        Duration.ofMillis(jobTtlMs));
+            } catch (JsonProcessingException | RuntimeException e) {
+                logger.warn("Image job {} could not be saved: {}", job.id, e.getMessage());
+            }
+        }
+    }
+
+    private void delete(String id) {
+        try {
+            stringRedisTemplate.delete(key(id));
+        } catch (RuntimeException e) {
+            logger.warn("Image job {} could not be deleted: {}", id, e.getMessage());
+        }
+    }
+
+    private static String key(String id) {
+        return RedisConstants.IMAGE_JOB_PREFIX + id;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Stored upload {} could not be deleted: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Mutable job state, updated by the worker and its upload threads, read by pollers
+     */
+    private static final class ImageJob {
+
+        private final String id;
+
+        private final String folder;
+
+        private final String originalFilename;
+
+        private final String contentType;
+
+        private final Path stored;
+
+        private final long createdAt = System.currentTimeMillis();
+
+        private String status = STATUS_QUEUED;
+
+        private int completedSteps;
+
+        private int totalSteps;
+
+        private String step;
+
+        private Map<String, Object> result;
+
+        private String error;
+
+        private long finishedAt;
+
+        private ImageJob(String id, String folder, String originalFilename, String contentType, Path stored) {
+            this.id = id;
+            this.folder = folder;
+            this.originalFilename = originalFilename;
+            this.contentType = contentType;
+            this.stored = stored;
+        }
+
+        private synchronized void started() {
+            status = STATUS_PROCESSING;
+        }
+
+        /**
+         * @return Whether the step advanced the job, upload threads may report out of order
+         */
+        private synchronized boolean stepCompleted(String step, int completedSteps, int totalSteps) {
+            if (completedSteps <= this.completedSteps) {
+                return false;
+            }
+            this.completedSteps = completedSteps;
+            this.totalSteps = totalSteps;
+            this.step = step;
+            return true;
+        }
+
+        private synchronized void completed(Map<String, Object> result) {
+            this.result = result;
+            this.completedSteps = totalSteps;
+            this.status = STATUS_COMPLETED;
+            this.finishedAt = System.currentTimeMillis();
+        }
+
+        private synchronized void failed(String error) {
+            this.error = error;
+            this.status = STATUS_FAILED;
+            this.finishedAt = System.currentTimeMillis();
+        }
+
+        private synchronized boolean finishedBefore(long cutoff) {
+            return finishedAt != 0 && finishedAt < cutoff;
+        }
+
+        private synchronized ImageJobVO toVO() {
+            ImageJobVO vo = new ImageJobVO();
+            vo.setId(id);
+            vo.setStatus(status);
+            vo.setProgress(STATUS_COMPLETED.equals(status) ? 100
+                    : totalSteps == 0 ? 0 : completedSteps * 100 / totalSteps);
+            vo.setStep(step);
+            vo.setResult(result);
+            vo.setError(error);
+            vo.setCreatedAt(createdAt);
+            vo.setFinishedAt(finishedAt == 0 ? null : finishedAt);
+            return vo;
+        }
+    }
+}
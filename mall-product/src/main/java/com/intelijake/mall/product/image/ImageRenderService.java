@@ -0,0 +1,139 @@
+package com.intelijake.mall.product.image;
+
+import com.intelijake.mall.common.util.AWSUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Renders images at a requested size on first use, from the original stored by an upload
+ * Only the configured sizes and formats are rendered, so the cache cannot be flooded with arbitrary
+ * dimensions. Results go to RenderedImageCache; concurrent requests for the same rendition wait for a
+ * single render, and at most max-concurrent renders decode originals at a time.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class ImageRenderService {
+
+    /**
+     * Output formats by extension, with their content types
+     */
+    public static final Map<String, String> FORMATS = Map.of(
+            "jpg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif");
+
+    private final Map<String, CompletableFuture<ByteBuffer>> rendering = new ConcurrentHashMap<>();
+
+    private final Set<String> sizes;
+
+    private final float quality;
+
+    private final Semaphore renderSlots;
+
+    @Autowired(required = false)
+    private AWSUtil awsUtil;
+
+    @Autowired
+    private ImageHashIndex imageHashIndex;
+
+    @Autowired
+    private RenderedImageCache renderedImageCache;
+
+    public ImageRenderService(@Value("${product.image.render.sizes:150x150,400x400,800x800}") String[] sizes,
+                              @Value("${product.image.render.quality:0.8}") float quality,
+                              @Value("${product.image.render.max-concurrent:4}") int maxConcurrent) {
+        this.sizes = Set.of(sizes);
+        this.quality = quality;
+        this.renderSlots = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Whether a rendition may be requested at all
+     */
+    public boolean isAllowed(int width, int height, String format) {
+        return FORMATS.containsKey(format) && sizes.contains(width + "x" + height);
+    }
+
+    /**
+     * Encoded image fitted into width x height, rendered and cached on the first request
+     *
+     * @param hash Content hash the original was uploaded under
+     * @return The image positioned at its start, null if no original is stored for the hash
+     */
+    public ByteBuffer render(String hash, int width, int height, String format) throws IOException {
+        String key = hash + "_" + width + "x" + height + "." + format;
+        ByteBuffer cached = renderedImageCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Single flight: the first request renders, identical concurrent requests wait for its result
+        CompletableFuture<ByteBuffer> render = new CompletableFuture<>();
+        CompletableFuture<ByteBuffer> inFlight = rendering.putIfAbsent(key, render);
+        if (inFlight != null) {
+            try {
+                ByteBuffer image = inFlight.join();
+                return image == null ? null : image.duplicate();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                        : new IOException("Rendering " + key + " failed", e.getCause());
+            }
+        }
+
+        try {
+            ByteBuffer image = renderThrough(key, hash, width, height, format);
+            render.complete(image);
+            return image == null ? null : image.duplicate();
+        } catch (IOException | RuntimeException e) {
+            render.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key, render);
+        }
+    }
+
+    private ByteBuffer renderThrough(String key, String hash, int width, int height, String format) throws IOException {
+        // Another render may have finished between the cache miss and winning the flight
+        ByteBuffer cached = renderedImageCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (awsUtil == null) {
+            return null;
+        }
+        String objectName = awsUtil.objectNameOf(imageHashIndex.findOriginal(hash));
+        if (objectName == null) {
+            return null;
+        }
+
+        try {
+            renderSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to render " + key);
+        }
+        try (InputStream original = awsUtil.openObject(objectName)) {
+            if (original == null) {
+                return null;
+            }
+            return renderedImageCache.put(key, output ->
+                    ImageVariantPipeline.resize(original, width, height, format, quality, output));
+        } finally {
+            renderSlots.release();
+        }
+    }
+}
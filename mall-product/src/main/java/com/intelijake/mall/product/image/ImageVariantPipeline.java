@@ -0,0 +1,178 @@
+package com.intelijake.mall.product.image;
+
+import net.coobird.thumbnailator.Thumbnails;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the resized variants of an uploaded image from a single decode
+ * The source is decoded once (EXIF orientation applied), then variants are produced largest first,
+ * each one scaled down from the previous variant instead of from the full-size raster, so the
+ * expensive pass over the original happens once. A variant is only used as the base of the next one
+ * when it was an actual downscale; small sources are scaled from the decoded original as before.
+ * Every encoded variant is handed to the sink right away, so callers can start uploading it while
+ * the smaller ones are still being rendered. A StreamingVariantSink gets to encode each variant
+ * straight into its own stream instead, e.g. an S3 upload.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class ImageVariantPipeline {
+
+    /**
+     * Receives each variant as soon as it is encoded
+     */
+    @FunctionalInterface
+    public interface VariantSink {
+        void accept(String name, byte[] data) throws IOException;
+    }
+
+    /**
+     * Receives each variant ready to be encoded into an output of its choice
+     */
+    @FunctionalInterface
+    public interface StreamingVariantSink {
+        void accept(String name, VariantEncoder encoder) throws IOException;
+    }
+
+    /**
+     * Encodes one rendered variant, only valid during the StreamingVariantSink call it was passed to
+     */
+    @FunctionalInterface
+    public interface VariantEncoder {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    private final List<Variant> variants;
+
+    private final float quality;
+
+    /**
+     * @param sizes Bounding box edge of each variant by name, in any order
+     * @param quality Output quality between 0 and 1
+     */
+    public ImageVariantPipeline(Map<String, Integer> sizes, float quality) {
+        List<Variant> sorted = new ArrayList<>();
+        sizes.forEach((name, size) -> sorted.add(new Variant(name, size)));
+        sorted.sort(Comparator.comparingInt((Variant variant) -> variant.size).reversed());
+        this.variants = sorted;
+        this.quality = quality;
+    }
+
+    /**
+     * Number of variants rendered per image
+     */
+    public int variantCount() {
+        return variants.size();
+    }
+
+    /**
+     * Names of the variants in rendering order, largest first
+     */
+    public List<String> variantNames() {
+        List<String> names = new ArrayList<>(variants.size());
+        variants.forEach(variant -> names.add(variant.name));
+        return names;
+    }
+
+    /**
+     * Decode the source once and render every variant, largest first
+     *
+     * @param source Encoded image, read once and not closed
+     * @param outputFormat Output format name (jpg, png, gif)
+     * @param sink Called with each encoded variant in rendering order
+     */
+    public void render(InputStream source, String outputFormat, VariantSink sink) throws IOException {
+        renderStreaming(source, outputFormat, (name, encoder) -> {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            encoder.writeTo(output);
+            sink.accept(name, output.toByteArray());
+        });
+    }
+
+    /**
+     * Decode the source once and render every variant, largest first, letting the sink encode each one
+     *
+     * @param source Encoded image, read once and not closed
+     * @param outputFormat Output format name (jpg, png, gif)
+     * @param sink Called with each rendered variant in rendering order
+     */
+    public void renderStreaming(InputStream source, String outputFormat, StreamingVariantSink sink) throws IOException {
+        BufferedImage base = decode(source);
+        for (Variant variant : variants) {
+            BufferedImage scaled = Thumbnails.of(base)
+                    .size(variant.size, variant.size)
+                    .asBufferedImage();
+            sink.accept(variant.name, output -> encode(scaled, outputFormat, output));
+            if (scaled.getWidth() < base.getWidth() && scaled.getHeight() < base.getHeight()) {
+                base = scaled;
+            }
+        }
+    }
+
+    /**
+     * Decode the source once and return every variant by name, largest first
+     */
+    public Map<String, byte[]> render(InputStream source, String outputFormat) throws IOException {
+        Map<String, byte[]> rendered = new LinkedHashMap<>();
+        render(source, outputFormat, rendered::put);
+        return rendered;
+    }
+
+    /**
+     * Render a single size straight from an encoded source, for sizes that are not eager variants
+     *
+     * @param source Encoded image, read once and not closed
+     * @param width Bounding box width
+     * @param height Bounding box height
+     * @param outputFormat Output format name (jpg, png, gif)
+     * @param quality Output quality between 0 and 1
+     * @param output Receives the encoded image, not closed
+     */
+    public static void resize(InputStream source, int width, int height, String outputFormat, float quality,
+                              OutputStream output) throws IOException {
+        Thumbnails.of(source)
+                .size(width, height)
+                .outputQuality(quality)
+                .outputFormat(outputFormat)
+                .toOutputStream(output);
+    }
+
+    /**
+     * Decode to a raster, rotated according to the EXIF orientation like Thumbnailator does when resizing
+     */
+    public static BufferedImage decode(InputStream source) throws IOException {
+        return Thumbnails.of(source)
+                .scale(1.0)
+                .asBufferedImage();
+    }
+
+    private void encode(BufferedImage image, String outputFormat, OutputStream output) throws IOException {
+        Thumbnails.of(image)
+                .scale(1.0)
+                .outputQuality(quality)
+                .outputFormat(outputFormat)
+                .toOutputStream(output);
+    }
+
+    private static final class Variant {
+
+        private final String name;
+
+        private final int size;
+
+        private Variant(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.intelijake.mall.product.image;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded on-disk LRU of rendered images
+ * Every entry is a file in cache-dir, memory-mapped once when it is added, so hot images are served
+ * from the page cache without being copied onto the heap. Least recently used files are deleted once
+ * the total size exceeds max-bytes; readers still holding an evicted buffer keep a valid mapping
+ * until it is collected. Files are written under a temporary name and moved into place, and the
+ * entries found in cache-dir at startup are kept, oldest first in LRU order.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class RenderedImageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderedImageCache.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Writes the content of a new entry
+     */
+    @FunctionalInterface
+    public interface EntryWriter {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    // Access ordered, the eldest entry is the least recently used
+    private final LinkedHashMap<String, MappedByteBuffer> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    private long totalBytes;
+
+    public RenderedImageCache(@Value("${product.image.render.cache-dir:${java.io.tmpdir}/mall-image-render}") String cacheDir,
+                              @Value("${product.image.render.cache-max-bytes:536870912}") long maxBytes) {
+        this.directory = Paths.get(cacheDir);
+        this.maxBytes = maxBytes;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparing(RenderedImageCache::lastModified));
+        for (Path file : files) {
+            try {
+                add(file.getFileName().toString(), map(file));
+            } catch (IOException e) {
+                logger.warn("Rendered image {} could not be loaded: {}", file, e.getMessage());
+                deleteQuietly(file);
+            }
+        }
+        logger.info("Rendered image cache: {} entries, {} bytes in {}", entries.size(), totalBytes, directory);
+    }
+
+    /**
+     * Content of an entry, positioned at its start
+     *
+     * @return null on a miss
+     */
+    public synchronized ByteBuffer get(String key) {
+        MappedByteBuffer buffer = entries.get(key);
+        return buffer == null ? null : buffer.duplicate();
+    }
+
+    /**
+     * Write a new entry and add it, evicting least recently used entries beyond max-bytes
+     *
+     * @param key File name of the entry, must be a plain file name
+     * @return Content of the entry, positioned at its start
+     */
+    public ByteBuffer put(String key, EntryWriter writer) throws IOException {
+        Path temp = directory.resolve(UUID.randomUUID() + TEMP_SUFFIX);
+        Path target = directory.resolve(key);
+        MappedByteBuffer buffer;
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                writer.writeTo(output);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            buffer = map(target);
+        } finally {
+            deleteQuietly(temp);
+        }
+        synchronized (this) {
+            add(key, buffer);
+        }
+        return buffer.duplicate();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private void add(String key, MappedByteBuffer buffer) {
+        MappedByteBuffer previous = entries.put(key, buffer);
+        if (previous != null) {
+            totalBytes -= previous.capacity();
+        }
+        totalBytes += buffer.capacity();
+
+        // The newest entry stays even if it alone is larger than the limit
+        Iterator<Map.Entry<String, MappedByteBuffer>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1) {
+            Map.Entry<String, MappedByteBuffer> entry = eldest.next();
+            totalBytes -= entry.getValue().capacity();
+            eldest.remove();
+            deleteQuietly(directory.resolve(entry.getKey()));
+        }
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Rendered image {} could not be deleted: {}", file, e.getMessage());
+        }
+    }
+}
@@ -4,7 +4,14 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.intelijake.mall.pojo.Product;
 import com.intelijake.mall.product.pojo.query.ProductQuery;
+import com.intelijake.mall.product.pojo.vo.CustomerProductVO;
+import com.intelijake.mall.product.pojo.vo.ProductSalesVO;
 import com.intelijake.mall.product.pojo.vo.ProductVO;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 /**
  * <p>
@@ -17,4 +24,34 @@ import com.intelijake.mall.product.pojo.vo.ProductVO;
 public interface ProductMapper extends BaseMapper<Product> {
 
     IPage<ProductVO> list(IPage<ProductVO> page, ProductQuery productQuery);
+
+    /**
+     * Non-deleted products with their category name, ordered by id, for the search index
+     * @param ids Only these products, ignored when null
+     * @param categoryId Only products of this category, ignored when null
+     * @param afterId Only products with a greater id, ignored when null
+     * @param limit Maximum number of rows, ignored when null
+     */
+    List<ProductVO> selectForIndex(@Param("ids") Collection<Integer> ids,
+                                   @Param("categoryId") Integer categoryId,
+                                   @Param("afterId") Integer afterId,
+                                   @Param("limit") Integer limit);
+
+    /**
+     * Units sold per product over orders in the given statuses
+     * @param statuses Order statuses that count as a sale
+     */
+    List<ProductSalesVO> selectSales(@Param("statuses") Collection<Integer> statuses);
+
+    /**
+     * Active products newest first, starting after (cursorTime, cursorId)
+     * @param categoryId Only products of this category, ignored when null
+     * @param cursorTime create_time of the last row of the previous page, null for the first page
+     * @param cursorId id of the last row of the previous page
+     * @param limit Maximum number of rows
+     */
+    List<CustomerProductVO> selectCustomerPage(@Param("categoryId") Integer categoryId,
+                                               @Param("cursorTime") Date cursorTime,
+                                               @Param("cursorId") Long cursorId,
+                                               @Param("limit") int limit);
 }
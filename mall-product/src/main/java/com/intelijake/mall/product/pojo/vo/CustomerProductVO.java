@@ -0,0 +1,117 @@
+package com.intelijake.mall.product.pojo.vo;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Product card in the storefront listing, only the columns the listing shows
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class CustomerProductVO {
+
+    /**
+     * Product ID
+     */
+    private Integer id;
+
+    /**
+     * Category ID
+     */
+    private Integer categoryId;
+
+    /**
+     * Product name
+     */
+    private String name;
+
+    /**
+     * Product subtitle
+     */
+    private String subtitle;
+
+    /**
+     * Main product image, relative URL
+     */
+    private String mainImage;
+
+    /**
+     * Price in EUR, with two decimal places
+     */
+    private BigDecimal price;
+
+    /**
+     * Stock quantity
+     */
+    private Integer stock;
+
+    /**
+     * Creation time, part of the pagination cursor
+     */
+    private Date createTime;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    public void setSubtitle(String subtitle) {
+        this.subtitle = subtitle;
+    }
+
+    public String getMainImage() {
+        return mainImage;
+    }
+
+    public void setMainImage(String mainImage) {
+        this.mainImage = mainImage;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+}
@@ -0,0 +1,116 @@
+package com.intelijake.mall.product.pojo.vo;
+
+import java.util.Map;
+
+/**
+ * State of an asynchronous image upload job, polled at /upload/jobs/{id}
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class ImageJobVO {
+
+    /**
+     * Job ID
+     */
+    private String id;
+
+    /**
+     * QUEUED, PROCESSING, COMPLETED or FAILED
+     */
+    private String status;
+
+    /**
+     * Finished steps in percent, rendering each variant and every upload count as one step
+     */
+    private Integer progress;
+
+    /**
+     * Last finished step, e.g. "large rendered"
+     */
+    private String step;
+
+    /**
+     * Same data as the synchronous enhanced upload returns (urls, baseFilename, variants...), once COMPLETED
+     */
+    private Map<String, Object> result;
+
+    /**
+     * Failure message, once FAILED
+     */
+    private String error;
+
+    /**
+     * Submission time, epoch milliseconds
+     */
+    private Long createdAt;
+
+    /**
+     * Completion or failure time, epoch milliseconds
+     */
+    private Long finishedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getProgress() {
+        return progress;
+    }
+
+    public void setProgress(Integer progress) {
+        this.progress = progress;
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public void setStep(String step) {
+        this.step = step;
+    }
+
+    public Map<String, Object> getResult() {
+        return result;
+    }
+
+    public void setResult(Map<String, Object> result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
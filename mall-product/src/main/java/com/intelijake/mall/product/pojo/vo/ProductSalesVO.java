@@ -0,0 +1,36 @@
+package com.intelijake.mall.product.pojo.vo;
+
+/**
+ * Units sold of one product, used to rank search suggestions
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class ProductSalesVO {
+
+    /**
+     * Product ID
+     */
+    private Integer productId;
+
+    /**
+     * Units sold
+     */
+    private Long quantity;
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -12,4 +12,12 @@ import com.intelijake.mall.pojo.Product;
  */
 public class ProductVO extends Product {
     private String categoryName;
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
 }
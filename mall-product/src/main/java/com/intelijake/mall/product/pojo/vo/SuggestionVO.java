@@ -0,0 +1,57 @@
+package com.intelijake.mall.product.pojo.vo;
+
+/**
+ * Type-ahead completion for the storefront search box
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class SuggestionVO {
+
+    /**
+     * Product or category name
+     */
+    private String text;
+
+    /**
+     * "product" or "category"
+     */
+    private String type;
+
+    /**
+     * Product ID or category ID, depending on type
+     */
+    private Integer id;
+
+    public SuggestionVO() {}
+
+    public SuggestionVO(String text, String type, Integer id) {
+        this.text = text;
+        this.type = type;
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+}
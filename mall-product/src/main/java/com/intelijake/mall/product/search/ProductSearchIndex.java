@@ -0,0 +1,418 @@
+package com.intelijake.mall.product.search;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.intelijake.mall.common.constant.RedisConstants;
+import com.intelijake.mall.product.mapper.ProductMapper;
+import com.intelijake.mall.product.pojo.vo.ProductVO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory Lucene index over product name, subtitle and category name
+ * The index is rebuilt from MySQL once the application is ready and then kept current incrementally:
+ * product and category writes reindex the affected rows after commit and publish their ids on a Redis
+ * channel so every other instance does the same. Until the first rebuild has finished isReady() is
+ * false and callers fall back to SQL. Every batch of indexed rows is also published as a
+ * ProductsIndexedEvent for other in-memory views of the catalog.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class ProductSearchIndex implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final String ID = "id";
+    private static final String ID_SORT = "idSort";
+    private static final String CATEGORY_ID = "categoryId";
+    private static final String NAME = "name";
+    private static final String SUBTITLE = "subtitle";
+    private static final String CATEGORY = "category";
+
+    // A match in the name ranks above one in the category name, which ranks above the subtitle
+    private static final String[] FIELDS = {NAME, CATEGORY, SUBTITLE};
+    private static final float[] BOOSTS = {3f, 2f, 1f};
+
+    // Relevance first, newest product first among equal scores
+    private static final Sort RELEVANCE = new Sort(SortField.FIELD_SCORE,
+            new SortField(ID_SORT, SortField.Type.LONG, true));
+
+    private static final String PRODUCTS = "p";
+    private static final String CATEGORY_PRODUCTS = "c";
+
+    private final String instanceId = IdUtil.fastSimpleUUID();
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final ByteBuffersDirectory directory = new ByteBuffersDirectory();
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    // Ids changed while the initial rebuild runs, reindexed again once it is done
+    private final Set<Integer> pendingIds = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    @Value("${product.search.max-window:10000}")
+    private int maxWindow;
+
+    public ProductSearchIndex() {
+        try {
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this,
+                new ChannelTopic(RedisConstants.PRODUCT_SEARCH_CHANGED_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        int count = 0;
+        try {
+            writer.deleteAll();
+            Integer afterId = null;
+            List<ProductVO> batch;
+            do {
+                batch = productMapper.selectForIndex(null, null, afterId, rebuildBatchSize);
+                for (ProductVO product : batch) {
+                    writer.updateDocument(idTerm(product.getId()), toDocument(product));
+                }
+                count += batch.size();
+                eventPublisher.publishEvent(new ProductsIndexedEvent(batch, List.of()));
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == rebuildBatchSize);
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Product search index rebuild failed, searches fall back to SQL: {}", e.getMessage(), e);
+            return;
+        }
+        ready = true;
+        logger.info("Product search index built with {} products in {} ms", count, System.currentTimeMillis() - start);
+
+        List<Integer> pending = new ArrayList<>(pendingIds);
+        pendingIds.removeAll(pending);
+        if (!pending.isEmpty()) {
+            reindex(pending);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Whether the initial rebuild has finished and search() reflects the whole catalog
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Relevance-ranked search, every term must match name, subtitle or category and the last one may be a prefix
+     * @param text User input
+     * @param categoryId Only products of this category, ignored when null
+     * @param page Page number starting at 1
+     * @param limit Page size
+     * @return Total number of matches and the product ids of the requested page in rank order
+     */
+    public Hits search(String text, Integer categoryId, int page, int limit) {
+        Query query = buildQuery(text, categoryId);
+        if (query == null || page < 1 || limit < 1) {
+            return new Hits(0, List.of());
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int total = searcher.count(query);
+                long offset = (long) (page - 1) * limit;
+                int window = (int) Math.min(Math.min(offset + limit, total), maxWindow);
+                if (offset >= window) {
+                    return new Hits(total, List.of());
+                }
+                TopDocs topDocs = searcher.search(query, window, RELEVANCE);
+                StoredFields storedFields = searcher.storedFields();
+                List<Integer> ids = new ArrayList<>(window - (int) offset);
+                for (int i = (int) offset; i < topDocs.scoreDocs.length; i++) {
+                    ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                    ids.add(Integer.valueOf(storedFields.document(scoreDoc.doc).get(ID)));
+                }
+                return new Hits(total, ids);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reindex products after the current transaction commits (immediately without one) and notify other instances
+     * @param ids Added, updated or deleted product ids
+     */
+    public void productsChanged(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Integer> copy = List.copyOf(ids);
+        afterCommit(() -> {
+            reindex(copy);
+            publish(PRODUCTS, StrUtil.join(",", copy));
+        });
+    }
+
+    /**
+     * Reindex the products of a renamed category after the current transaction commits and notify other instances
+     * @param categoryId Updated category id
+     */
+    public void categoryChanged(Integer categoryId) {
+        afterCommit(() -> {
+            reindexCategory(categoryId);
+            publish(CATEGORY_PRODUCTS, String.valueOf(categoryId));
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // instanceId|type|payload
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        if (CATEGORY_PRODUCTS.equals(parts[1])) {
+            reindexCategory(Integer.valueOf(parts[2]));
+        } else {
+            List<Integer> ids = new ArrayList<>();
+            for (String id : parts[2].split(",")) {
+                ids.add(Integer.valueOf(id));
+            }
+            reindex(ids);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void publish(String type, String payload) {
+        try {
+            stringRedisTemplate.convertAndSend(RedisConstants.PRODUCT_SEARCH_CHANGED_CHANNEL,
+                    instanceId + "|" + type + "|" + payload);
+        } catch (RuntimeException e) {
+            // Other instances pick the change up on their next rebuild
+            logger.warn("Product search change could not be published: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reload products from MySQL, those no longer found (deleted) are removed from the index
+     */
+    private void reindex(Collection<Integer> ids) {
+        if (!ready) {
+            pendingIds.addAll(ids);
+        }
+        try {
+            Set<Integer> missing = new HashSet<>(ids);
+            List<ProductVO> products = productMapper.selectForIndex(ids, null, null, null);
+            for (ProductVO product : products) {
+                writer.updateDocument(idTerm(product.getId()), toDocument(product));
+                missing.remove(product.getId());
+            }
+            for (Integer id : missing) {
+                writer.deleteDocuments(idTerm(id));
+            }
+            searcherManager.maybeRefreshBlocking();
+            eventPublisher.publishEvent(new ProductsIndexedEvent(products, missing));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Reindexing products {} failed: {}", ids, e.getMessage());
+        }
+    }
+
+    private void reindexCategory(Integer categoryId) {
+        try {
+            List<ProductVO> products = productMapper.selectForIndex(null, categoryId, null, null);
+            for (ProductVO product : products) {
+                writer.updateDocument(idTerm(product.getId()), toDocument(product));
+            }
+            searcherManager.maybeRefreshBlocking();
+            eventPublisher.publishEvent(new ProductsIndexedEvent(products, List.of()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Reindexing products of category {} failed: {}", categoryId, e.getMessage());
+        }
+    }
+
+    private Query buildQuery(String text, Integer categoryId) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            // The user may still be typing the last word
+            boolean prefix = i == terms.size() - 1;
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            for (int f = 0; f < FIELDS.length; f++) {
+                anyField.add(new BoostQuery(new TermQuery(new Term(FIELDS[f], term)), BOOSTS[f]),
+                        BooleanClause.Occur.SHOULD);
+                if (prefix) {
+                    anyField.add(new BoostQuery(new PrefixQuery(new Term(FIELDS[f], term)), BOOSTS[f] / 2),
+                            BooleanClause.Occur.SHOULD);
+                }
+            }
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        if (categoryId != null) {
+            query.add(new TermQuery(new Term(CATEGORY_ID, categoryId.toString())), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (StrUtil.isBlank(text)) {
+            return terms;
+        }
+        try (TokenStream tokens = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static Term idTerm(Integer id) {
+        return new Term(ID, id.toString());
+    }
+
+    private static Document toDocument(ProductVO product) {
+        Document document = new Document();
+        document.add(new StringField(ID, product.getId().toString(), Field.Store.YES));
+        document.add(new NumericDocValuesField(ID_SORT, product.getId()));
+        if (product.getCategoryId() != null) {
+            document.add(new StringField(CATEGORY_ID, product.getCategoryId().toString(), Field.Store.NO));
+        }
+        document.add(new TextField(NAME, StrUtil.nullToEmpty(product.getName()), Field.Store.NO));
+        document.add(new TextField(SUBTITLE, StrUtil.nullToEmpty(product.getSubtitle()), Field.Store.NO));
+        document.add(new TextField(CATEGORY, StrUtil.nullToEmpty(product.getCategoryName()), Field.Store.NO));
+        return document;
+    }
+
+    /**
+     * One page of search results
+     */
+    public static final class Hits {
+
+        private final long total;
+
+        private final List<Integer> ids;
+
+        public Hits(long total, List<Integer> ids) {
+            this.total = total;
+            this.ids = ids;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public List<Integer> getIds() {
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.intelijake.mall.product.search;
+
+import com.intelijake.mall.product.pojo.vo.ProductVO;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by ProductSearchIndex after it has (re)indexed products, on this and every other instance
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class ProductsIndexedEvent {
+
+    private final List<ProductVO> products;
+
+    private final Collection<Integer> removedIds;
+
+    public ProductsIndexedEvent(List<ProductVO> products, Collection<Integer> removedIds) {
+        this.products = products;
+        this.removedIds = removedIds;
+    }
+
+    /**
+     * Current rows of the indexed products, with their category name
+     */
+    public List<ProductVO> getProducts() {
+        return products;
+    }
+
+    /**
+     * Ids of products that no longer exist or were deleted
+     */
+    public Collection<Integer> getRemovedIds() {
+        return removedIds;
+    }
+}
@@ -0,0 +1,148 @@
+package com.intelijake.mall.product.search;
+
+import com.intelijake.mall.common.constant.OrderStatusConstant;
+import com.intelijake.mall.product.cache.CategoryTreeHolder;
+import com.intelijake.mall.product.cache.CategoryTreeSnapshot;
+import com.intelijake.mall.product.mapper.ProductMapper;
+import com.intelijake.mall.product.pojo.vo.ProductCategoryVO;
+import com.intelijake.mall.product.pojo.vo.ProductSalesVO;
+import com.intelijake.mall.product.pojo.vo.ProductVO;
+import com.intelijake.mall.product.pojo.vo.SuggestionVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Type-ahead suggestions for product and category names, ranked by units sold
+ * Lookups only read the current SuggestionSnapshot. Product changes arrive as ProductsIndexedEvents
+ * from the search index, sales are reloaded from order_item periodically and the category tree is
+ * taken from CategoryTreeHolder; any of them changing marks the snapshot dirty and it is rebuilt
+ * from memory on the next rebuild tick.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class SuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    private static final int ON_SALE = 1;
+
+    private static final List<Integer> SOLD_STATUSES = List.of(OrderStatusConstant.ORDER_STATUS_PAIED,
+            OrderStatusConstant.ORDER_STATUS_SHIPPED, OrderStatusConstant.ORDER_STATUS_COMPLETED);
+
+    // Name and category of every product on sale
+    private final Map<Integer, ProductEntry> products = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private volatile Map<Integer, Long> sales = Map.of();
+
+    private volatile String categoryEtag;
+
+    private volatile SuggestionSnapshot snapshot = SuggestionSnapshot.empty();
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private CategoryTreeHolder categoryTreeHolder;
+
+    /**
+     * Top completions of a prefix, no database access
+     */
+    public List<SuggestionVO> suggest(String prefix, int limit) {
+        return snapshot.lookup(prefix, limit);
+    }
+
+    @EventListener
+    public void onProductsIndexed(ProductsIndexedEvent event) {
+        for (ProductVO product : event.getProducts()) {
+            if (Objects.equals(product.getStatus(), ON_SALE)) {
+                products.put(product.getId(), new ProductEntry(product.getName(), product.getCategoryId()));
+            } else {
+                products.remove(product.getId());
+            }
+        }
+        event.getRemovedIds().forEach(products::remove);
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${product.suggest.sales-refresh-ms:600000}")
+    public void refreshSales() {
+        try {
+            Map<Integer, Long> loaded = new HashMap<>();
+            for (ProductSalesVO row : productMapper.selectSales(SOLD_STATUSES)) {
+                loaded.put(row.getProductId(), row.getQuantity());
+            }
+            sales = loaded;
+            dirty.set(true);
+        } catch (RuntimeException e) {
+            logger.warn("Product sales could not be loaded, keeping the previous weights: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.suggest.rebuild-delay-ms:1000}")
+    public void rebuildIfChanged() {
+        CategoryTreeSnapshot tree;
+        try {
+            tree = categoryTreeHolder.get();
+        } catch (RuntimeException e) {
+            logger.warn("Category tree unavailable, suggestions not rebuilt: {}", e.getMessage());
+            return;
+        }
+        if (!dirty.getAndSet(false) && tree.getEtag().equals(categoryEtag)) {
+            return;
+        }
+        categoryEtag = tree.getEtag();
+        snapshot = build(tree, sales);
+    }
+
+    private SuggestionSnapshot build(CategoryTreeSnapshot tree, Map<Integer, Long> sales) {
+        SuggestionSnapshot.Builder builder = new SuggestionSnapshot.Builder();
+        Map<Integer, Long> categorySales = new HashMap<>();
+        products.forEach((id, product) -> {
+            long sold = sales.getOrDefault(id, 0L);
+            builder.add(product.name, SuggestionSnapshot.TYPE_PRODUCT, id, sold);
+            if (product.categoryId != null) {
+                categorySales.merge(product.categoryId, sold, Long::sum);
+            }
+        });
+        // A top category weighs what its own products and its children's products sold
+        for (ProductCategoryVO top : tree.getActiveTree()) {
+            long topSold = categorySales.getOrDefault(top.getId(), 0L);
+            if (top.getChildList() != null) {
+                for (ProductCategoryVO child : top.getChildList()) {
+                    long childSold = categorySales.getOrDefault(child.getId(), 0L);
+                    builder.add(child.getName(), SuggestionSnapshot.TYPE_CATEGORY, child.getId(), childSold);
+                    topSold += childSold;
+                }
+            }
+            builder.add(top.getName(), SuggestionSnapshot.TYPE_CATEGORY, top.getId(), topSold);
+        }
+        return builder.build();
+    }
+
+    private static final class ProductEntry {
+
+        private final String name;
+
+        private final Integer categoryId;
+
+        private ProductEntry(String name, Integer categoryId) {
+            this.name = name;
+            this.categoryId = categoryId;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.intelijake.mall.product.search;
+
+import com.intelijake.mall.product.pojo.vo.SuggestionVO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable prefix index of suggestion texts weighted by sales
+ * Every suggestion is indexed under each of its word starts ("apple iphone 15" also as "iphone 15"
+ * and "15"), normalized to lower case and kept in one sorted array, so the keys completing a prefix
+ * form a contiguous range found by binary search. A sparse table holds the heaviest key of every
+ * power-of-two range, which yields the top-k of any range in O(k log k) without scanning it.
+ * A snapshot is never modified, a change produces a new snapshot that replaces it as a whole.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public final class SuggestionSnapshot {
+
+    public static final String TYPE_PRODUCT = "product";
+    public static final String TYPE_CATEGORY = "category";
+
+    private static final SuggestionSnapshot EMPTY = new Builder().build();
+
+    private final String[] keys;
+
+    // Suggestion index of each key
+    private final int[] entryOf;
+
+    private final String[] texts;
+
+    private final String[] types;
+
+    private final int[] ids;
+
+    private final long[] weights;
+
+    // best[j][i] is the key index with the highest weight in keys[i .. i + 2^j)
+    private final int[][] best;
+
+    private SuggestionSnapshot(String[] keys, int[] entryOf, String[] texts, String[] types, int[] ids, long[] weights) {
+        this.keys = keys;
+        this.entryOf = entryOf;
+        this.texts = texts;
+        this.types = types;
+        this.ids = ids;
+        this.weights = weights;
+        this.best = buildSparseTable();
+    }
+
+    public static SuggestionSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Normalize user input and indexed texts the same way: lower case, single spaces, trimmed
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Top suggestions completing a prefix, heaviest first, one per distinct text
+     * @param prefix User input, normalized here
+     * @param limit Maximum number of suggestions
+     */
+    public List<SuggestionVO> lookup(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        List<SuggestionVO> result = new ArrayList<>(Math.max(limit, 0));
+        if (normalized.isEmpty() || limit <= 0) {
+            return result;
+        }
+        int from = lowerBound(normalized);
+        int to = lowerBound(normalized + Character.MAX_VALUE);
+        if (from >= to) {
+            return result;
+        }
+
+        // Ranges ordered by their heaviest key, popping one splits it around that key
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                Comparator.comparingLong((int[] range) -> weights[entryOf[range[2]]]).reversed()
+                        .thenComparingInt(range -> range[2]));
+        ranges.add(new int[]{from, to, maxIn(from, to)});
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int key = range[2];
+            int entry = entryOf[key];
+            if (!containsText(result, texts[entry])) {
+                result.add(new SuggestionVO(texts[entry], types[entry], ids[entry]));
+            }
+            if (range[0] < key) {
+                ranges.add(new int[]{range[0], key, maxIn(range[0], key)});
+            }
+            if (key + 1 < range[1]) {
+                ranges.add(new int[]{key + 1, range[1], maxIn(key + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of distinct suggestions
+     */
+    public int size() {
+        return texts.length;
+    }
+
+    private static boolean containsText(List<SuggestionVO> suggestions, String text) {
+        for (SuggestionVO suggestion : suggestions) {
+            if (suggestion.getText().equalsIgnoreCase(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int maxIn(int from, int to) {
+        int level = 31 - Integer.numberOfLeadingZeros(to - from);
+        return heavier(best[level][from], best[level][to - (1 << level)]);
+    }
+
+    private int heavier(int a, int b) {
+        long wa = weights[entryOf[a]];
+        long wb = weights[entryOf[b]];
+        return wa > wb || (wa == wb && a < b) ? a : b;
+    }
+
+    private int[][] buildSparseTable() {
+        int n = keys.length;
+        int levels = n == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(n);
+        int[][] table = new int[levels][];
+        if (levels == 0) {
+            return table;
+        }
+        table[0] = new int[n];
+        for (int i = 0; i < n; i++) {
+            table[0][i] = i;
+        }
+        for (int level = 1; level < levels; level++) {
+            int half = 1 << (level - 1);
+            int[] previous = table[level - 1];
+            int[] current = new int[n - (1 << level) + 1];
+            for (int i = 0; i < current.length; i++) {
+                current[i] = heavier(previous[i], previous[i + half]);
+            }
+            table[level] = current;
+        }
+        return table;
+    }
+
+    /**
+     * Collects suggestions, build() sorts their keys once
+     */
+    public static final class Builder {
+
+        private final List<String> texts = new ArrayList<>();
+
+        private final List<String> types = new ArrayList<>();
+
+        private final List<Integer> ids = new ArrayList<>();
+
+        private final List<Long> weights = new ArrayList<>();
+
+        public Builder add(String text, String type, int id, long weight) {
+            if (!normalize(text).isEmpty()) {
+                texts.add(text.trim());
+                types.add(type);
+                ids.add(id);
+                weights.add(weight);
+            }
+            return this;
+        }
+
+        public SuggestionSnapshot build() {
+            int entries = texts.size();
+            List<String> keyList = new ArrayList<>(entries * 3);
+            List<Integer> entryList = new ArrayList<>(entries * 3);
+            for (int entry = 0; entry < entries; entry++) {
+                // Normalized text has single spaces and no leading one, so every word starts after a space
+                String normalized = normalize(texts.get(entry));
+                int start = 0;
+                while (start >= 0) {
+                    keyList.add(normalized.substring(start));
+                    entryList.add(entry);
+                    int space = normalized.indexOf(' ', start);
+                    start = space < 0 ? -1 : space + 1;
+                }
+            }
+
+            Integer[] order = new Integer[keyList.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(keyList::get));
+            String[] keys = new String[order.length];
+            int[] entryOf = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = keyList.get(order[i]);
+                entryOf[i] = entryList.get(order[i]);
+            }
+
+            long[] weightArray = new long[entries];
+            int[] idArray = new int[entries];
+            for (int entry = 0; entry < entries; entry++) {
+                weightArray[entry] = weights.get(entry);
+                idArray[entry] = ids.get(entry);
+            }
+            return new SuggestionSnapshot(keys, entryOf, texts.toArray(new String[0]),
+                    types.toArray(new String[0]), idArray, weightArray);
+        }
+    }
+}
@@ -3,9 +3,11 @@ package com.intelijake.mall.product.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.intelijake.mall.pojo.ProductCategory;
+import com.intelijake.mall.product.cache.CategoryTreeSnapshot;
 import com.intelijake.mall.product.pojo.query.ProductCategoryQuery;
 import com.intelijake.mall.product.pojo.vo.ProductCategoryVO;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,4 +33,28 @@ public interface IProductCategoryService extends IService<ProductCategory> {
      * @return List of product categories with parent-child relationships
      */
     List<ProductCategoryVO> listAll();
+
+    /**
+     * Get the in-memory category tree snapshot, its ETag changes whenever a category changes
+     * @return Current category tree snapshot
+     */
+    CategoryTreeSnapshot getCategoryTree();
+
+    /**
+     * Add category and rebuild the category tree (Admin functionality)
+     * @param productCategory Category to add
+     */
+    void add(ProductCategory productCategory);
+
+    /**
+     * Update category and rebuild the category tree (Admin functionality)
+     * @param productCategory Category to update
+     */
+    void update(ProductCategory productCategory);
+
+    /**
+     * Logically delete categories and rebuild the category tree (Admin functionality)
+     * @param ids Category IDs
+     */
+    void deleteByIds(Collection<Integer> ids);
 }
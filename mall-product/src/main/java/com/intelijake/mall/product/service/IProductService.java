@@ -2,10 +2,15 @@ package com.intelijake.mall.product.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.intelijake.mall.common.page.CursorPage;
+import com.intelijake.mall.common.page.KeysetCursor;
 import com.intelijake.mall.pojo.Product;
 import com.intelijake.mall.product.pojo.query.ProductQuery;
+import com.intelijake.mall.product.pojo.vo.CustomerProductVO;
 import com.intelijake.mall.product.pojo.vo.ProductVO;
+import com.intelijake.mall.product.pojo.vo.SuggestionVO;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -39,10 +44,51 @@ public interface IProductService extends IService<Product> {
      */
     void update(Product product);
 
+    /**
+     * Add product with cache eviction (Admin functionality)
+     * @param product Product to add, its generated ID is set on return
+     */
+    void add(Product product);
+
+    /**
+     * Logically delete a product with cache eviction (Admin functionality)
+     * @param id Product ID
+     */
+    void deleteById(Integer id);
+
+    /**
+     * Logically delete products with cache eviction (Admin functionality)
+     * @param ids Product IDs
+     */
+    void deleteByIds(Collection<Integer> ids);
+
     /**
      * Get products by category ID (Portal functionality)
      * @param id Category ID
      * @return List of products in the specified category
      */
     List<Product> selectByCategoryId(Integer id);
+
+    /**
+     * All active products, newest first (Portal functionality)
+     * @return List of every active product with all fields
+     */
+    List<Product> listActive();
+
+    /**
+     * Page of active products, newest first (Portal functionality)
+     * @param categoryId Optional category filter
+     * @param cursor Position after the previous page, null for the first page
+     * @param limit Page size, defaulted and capped by configuration
+     * @return Products of the page and the cursor of the next one
+     */
+    CursorPage<CustomerProductVO> selectCustomerPage(Integer categoryId, KeysetCursor cursor, Integer limit);
+
+    /**
+     * Type-ahead completions of product and category names, best sellers first (Portal functionality)
+     * @param prefix What the customer has typed so far
+     * @param limit Maximum number of completions
+     * @return Completions, served from memory
+     */
+    List<SuggestionVO> suggest(String prefix, Integer limit);
 }
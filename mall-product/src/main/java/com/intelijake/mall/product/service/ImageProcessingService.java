@@ -2,6 +2,7 @@ package com.intelijake.mall.product.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.util.Map;
 
 /**
@@ -23,6 +24,20 @@ public interface ImageProcessingService {
      */
     Map<String, Object> processAndUploadImage(MultipartFile file, String folder) throws Exception;
     
+    /**
+     * Process and upload an already validated image stored on local disk
+     * 
+     * @param source The stored image file, left in place
+     * @param originalFilename The name the image was uploaded with
+     * @param contentType The content type the image was uploaded with
+     * @param folder The S3 folder to upload to
+     * @param listener Told about every rendered variant and finished upload, may be null
+     * @return Map containing URLs for all image variants
+     * @throws Exception if processing or upload fails
+     */
+    Map<String, Object> processAndUploadImage(Path source, String originalFilename, String contentType,
+                                              String folder, ProgressListener listener) throws Exception;
+    
     /**
      * Generate image variants (thumbnail, medium, large)
      * 
@@ -39,4 +54,20 @@ public interface ImageProcessingService {
      * @throws IllegalArgumentException if validation fails
      */
     void validateImageFile(MultipartFile file) throws IllegalArgumentException;
+    
+    /**
+     * Progress of one image through rendering and upload
+     */
+    @FunctionalInterface
+    interface ProgressListener {
+        
+        /**
+         * Called once per finished step, possibly from an upload thread
+         * 
+         * @param step What was finished, e.g. "large rendered"
+         * @param completedSteps Steps finished so far
+         * @param totalSteps Steps of the whole image
+         */
+        void stepCompleted(String step, int completedSteps, int totalSteps);
+    }
 }
@@ -1,22 +1,42 @@
 package com.intelijake.mall.product.service.impl;
 
 import com.intelijake.mall.common.util.AWSUtil;
+import com.intelijake.mall.common.util.S3UploadStream;
+import com.intelijake.mall.product.image.ImageHashIndex;
+import com.intelijake.mall.product.image.ImageVariantPipeline;
 import com.intelijake.mall.product.service.ImageProcessingService;
-import net.coobird.thumbnailator.Thumbnails;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Image Processing Service Implementation
  * Handles image resizing, optimization, and multi-variant uploads
+ * The source image is decoded once and the variants are downscaled progressively from it
+ * (see ImageVariantPipeline). The original is uploaded on a bounded pool while the variants render;
+ * each variant is encoded straight into its own S3 upload stream, so none is buffered as a whole.
+ * Objects are named after the SHA-256 of the upload, so an image stored before is answered from
+ * ImageHashIndex without any processing.
  * 
  * @author Jake
  * @since 2025-08-03
@@ -27,63 +47,136 @@ public class ImageProcessingServiceImpl implements ImageProcessingService {
     @Autowired(required = false)
     private AWSUtil awsUtil;
 
+    @Autowired
+    private ImageHashIndex imageHashIndex;
+
     // Image size configurations
     private static final int THUMBNAIL_SIZE = 150;
     private static final int MEDIUM_SIZE = 400;
     private static final int LARGE_SIZE = 800;
     private static final float QUALITY = 0.8f;
 
+    private final ImageVariantPipeline pipeline;
+
+    private final ThreadPoolExecutor uploadExecutor;
+
+    public ImageProcessingServiceImpl(@Value("${product.image.upload-threads:8}") int uploadThreads) {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("large", LARGE_SIZE);
+        sizes.put("medium", MEDIUM_SIZE);
+        sizes.put("thumbnail", THUMBNAIL_SIZE);
+        this.pipeline = new ImageVariantPipeline(sizes, QUALITY);
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(uploadThreads * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-upload-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // When saturated the request thread uploads itself instead of queueing without bound
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+
     @Override
     public Map<String, Object> processAndUploadImage(MultipartFile file, String folder) throws Exception {
         // Validate the image file
         validateImageFile(file);
 
+        return process(file::getInputStream, file.getOriginalFilename(), file.getContentType(), file.getSize(),
+                folder, null);
+    }
+
+    @Override
+    public Map<String, Object> processAndUploadImage(Path source, String originalFilename, String contentType,
+                                                     String folder, ProgressListener listener) throws Exception {
+        return process(() -> Files.newInputStream(source), originalFilename, contentType, Files.size(source),
+                folder, listener);
+    }
+
+    private Map<String, Object> process(UploadSource file, String originalFilename, String contentType, long size,
+                                        String folder, ProgressListener listener) throws Exception {
         if (awsUtil == null) {
             throw new RuntimeException("AWS S3 service is not configured");
         }
 
-        // Generate unique base filename
-        String originalFilename = file.getOriginalFilename();
         String originalExtension = "";
         if (originalFilename != null && originalFilename.contains(".")) {
             originalExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
         }
-        String baseFilename = UUID.randomUUID().toString();
+
+        // Objects are named after the content, a known image is answered from the index
+        String baseFilename;
+        try (InputStream source = file.open()) {
+            baseFilename = ImageHashIndex.sha256(source);
+        }
+        List<String> names = new ArrayList<>();
+        names.add(ImageHashIndex.ORIGINAL);
+        names.addAll(pipeline.variantNames());
+        Map<String, String> storedUrls = imageHashIndex.find(baseFilename, folder, names);
+        if (storedUrls != null) {
+            imageHashIndex.retain(baseFilename, folder);
+            return buildResult(storedUrls, baseFilename, originalFilename, size, contentType,
+                    pipeline.variantNames(), true);
+        }
 
         // Determine optimal output format and extension for variants
-        String outputFormat = getOptimalOutputFormat(file.getContentType());
+        String outputFormat = getOptimalOutputFormat(contentType);
         String variantExtension = "." + outputFormat;
 
-        // Generate image variants
-        Map<String, byte[]> variants = generateImageVariants(file, outputFormat);
-
-        // Upload all variants to S3
-        Map<String, Object> result = new HashMap<>();
-        Map<String, String> urls = new HashMap<>();
+        // Every variant is rendered and uploaded, plus the upload of the original
+        Progress progress = new Progress(listener, pipeline.variantCount() * 2 + 1);
 
-        // Upload original (preserve original format)
+        // The original needs no processing, its upload starts right away
+        Map<String, CompletableFuture<String>> uploads = new LinkedHashMap<>();
         String originalKey = folder + "/original/" + baseFilename + originalExtension;
-        String originalUrl = awsUtil.uploadFile(originalKey, file.getInputStream(), file.getSize());
-        urls.put("original", originalUrl);
+        uploads.put(ImageHashIndex.ORIGINAL, uploadAsync(originalKey, file, size, progress));
 
-        // Upload variants (use optimized format)
-        for (Map.Entry<String, byte[]> entry : variants.entrySet()) {
-            String variantName = entry.getKey();
-            byte[] imageData = entry.getValue();
-
-            String variantKey = folder + "/" + variantName + "/" + baseFilename + variantExtension;
-            String variantUrl = awsUtil.uploadFile(variantKey, 
-                new ByteArrayInputStream(imageData), imageData.length);
-            urls.put(variantName, variantUrl);
+        // Each variant is encoded straight into its S3 upload, which carries on while the next one renders
+        List<String> variants = new ArrayList<>();
+        try (InputStream source = file.open()) {
+            pipeline.renderStreaming(source, outputFormat, (variantName, encoder) -> {
+                String variantKey = folder + "/" + variantName + "/" + baseFilename + variantExtension;
+                S3UploadStream output = awsUtil.openUploadStream(variantKey);
+                try {
+                    encoder.writeTo(output);
+                } catch (IOException | RuntimeException e) {
+                    output.abort();
+                    throw e;
+                }
+                variants.add(variantName);
+                progress.stepCompleted(variantName + " rendered");
+                uploads.put(variantName, output.finish().thenApply(url -> {
+                    progress.stepCompleted(variantKey + " uploaded");
+                    return url;
+                }));
+            });
+        } catch (IOException | RuntimeException e) {
+            // Decoding or scaling failures must not leave the other uploads writing unindexed objects
+            uploads.values().forEach(upload -> upload.cancel(false));
+            throw new Exception("Failed to process image variants: " + e.getMessage(), e);
         }
 
-        // Build response
+        Map<String, String> urls = awaitUploads(uploads);
+        imageHashIndex.record(baseFilename, folder, urls);
+
+        return buildResult(urls, baseFilename, originalFilename, size, contentType, variants, false);
+    }
+
+    private Map<String, Object> buildResult(Map<String, String> urls, String baseFilename, String originalFilename,
+                                            long size, String contentType, Collection<String> variants,
+                                            boolean deduplicated) {
+        Map<String, Object> result = new HashMap<>();
         result.put("urls", urls);
         result.put("baseFilename", baseFilename);
         result.put("originalName", originalFilename);
-        result.put("originalSize", file.getSize());
-        result.put("contentType", file.getContentType());
-        result.put("variants", variants.keySet());
+        result.put("originalSize", size);
+        result.put("contentType", contentType);
+        result.put("variants", variants);
+        // True when the same image had been stored before and nothing was uploaded
+        result.put("deduplicated", deduplicated);
 
         return result;
     }
@@ -95,38 +188,8 @@ public class ImageProcessingServiceImpl implements ImageProcessingService {
     }
 
     private Map<String, byte[]> generateImageVariants(MultipartFile originalFile, String outputFormat) throws Exception {
-        Map<String, byte[]> variants = new HashMap<>();
-
-        try {
-            // Generate thumbnail (150x150)
-            ByteArrayOutputStream thumbnailOutput = new ByteArrayOutputStream();
-            Thumbnails.of(originalFile.getInputStream())
-                    .size(THUMBNAIL_SIZE, THUMBNAIL_SIZE)
-                    .outputQuality(QUALITY)
-                    .outputFormat(outputFormat)
-                    .toOutputStream(thumbnailOutput);
-            variants.put("thumbnail", thumbnailOutput.toByteArray());
-
-            // Generate medium (400x400)
-            ByteArrayOutputStream mediumOutput = new ByteArrayOutputStream();
-            Thumbnails.of(originalFile.getInputStream())
-                    .size(MEDIUM_SIZE, MEDIUM_SIZE)
-                    .outputQuality(QUALITY)
-                    .outputFormat(outputFormat)
-                    .toOutputStream(mediumOutput);
-            variants.put("medium", mediumOutput.toByteArray());
-
-            // Generate large (800x800)
-            ByteArrayOutputStream largeOutput = new ByteArrayOutputStream();
-            Thumbnails.of(originalFile.getInputStream())
-                    .size(LARGE_SIZE, LARGE_SIZE)
-                    .outputQuality(QUALITY)
-                    .outputFormat(outputFormat)
-                    .toOutputStream(largeOutput);
-            variants.put("large", largeOutput.toByteArray());
-
-            return variants;
-
+        try (InputStream source = originalFile.getInputStream()) {
+            return pipeline.render(source, outputFormat);
         } catch (IOException e) {
             throw new Exception("Failed to process image variants: " + e.getMessage(), e);
         }
@@ -209,4 +272,73 @@ public class ImageProcessingServiceImpl implements ImageProcessingService {
                 return "jpg"; // Convert everything else to JPG for compatibility
         }
     }
+
+    /**
+     * Upload on the bounded pool, the stream is opened by the worker
+     */
+    private CompletableFuture<String> uploadAsync(String key, UploadSource source, long length, Progress progress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream input = source.open()) {
+                String url = awsUtil.uploadFile(key, input, length);
+                progress.stepCompleted(key + " uploaded");
+                return url;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, uploadExecutor);
+    }
+
+    /**
+     * Wait for every upload, the first failure cancels the uploads not yet started
+     */
+    private Map<String, String> awaitUploads(Map<String, CompletableFuture<String>> uploads) throws Exception {
+        Map<String, String> urls = new HashMap<>();
+        try {
+            for (Map.Entry<String, CompletableFuture<String>> upload : uploads.entrySet()) {
+                urls.put(upload.getKey(), upload.getValue().get());
+            }
+        } catch (ExecutionException e) {
+            uploads.values().forEach(upload -> upload.cancel(false));
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            uploads.values().forEach(upload -> upload.cancel(false));
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        return urls;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface UploadSource {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Counts finished steps for the listener, uploads complete on the pool threads
+     */
+    private static final class Progress {
+
+        private final ProgressListener listener;
+
+        private final int totalSteps;
+
+        private final AtomicInteger completedSteps = new AtomicInteger();
+
+        private Progress(ProgressListener listener, int totalSteps) {
+            this.listener = listener;
+            this.totalSteps = totalSteps;
+        }
+
+        private void stepCompleted(String step) {
+            int completed = completedSteps.incrementAndGet();
+            if (listener != null) {
+                listener.stepCompleted(step, completed, totalSteps);
+            }
+        }
+    }
 }
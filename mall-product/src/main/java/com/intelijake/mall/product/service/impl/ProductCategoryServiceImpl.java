@@ -5,6 +5,9 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.intelijake.mall.pojo.ProductCategory;
+import com.intelijake.mall.product.cache.CategoryTreeHolder;
+import com.intelijake.mall.product.cache.CategoryTreeSnapshot;
+import com.intelijake.mall.product.search.ProductSearchIndex;
 import com.intelijake.mall.product.mapper.ProductCategoryMapper;
 import com.intelijake.mall.product.pojo.query.ProductCategoryQuery;
 import com.intelijake.mall.product.pojo.vo.ProductCategoryVO;
@@ -12,6 +15,7 @@ import com.intelijake.mall.product.service.IProductCategoryService;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -27,8 +31,15 @@ public class ProductCategoryServiceImpl extends ServiceImpl<ProductCategoryMappe
 
     private final ProductCategoryMapper productCategoryMapper;
 
-    public ProductCategoryServiceImpl(ProductCategoryMapper productCategoryMapper) {
+    private final CategoryTreeHolder categoryTreeHolder;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    public ProductCategoryServiceImpl(ProductCategoryMapper productCategoryMapper, CategoryTreeHolder categoryTreeHolder,
+                                      ProductSearchIndex productSearchIndex) {
         this.productCategoryMapper = productCategoryMapper;
+        this.categoryTreeHolder = categoryTreeHolder;
+        this.productSearchIndex = productSearchIndex;
     }
 
     @Override
@@ -44,8 +55,36 @@ public class ProductCategoryServiceImpl extends ServiceImpl<ProductCategoryMappe
         return pageObj;
     }
 
+    // Served from the in-memory snapshot, categories change rarely and this is the storefront's hottest call
     @Override
     public List<ProductCategoryVO> listAll() {
-        return productCategoryMapper.listAll();
+        return categoryTreeHolder.get().getActiveTree();
+    }
+
+    @Override
+    public CategoryTreeSnapshot getCategoryTree() {
+        return categoryTreeHolder.get();
+    }
+
+    @Override
+    public void add(ProductCategory productCategory) {
+        productCategoryMapper.insert(productCategory);
+        categoryTreeHolder.categoriesChanged();
+    }
+
+    @Override
+    public void update(ProductCategory productCategory) {
+        productCategoryMapper.updateById(productCategory);
+        categoryTreeHolder.categoriesChanged();
+        // Products are indexed with their category name
+        productSearchIndex.categoryChanged(productCategory.getId());
+    }
+
+    @Override
+    public void deleteByIds(Collection<Integer> ids) {
+        productCategoryMapper.deleteBatchIds(ids);
+        categoryTreeHolder.categoriesChanged();
+        // Reindex and notify other instances the same way as for a renamed category
+        ids.forEach(productSearchIndex::categoryChanged);
     }
 }
@@ -4,19 +4,35 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.intelijake.mall.common.constant.RedisConstants;
+import com.intelijake.mall.common.page.CursorPage;
+import com.intelijake.mall.common.page.KeysetCursor;
 import com.intelijake.mall.pojo.Product;
 import com.intelijake.mall.product.mapper.ProductMapper;
 import com.intelijake.mall.product.pojo.query.ProductQuery;
+import com.intelijake.mall.product.pojo.vo.CustomerProductVO;
 import com.intelijake.mall.product.pojo.vo.ProductVO;
+import com.intelijake.mall.product.pojo.vo.SuggestionVO;
+import com.intelijake.mall.product.search.ProductSearchIndex;
+import com.intelijake.mall.product.search.SuggestionIndex;
 import com.intelijake.mall.product.service.IProductService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * <p>
@@ -35,6 +51,24 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
     @Autowired
     private RedisTemplate<String, Object> template;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Value("${product.suggest.max-limit:20}")
+    private int maxSuggestLimit;
+
+    @Value("${product.customer-list.default-limit:20}")
+    private int defaultCustomerListLimit;
+
+    @Value("${product.customer-list.max-limit:100}")
+    private int maxCustomerListLimit;
+
     @Override
     public IPage<ProductVO> list(ProductQuery productQuery) {
         // Provide default values if pagination parameters are null
@@ -43,21 +77,76 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
 
         IPage<ProductVO> pageObj = new Page<>(page, limit);
 
+        // Name searches go to the search index, SQL only filters by category or serves until the index is built
+        if (StringUtils.hasText(productQuery.getName()) && productSearchIndex.isReady()) {
+            ProductSearchIndex.Hits hits = productSearchIndex.search(productQuery.getName(),
+                    productQuery.getCategoryId(), (int) pageObj.getCurrent(), (int) pageObj.getSize());
+            pageObj.setTotal(hits.getTotal());
+            pageObj.setRecords(selectInOrder(hits.getIds()));
+            return pageObj;
+        }
+
         productMapper.list(pageObj, productQuery);
         return pageObj;
     }
 
-    // @Cacheable(value = "productCache", key = "#id", sync = true) // Temporarily disabled due to Redis SSL issues
+    /**
+     * Load products by primary key, keeping the order of the given ids
+     */
+    private List<ProductVO> selectInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, ProductVO> byId = productMapper.selectForIndex(ids, null, null, null).stream()
+                .collect(Collectors.toMap(ProductVO::getId, Function.identity()));
+        List<ProductVO> records = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ProductVO product = byId.get(id);
+            if (product != null) {
+                records.add(product);
+            }
+        }
+        return records;
+    }
+
+    // Near cache in front of Redis, sync = true loads each id once however many requests miss together
+    @Cacheable(value = RedisConstants.PRODUCT_CACHE, key = "#id", sync = true)
     @Override
     public Product selectById(Integer id) {
         return productMapper.selectById(id);
     }
 
-    // @CacheEvict(value = "productCache", key = "#product.id") // Temporarily disabled due to Redis SSL issues
+    @CacheEvict(value = RedisConstants.PRODUCT_CACHE, key = "#product.id")
     @Override
     public void update(Product product) {
 
         productMapper.updateById(product);
+        productSearchIndex.productsChanged(List.of(product.getId()));
+    }
+
+    // Evicts a negative entry cached for the new id before it existed
+    @CacheEvict(value = RedisConstants.PRODUCT_CACHE, key = "#product.id")
+    @Override
+    public void add(Product product) {
+        productMapper.insert(product);
+        productSearchIndex.productsChanged(List.of(product.getId()));
+    }
+
+    @CacheEvict(value = RedisConstants.PRODUCT_CACHE, key = "#id")
+    @Override
+    public void deleteById(Integer id) {
+        removeById(id);
+        productSearchIndex.productsChanged(List.of(id));
+    }
+
+    @Override
+    public void deleteByIds(Collection<Integer> ids) {
+        removeBatchByIds(ids);
+        productSearchIndex.productsChanged(ids);
+        Cache cache = cacheManager.getCache(RedisConstants.PRODUCT_CACHE);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
     }
 
     @Override
@@ -71,6 +160,31 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
         return productMapper.selectList(queryWrapper);
     }
 
+    @Override
+    public List<Product> listActive() {
+        QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("is_deleted", 0);
+        queryWrapper.eq("status", 1);
+        queryWrapper.orderByDesc("create_time");
+
+        return productMapper.selectList(queryWrapper);
+    }
+
+    @Override
+    public CursorPage<CustomerProductVO> selectCustomerPage(Integer categoryId, KeysetCursor cursor, Integer limit) {
+        int size = limit != null && limit > 0 ? Math.min(limit, maxCustomerListLimit) : defaultCustomerListLimit;
+        // One extra row tells whether there is a next page
+        List<CustomerProductVO> rows = productMapper.selectCustomerPage(categoryId,
+                cursor != null ? cursor.getTime() : null, cursor != null ? cursor.getId() : null, size + 1);
+        return CursorPage.of(rows, size, row -> KeysetCursor.of(row.getCreateTime(), row.getId()));
+    }
+
+    @Override
+    public List<SuggestionVO> suggest(String prefix, Integer limit) {
+        int size = limit != null && limit > 0 ? Math.min(limit, maxSuggestLimit) : 10;
+        return suggestionIndex.suggest(prefix, size);
+    }
+
     /*
      * @Override
      * public Product selectById(Integer id) {
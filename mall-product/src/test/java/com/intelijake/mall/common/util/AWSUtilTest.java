@@ -0,0 +1,185 @@
+package com.intelijake.mall.common.util;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AWSUtilTest {
+
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+
+    private static final String URL_PREFIX = "https://test-bucket.s3.eu-west-1.amazonaws.com/";
+
+    private final InMemoryS3 s3 = new InMemoryS3();
+
+    private final AWSUtil awsUtil = new AWSUtil(s3, "test-bucket", "eu-west-1", "", PART_SIZE, 2, 4);
+
+    @AfterEach
+    void tearDown() {
+        awsUtil.shutdown();
+    }
+
+    @Test
+    @DisplayName("Objects up to one part are stored with a single put")
+    void testSmallObject() throws Exception {
+        byte[] data = randomBytes(300_000);
+
+        String url = awsUtil.uploadFile("products/small.jpg", new ByteArrayInputStream(data), data.length);
+
+        assertEquals(URL_PREFIX + "products/small.jpg", url);
+        assertArrayEquals(data, s3.objects.get("products/small.jpg"));
+        assertEquals(1, s3.puts.get());
+        assertEquals(0, s3.partsUploaded.get());
+    }
+
+    @Test
+    @DisplayName("Larger objects are split into parts and reassembled in order")
+    void testMultipartObject() throws Exception {
+        byte[] data = randomBytes(PART_SIZE * 2 + 12345);
+
+        awsUtil.uploadFile("products/large.png", new ByteArrayInputStream(data), data.length);
+
+        assertArrayEquals(data, s3.objects.get("products/large.png"));
+        assertEquals(0, s3.puts.get());
+        assertEquals(3, s3.partsUploaded.get());
+        assertTrue(s3.aborted.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Streams of unknown length are uploaded as they are written")
+    void testUploadStream() throws Exception {
+        byte[] data = randomBytes(PART_SIZE + 1);
+        S3UploadStream output = awsUtil.openUploadStream("products/large/stream.jpg");
+        for (int offset = 0; offset < data.length; offset += 4096) {
+            output.write(data, offset, Math.min(4096, data.length - offset));
+        }
+
+        assertEquals(URL_PREFIX + "products/large/stream.jpg", output.finish().get());
+        assertArrayEquals(data, s3.objects.get("products/large/stream.jpg"));
+        assertEquals(2, s3.partsUploaded.get());
+        assertThrows(IOException.class, () -> output.write(0));
+    }
+
+    @Test
+    @DisplayName("A failed part aborts the multipart upload")
+    void testFailedPart() {
+        s3.failPart = 2;
+        byte[] data = randomBytes(PART_SIZE * 3);
+
+        assertThrows(IOException.class,
+                () -> awsUtil.uploadFile("products/broken.jpg", new ByteArrayInputStream(data), data.length));
+        assertFalse(s3.objects.containsKey("products/broken.jpg"));
+        assertFalse(s3.aborted.isEmpty());
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * S3 stand-in keeping objects and pending parts in memory
+     */
+    private static final class InMemoryS3 extends AbstractAmazonS3 {
+
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+        private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+
+        private final Set<String> aborted = ConcurrentHashMap.newKeySet();
+
+        private final AtomicInteger puts = new AtomicInteger();
+
+        private final AtomicInteger partsUploaded = new AtomicInteger();
+
+        private volatile int failPart;
+
+        @Override
+        public boolean doesBucketExistV2(String bucketName) {
+            return true;
+        }
+
+        @Override
+        public PutObjectResult putObject(PutObjectRequest request) {
+            puts.incrementAndGet();
+            objects.put(request.getKey(), read(request.getInputStream()));
+            return new PutObjectResult();
+        }
+
+        @Override
+        public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request) {
+            InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+            result.setUploadId(request.getKey() + "#" + uploads.size());
+            uploads.put(result.getUploadId(), new ConcurrentHashMap<>());
+            return result;
+        }
+
+        @Override
+        public UploadPartResult uploadPart(UploadPartRequest request) {
+            if (request.getPartNumber() == failPart) {
+                throw new AmazonServiceException("Part " + failPart + " rejected");
+            }
+            byte[] part = read(request.getInputStream());
+            assertEquals(request.getPartSize(), part.length);
+            uploads.get(request.getUploadId()).put(request.getPartNumber(), part);
+            partsUploaded.incrementAndGet();
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag(Integer.toHexString(Arrays.hashCode(part)));
+            return result;
+        }
+
+        @Override
+        public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            Map<Integer, byte[]> parts = uploads.remove(request.getUploadId());
+            ByteArrayOutputStream object = new ByteArrayOutputStream();
+            int expected = 1;
+            for (PartETag eTag : request.getPartETags()) {
+                assertEquals(expected++, eTag.getPartNumber());
+                object.writeBytes(parts.get(eTag.getPartNumber()));
+            }
+            objects.put(request.getKey(), object.toByteArray());
+            return new CompleteMultipartUploadResult();
+        }
+
+        @Override
+        public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+            uploads.remove(request.getUploadId());
+            aborted.add(request.getUploadId());
+        }
+
+        private static byte[] read(InputStream input) {
+            try {
+                return input.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
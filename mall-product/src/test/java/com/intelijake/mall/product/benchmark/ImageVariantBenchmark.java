@@ -0,0 +1,135 @@
+package com.intelijake.mall.product.benchmark;
+
+import com.intelijake.mall.product.image.ImageVariantPipeline;
+import net.coobird.thumbnailator.Thumbnails;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Variant generation for a 12MP JPEG photo and a 2000x2000 PNG with transparency:
+ * one decode and one resize from the original per variant (previous generateImageVariants) versus
+ * ImageVariantPipeline (one decode, large, medium and thumbnail scaled down from each other).
+ * Inputs are synthesized in setup: gradients, shapes and noise so the encoders do real work.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageVariantBenchmark {
+
+    private static final float QUALITY = 0.8f;
+
+    @Param({"jpg", "png"})
+    private String format;
+
+    private byte[] source;
+
+    private ImageVariantPipeline pipeline;
+
+    @Setup
+    public void setup() throws IOException {
+        BufferedImage image = "png".equals(format)
+                ? synthesize(2000, 2000, BufferedImage.TYPE_INT_ARGB)
+                : synthesize(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        source = output.toByteArray();
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("large", 800);
+        sizes.put("medium", 400);
+        sizes.put("thumbnail", 150);
+        pipeline = new ImageVariantPipeline(sizes, QUALITY);
+    }
+
+    /**
+     * Previous path: the source is decoded and resized from full size once per variant
+     */
+    @Benchmark
+    public Map<String, byte[]> decodePerVariant() throws IOException {
+        Map<String, byte[]> variants = new HashMap<>();
+        variants.put("thumbnail", resizeFromSource(150));
+        variants.put("medium", resizeFromSource(400));
+        variants.put("large", resizeFromSource(800));
+        return variants;
+    }
+
+    /**
+     * New path: one decode, each variant downscaled from the previous one
+     */
+    @Benchmark
+    public Map<String, byte[]> singleDecodePipeline() throws IOException {
+        return pipeline.render(new ByteArrayInputStream(source), format);
+    }
+
+    private byte[] resizeFromSource(int size) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Thumbnails.of(new ByteArrayInputStream(source))
+                .size(size, size)
+                .outputQuality(QUALITY)
+                .outputFormat(format)
+                .toOutputStream(output);
+        return output.toByteArray();
+    }
+
+    private static BufferedImage synthesize(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setPaint(new GradientPaint(0, 0, new Color(30, 60, 160), width, height, new Color(240, 200, 80)));
+        graphics.fillRect(0, 0, width, height);
+        Random random = new Random(42);
+        for (int i = 0; i < 400; i++) {
+            graphics.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256),
+                    type == BufferedImage.TYPE_INT_ARGB ? random.nextInt(256) : 255));
+            graphics.fillOval(random.nextInt(width), random.nextInt(height), 20 + random.nextInt(300), 20 + random.nextInt(300));
+        }
+        graphics.dispose();
+        // Sensor-like noise on every pixel
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int argb = image.getRGB(x, y);
+                int noise = random.nextInt(17) - 8;
+                int r = clamp(((argb >> 16) & 0xff) + noise);
+                int g = clamp(((argb >> 8) & 0xff) + noise);
+                int b = clamp((argb & 0xff) + noise);
+                image.setRGB(x, y, (argb & 0xff000000) | (r << 16) | (g << 8) | b);
+            }
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ImageVariantBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,38 @@
+package com.intelijake.mall.product.image;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageHashIndexTest {
+
+    private static final String ABC_SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @Test
+    @DisplayName("Streams are hashed to lowercase hex SHA-256, across buffer boundaries")
+    void testSha256() throws IOException {
+        assertEquals(ABC_SHA256, ImageHashIndex.sha256(new ByteArrayInputStream("abc".getBytes(StandardCharsets.US_ASCII))));
+
+        byte[] large = new byte[200_000];
+        byte[] copy = large.clone();
+        copy[large.length - 1] = 1;
+        assertNotEquals(ImageHashIndex.sha256(new ByteArrayInputStream(large)),
+                ImageHashIndex.sha256(new ByteArrayInputStream(copy)));
+    }
+
+    @Test
+    @DisplayName("Only objects named after a content hash map back to it")
+    void testHashOf() {
+        assertEquals(ABC_SHA256, ImageHashIndex.hashOf("products/original/" + ABC_SHA256 + ".jpg"));
+        assertEquals(ABC_SHA256, ImageHashIndex.hashOf("https://bucket.s3.eu-west-1.amazonaws.com/general/" + ABC_SHA256.toUpperCase() + ".png"));
+        assertEquals(ABC_SHA256, ImageHashIndex.hashOf(ABC_SHA256));
+        assertNull(ImageHashIndex.hashOf("products/3f2c7a9e-0b1d-4e55-9a4f-2d8c6b1e7f00.jpg"));
+        assertNull(ImageHashIndex.hashOf("products/" + ABC_SHA256.replace('a', 'g') + ".jpg"));
+        assertNull(ImageHashIndex.hashOf(null));
+    }
+}
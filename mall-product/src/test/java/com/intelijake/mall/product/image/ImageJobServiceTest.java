@@ -0,0 +1,234 @@
+package com.intelijake.mall.product.image;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelijake.mall.product.pojo.vo.ImageJobVO;
+import com.intelijake.mall.product.service.ImageProcessingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageJobServiceTest {
+
+    private static final long TTL_MS = 3_600_000;
+
+    // Job state in Redis as every instance would see it
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    // What the stubbed processing does with each job
+    private volatile Processing processing = (source, listener) -> Map.of("baseFilename", "abc");
+
+    private final List<ImageJobService> services = new ArrayList<>();
+
+    private Path jobDir;
+
+    private ImageJobService service;
+
+    @FunctionalInterface
+    private interface Processing {
+        Map<String, Object> process(Path source, ImageProcessingService.ProgressListener listener) throws Exception;
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jobDir = Files.createTempDirectory("image-jobs");
+        service = service(1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(ImageJobService::shutdown);
+    }
+
+    @Test
+    @DisplayName("Jobs beyond job-threads + job-queue-size are refused, a finished job frees its slot")
+    void testAdmission() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        processing = (source, listener) -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return Map.of();
+        };
+
+        ImageJobVO running = service.submit(image(), "products");
+        ImageJobVO queued = service.submit(image(), "products");
+        assertNotNull(running);
+        assertNotNull(queued);
+        assertNull(service.submit(image(), "products"));
+        assertEquals(0, service.availableSlots());
+
+        release.countDown();
+        await(() -> service.availableSlots() == 2);
+        assertEquals(ImageJobService.STATUS_COMPLETED, service.get(running.getId()).getStatus());
+        assertEquals(ImageJobService.STATUS_COMPLETED, service.get(queued.getId()).getStatus());
+        assertNotNull(service.submit(image(), "products"));
+    }
+
+    @Test
+    @DisplayName("A failed job releases its slot and deletes its stored upload")
+    void testFailure() throws Exception {
+        processing = (source, listener) -> {
+            throw new IOException("S3 unavailable");
+        };
+
+        ImageJobVO job = service.submit(image(), "products");
+        await(() -> service.availableSlots() == 2);
+
+        ImageJobVO failed = service.get(job.getId());
+        assertEquals(ImageJobService.STATUS_FAILED, failed.getStatus());
+        assertEquals("S3 unavailable", failed.getError());
+        assertNotNull(failed.getFinishedAt());
+        assertFalse(Files.exists(jobDir.resolve(job.getId() + ".upload")));
+    }
+
+    @Test
+    @DisplayName("Progress only moves forward when upload threads report steps out of order")
+    void testProgress() throws Exception {
+        List<Integer> seen = new ArrayList<>();
+        processing = (source, listener) -> {
+            String id = source.getFileName().toString().replace(".upload", "");
+            listener.stepCompleted("large rendered", 2, 5);
+            seen.add(service.get(id).getProgress());
+            listener.stepCompleted("original uploaded", 1, 5);
+            seen.add(service.get(id).getProgress());
+            listener.stepCompleted("large uploaded", 3, 5);
+            seen.add(service.get(id).getProgress());
+            return Map.of();
+        };
+
+        ImageJobVO job = service.submit(image(), "products");
+        await(() -> service.availableSlots() == 2);
+
+        assertEquals(List.of(40, 40, 60), seen);
+        assertEquals(100, service.get(job.getId()).getProgress());
+        assertEquals("large uploaded", service.get(job.getId()).getStep());
+    }
+
+    @Test
+    @DisplayName("Jobs are pollable on every instance, with their progress and result")
+    void testSharedState() throws Exception {
+        ImageJobVO job = service.submit(image(), "products");
+        await(() -> service.availableSlots() == 2);
+
+        ImageJobVO polled = service(1, 1).get(job.getId());
+        assertEquals(ImageJobService.STATUS_COMPLETED, polled.getStatus());
+        assertEquals("abc", polled.getResult().get("baseFilename"));
+        assertNull(service(1, 1).get("unknown"));
+    }
+
+    @Test
+    @DisplayName("Purging drops only jobs finished before the cutoff")
+    @SuppressWarnings("unchecked")
+    void testPurge() throws Exception {
+        ImageJobVO early = service.submit(image(), "products");
+        await(() -> service.availableSlots() == 2);
+        Thread.sleep(5);
+        long cutoff = System.currentTimeMillis();
+        Thread.sleep(5);
+        ImageJobVO late = service.submit(image(), "products");
+        await(() -> service.availableSlots() == 2);
+
+        service.purgeFinishedBefore(cutoff);
+        Map<String, ?> jobs = (Map<String, ?>) ReflectionTestUtils.getField(service, "jobs");
+        assertFalse(jobs.containsKey(early.getId()));
+        assertTrue(jobs.containsKey(late.getId()));
+    }
+
+    @Test
+    @DisplayName("Only uploads older than job-ttl-ms are swept at startup, other instances may own the rest")
+    void testStartupSweep() throws IOException {
+        Path stale = Files.write(jobDir.resolve("stale.upload"), new byte[1]);
+        Path recent = Files.write(jobDir.resolve("recent.upload"), new byte[1]);
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - TTL_MS - 1000));
+
+        service(1, 1);
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(recent));
+    }
+
+    private ImageJobService service(int jobThreads, int jobQueueSize) throws IOException {
+        ImageJobService created = new ImageJobService(jobThreads, jobQueueSize);
+        ReflectionTestUtils.setField(created, "imageProcessingService", imageProcessingService());
+        ReflectionTestUtils.setField(created, "stringRedisTemplate", redisTemplate());
+        ReflectionTestUtils.setField(created, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(created, "jobDir", jobDir.toString());
+        ReflectionTestUtils.setField(created, "jobTtlMs", TTL_MS);
+        created.init();
+        services.add(created);
+        return created;
+    }
+
+    private static MockMultipartFile image() {
+        return new MockMultipartFile("file", "photo.png", "image/png", new byte[]{1, 2, 3});
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * ImageProcessingService running the current processing for stored uploads
+     */
+    private ImageProcessingService imageProcessingService() {
+        return (ImageProcessingService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ImageProcessingService.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("processAndUploadImage") && args.length == 5) {
+                        return processing.process((Path) args[0], (ImageProcessingService.ProgressListener) args[4]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * StringRedisTemplate whose value operations read and write the shared map, expiry is ignored
+     */
+    @SuppressWarnings("unchecked")
+    private StringRedisTemplate redisTemplate() {
+        ValueOperations<String, String> values = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "get" -> {
+                            return redis.get((String) args[0]);
+                        }
+                        case "set" -> {
+                            redis.put((String) args[0], (String) args[1]);
+                            return null;
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return new StringRedisTemplate() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return values;
+            }
+
+            @Override
+            public Boolean delete(String key) {
+                return redis.remove(key) != null;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.intelijake.mall.product.image;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantPipelineTest {
+
+    private final ImageVariantPipeline pipeline = new ImageVariantPipeline(sizes(), 0.8f);
+
+    @Test
+    @DisplayName("Variants are rendered largest first and fit their bounding boxes")
+    void testVariantSizes() throws IOException {
+        List<String> order = new ArrayList<>();
+        Map<String, BufferedImage> decoded = new LinkedHashMap<>();
+        pipeline.render(new ByteArrayInputStream(encode(1600, 1200, "png")), "png", (name, data) -> {
+            order.add(name);
+            decoded.put(name, ImageIO.read(new ByteArrayInputStream(data)));
+        });
+
+        assertEquals(List.of("large", "medium", "thumbnail"), order);
+        assertDimensions(decoded.get("large"), 800, 600);
+        assertDimensions(decoded.get("medium"), 400, 300);
+        assertDimensions(decoded.get("thumbnail"), 150, 113);
+    }
+
+    @Test
+    @DisplayName("Sources smaller than a variant are still scaled to its box")
+    void testSmallSource() throws IOException {
+        Map<String, byte[]> variants = pipeline.render(new ByteArrayInputStream(encode(300, 200, "jpg")), "jpg");
+
+        assertDimensions(ImageIO.read(new ByteArrayInputStream(variants.get("large"))), 800, 533);
+        assertDimensions(ImageIO.read(new ByteArrayInputStream(variants.get("medium"))), 400, 267);
+        assertDimensions(ImageIO.read(new ByteArrayInputStream(variants.get("thumbnail"))), 150, 100);
+    }
+
+    // The derived edge may round either way
+    private static void assertDimensions(BufferedImage image, int width, int height) {
+        assertEquals(width, image.getWidth(), "width");
+        assertTrue(Math.abs(height - image.getHeight()) <= 1, "height " + image.getHeight() + " instead of " + height);
+    }
+
+    private static Map<String, Integer> sizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("thumbnail", 150);
+        sizes.put("large", 800);
+        sizes.put("medium", 400);
+        return sizes;
+    }
+
+    private static byte[] encode(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,72 @@
+package com.intelijake.mall.product.image;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderedImageCacheTest {
+
+    @Test
+    @DisplayName("Least recently used entries are evicted beyond the byte limit")
+    void testEviction() throws IOException {
+        Path directory = Files.createTempDirectory("rendered-image-cache");
+        RenderedImageCache cache = new RenderedImageCache(directory.toString(), 250);
+        cache.init();
+
+        cache.put("a", output -> output.write(new byte[100]));
+        cache.put("b", output -> output.write(new byte[100]));
+        assertNotNull(cache.get("a"));
+        cache.put("c", output -> output.write(new byte[100]));
+
+        assertNull(cache.get("b"));
+        assertFalse(Files.exists(directory.resolve("b")));
+        assertEquals(100, cache.get("a").remaining());
+        assertEquals(100, cache.get("c").remaining());
+        assertEquals(200, cache.totalBytes());
+    }
+
+    @Test
+    @DisplayName("Entries are memory-mapped with their content and read independently")
+    void testContent() throws IOException {
+        Path directory = Files.createTempDirectory("rendered-image-cache");
+        RenderedImageCache cache = new RenderedImageCache(directory.toString(), 1024);
+        cache.init();
+
+        ByteBuffer put = cache.put("image.png", output -> output.write(new byte[]{1, 2, 3}));
+        ByteBuffer first = cache.get("image.png");
+        first.get();
+        ByteBuffer second = cache.get("image.png");
+
+        assertEquals(3, put.remaining());
+        assertEquals(2, first.remaining());
+        assertEquals(3, second.remaining());
+        assertEquals(3, second.get(2));
+    }
+
+    @Test
+    @DisplayName("Entries on disk survive a restart, unfinished writes do not")
+    void testReload() throws IOException {
+        Path directory = Files.createTempDirectory("rendered-image-cache");
+        Files.write(directory.resolve("old"), new byte[100]);
+        Files.write(directory.resolve("new"), new byte[100]);
+        Files.write(directory.resolve("partial.tmp"), new byte[10]);
+        Files.setLastModifiedTime(directory.resolve("old"), FileTime.fromMillis(1_000_000));
+        Files.setLastModifiedTime(directory.resolve("new"), FileTime.fromMillis(2_000_000));
+
+        RenderedImageCache cache = new RenderedImageCache(directory.toString(), 250);
+        cache.init();
+        assertEquals(2, cache.size());
+        assertFalse(Files.exists(directory.resolve("partial.tmp")));
+
+        cache.put("newest", output -> output.write(new byte[100]));
+        assertNull(cache.get("old"));
+        assertNotNull(cache.get("new"));
+    }
+}
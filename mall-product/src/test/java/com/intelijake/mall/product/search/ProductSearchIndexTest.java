@@ -0,0 +1,175 @@
+package com.intelijake.mall.product.search;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.intelijake.mall.product.mapper.ProductMapper;
+import com.intelijake.mall.product.pojo.query.ProductQuery;
+import com.intelijake.mall.product.pojo.vo.ProductVO;
+import com.intelijake.mall.product.service.impl.ProductServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    // Products by id as the mapper would load them
+    private final Map<Integer, ProductVO> catalog = new TreeMap<>();
+
+    private final List<String> published = new ArrayList<>();
+
+    private final List<ProductQuery> sqlQueries = new ArrayList<>();
+
+    private ProductMapper productMapper;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        add(1, 10, "Phones", "Apple iPhone 15", "Black, 128 GB");
+        add(2, 10, "Phones", "Galaxy S24", "Apple-like camera bump");
+        add(3, 20, "Watches", "Apple Watch", "Series 9");
+        add(4, 20, "Watches", "Garmin Forerunner", "Running watch");
+
+        productMapper = mapper();
+        index = new ProductSearchIndex();
+        ReflectionTestUtils.setField(index, "productMapper", productMapper);
+        ReflectionTestUtils.setField(index, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        ReflectionTestUtils.setField(index, "stringRedisTemplate", new StringRedisTemplate() {
+            @Override
+            public Long convertAndSend(String channel, Object message) {
+                published.add(message.toString().substring(message.toString().indexOf('|') + 1));
+                return 1L;
+            }
+        });
+        ReflectionTestUtils.setField(index, "rebuildBatchSize", 2);
+        ReflectionTestUtils.setField(index, "maxWindow", 10000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    @DisplayName("Name matches rank above category and subtitle matches, the last word may be a prefix")
+    void testSearch() {
+        assertFalse(index.isReady());
+        index.rebuild();
+        assertTrue(index.isReady());
+
+        ProductSearchIndex.Hits hits = index.search("apple", null, 1, 10);
+        assertEquals(3, hits.getTotal());
+        assertEquals(List.of(3, 1, 2), hits.getIds());
+
+        assertEquals(List.of(3, 4), index.search("watc", null, 1, 10).getIds());
+        assertEquals(List.of(3), index.search("apple", 20, 1, 10).getIds());
+        assertEquals(List.of(2), index.search("apple", null, 2, 2).getIds());
+        assertEquals(0, index.search("   ", null, 1, 10).getTotal());
+    }
+
+    @Test
+    @DisplayName("Changed products are reindexed, deleted ones removed, and other instances notified")
+    void testProductsChanged() {
+        index.rebuild();
+
+        catalog.get(4).setName("Garmin Apple Edition");
+        catalog.remove(2);
+        index.productsChanged(List.of(2, 4));
+
+        // Equal scores rank the newer product first
+        assertEquals(List.of(3, 4, 1), index.search("apple", null, 1, 10).getIds());
+        assertEquals(List.of("p|2,4"), published);
+    }
+
+    @Test
+    @DisplayName("Products of a changed or deleted category are reindexed and other instances notified")
+    void testCategoryChanged() {
+        index.rebuild();
+
+        catalog.get(3).setCategoryName("Wearables");
+        catalog.get(4).setCategoryName("Wearables");
+        index.categoryChanged(20);
+
+        assertEquals(List.of(4, 3), index.search("wearables", null, 1, 10).getIds());
+        assertEquals(0, index.search("watches", null, 1, 10).getTotal());
+        assertEquals(List.of("c|20"), published);
+    }
+
+    @Test
+    @DisplayName("Product list searches names in the index and filters by category in SQL")
+    void testListPath() {
+        ProductServiceImpl productService = new ProductServiceImpl();
+        ReflectionTestUtils.setField(productService, "productMapper", productMapper);
+        ReflectionTestUtils.setField(productService, "productSearchIndex", index);
+
+        // SQL serves name searches until the index is built
+        productService.list(new ProductQuery(1, 10, "apple", null));
+        assertEquals(1, sqlQueries.size());
+
+        index.rebuild();
+        IPage<ProductVO> page = productService.list(new ProductQuery(1, 2, "apple", null));
+        assertEquals(3, page.getTotal());
+        assertEquals(List.of("Apple Watch", "Apple iPhone 15"),
+                page.getRecords().stream().map(ProductVO::getName).collect(Collectors.toList()));
+        assertEquals(1, sqlQueries.size());
+
+        productService.list(new ProductQuery(1, 10, null, 10));
+        assertEquals(2, sqlQueries.size());
+    }
+
+    private void add(int id, int categoryId, String categoryName, String name, String subtitle) {
+        ProductVO product = new ProductVO();
+        product.setId(id);
+        product.setCategoryId(categoryId);
+        product.setCategoryName(categoryName);
+        product.setName(name);
+        product.setSubtitle(subtitle);
+        catalog.put(id, product);
+    }
+
+    /**
+     * ProductMapper answering selectForIndex from the catalog and recording list calls
+     */
+    @SuppressWarnings("unchecked")
+    private ProductMapper mapper() {
+        return (ProductMapper) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProductMapper.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "selectForIndex" -> {
+                            Collection<Integer> ids = (Collection<Integer>) args[0];
+                            Integer categoryId = (Integer) args[1];
+                            Integer afterId = (Integer) args[2];
+                            Integer limit = (Integer) args[3];
+                            return catalog.values().stream()
+                                    .filter(product -> ids == null || ids.contains(product.getId()))
+                                    .filter(product -> categoryId == null || categoryId.equals(product.getCategoryId()))
+                                    .filter(product -> afterId == null || product.getId() > afterId)
+                                    .limit(limit == null ? Long.MAX_VALUE : limit)
+                                    .collect(Collectors.toList());
+                        }
+                        case "list" -> {
+                            sqlQueries.add((ProductQuery) args[1]);
+                            return args[0];
+                        }
+                        case "toString" -> {
+                            return "ProductMapper";
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
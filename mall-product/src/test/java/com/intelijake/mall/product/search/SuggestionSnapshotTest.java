@@ -0,0 +1,87 @@
+package com.intelijake.mall.product.search;
+
+import com.intelijake.mall.product.pojo.vo.SuggestionVO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionSnapshotTest {
+
+    private static List<String> texts(List<SuggestionVO> suggestions) {
+        return suggestions.stream().map(SuggestionVO::getText).collect(Collectors.toList());
+    }
+
+    private static SuggestionSnapshot catalog() {
+        return new SuggestionSnapshot.Builder()
+                .add("Apple iPhone 15", SuggestionSnapshot.TYPE_PRODUCT, 1, 50)
+                .add("Apple Watch", SuggestionSnapshot.TYPE_PRODUCT, 2, 80)
+                .add("iPad Air", SuggestionSnapshot.TYPE_PRODUCT, 3, 10)
+                .add("Phones", SuggestionSnapshot.TYPE_CATEGORY, 4, 200)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Completions are ranked by weight")
+    void testRankedByWeight() {
+        assertEquals(List.of("Apple Watch", "Apple iPhone 15", "iPad Air"), texts(catalog().lookup("a", 10)));
+        assertEquals(List.of("Apple Watch"), texts(catalog().lookup("a", 1)));
+    }
+
+    @Test
+    @DisplayName("Any word start matches, ignoring case and extra spaces")
+    void testWordStarts() {
+        assertEquals(List.of("Apple iPhone 15", "iPad Air"), texts(catalog().lookup("IP", 10)));
+        assertEquals(List.of("Apple iPhone 15"), texts(catalog().lookup("  iphone   1", 10)));
+        assertEquals("category", catalog().lookup("ph", 10).get(0).getType());
+        assertTrue(catalog().lookup("x", 10).isEmpty());
+        assertTrue(catalog().lookup(" ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Same text is suggested once")
+    void testDistinctTexts() {
+        SuggestionSnapshot snapshot = new SuggestionSnapshot.Builder()
+                .add("Vape Pen", SuggestionSnapshot.TYPE_PRODUCT, 1, 5)
+                .add("vape pen", SuggestionSnapshot.TYPE_PRODUCT, 2, 9)
+                .add("Vape Kit", SuggestionSnapshot.TYPE_PRODUCT, 3, 1)
+                .build();
+        List<SuggestionVO> suggestions = snapshot.lookup("pen", 10);
+        assertEquals(1, suggestions.size());
+        assertEquals(2, suggestions.get(0).getId());
+        assertEquals(2, snapshot.lookup("vape", 2).size());
+    }
+
+    @Test
+    @DisplayName("Top-k matches a full scan on random data")
+    void testMatchesScan() {
+        Random random = new Random(42);
+        SuggestionSnapshot.Builder builder = new SuggestionSnapshot.Builder();
+        List<long[]> entries = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String name = "p" + Integer.toString(random.nextInt(5000), 36) + " item" + i;
+            long weight = random.nextInt(100_000) * 2000L + i;
+            builder.add(name, SuggestionSnapshot.TYPE_PRODUCT, i, weight);
+            entries.add(new long[]{i, weight});
+            names.add(name);
+        }
+        SuggestionSnapshot snapshot = builder.build();
+
+        for (String prefix : List.of("p", "p1", "pa", "p9z")) {
+            List<String> expected = entries.stream()
+                    .filter(e -> names.get((int) e[0]).startsWith(prefix))
+                    .sorted(Comparator.comparingLong((long[] e) -> e[1]).reversed())
+                    .limit(10)
+                    .map(e -> names.get((int) e[0]))
+                    .collect(Collectors.toList());
+            assertEquals(expected, texts(snapshot.lookup(prefix, 10)), prefix);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Index for the best-seller reconciliation of statistics-service
+-- Completed orders are selected by completion time for the last 30 days.
+
+CREATE INDEX idx_order_status_end_time
+    ON customer_order (status, end_time);
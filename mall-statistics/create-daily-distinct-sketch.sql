@@ -0,0 +1,12 @@
+-- Per-day HyperLogLog sketches for statistics-service
+-- One row per order date and metric; registers holds 2^14 one-byte HyperLogLog registers.
+-- buyers counts distinct user_id, products distinct product_id, of paid, shipped or completed
+-- orders created that day. Rows are only ever merged into, never overwritten, see DailyDistinctSketches.
+
+CREATE TABLE IF NOT EXISTS daily_distinct_sketch (
+    sale_date   DATE        NOT NULL COMMENT 'Order creation date',
+    metric      VARCHAR(16) NOT NULL COMMENT 'buyers or products',
+    registers   BLOB        NOT NULL COMMENT 'HyperLogLog registers, precision 14',
+    update_time DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (metric, sale_date)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = 'Distinct buyers and products per day';
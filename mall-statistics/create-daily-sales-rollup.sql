@@ -0,0 +1,22 @@
+-- Daily sales rollup for statistics-service
+-- One row per order day, product, category and payment type, covering completed orders only.
+-- Rows with product_id = 0 hold the order totals of the day (order count and payment_amount),
+-- the other rows hold item quantities and item totals. A day is rebuilt as a whole by
+-- DailySalesRollup whenever one of its orders completes, so rows are never patched in place.
+
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+    sale_date    DATE          NOT NULL COMMENT 'Order creation date',
+    product_id   INT           NOT NULL COMMENT 'Product ID, 0 = order totals of the day',
+    category_id  INT           NOT NULL DEFAULT 0 COMMENT 'Product category at rollup time, 0 = totals or unknown',
+    payment_type INT           NOT NULL DEFAULT 0 COMMENT '1=Stripe, 2=PayPal, 3=Credit Card, 4=Cash on Delivery',
+    product_name VARCHAR(255)  NULL COMMENT 'Product name as ordered, NULL on totals rows',
+    order_count  INT           NOT NULL DEFAULT 0 COMMENT 'Completed orders',
+    quantity     INT           NOT NULL DEFAULT 0 COMMENT 'Units sold, 0 on totals rows',
+    amount       DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT 'Item totals, or payment_amount on totals rows',
+    update_time  DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (sale_date, product_id, category_id, payment_type),
+    KEY idx_rollup_product (product_id, sale_date)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COMMENT = 'Completed order sales per day';
+
+-- Rebuilding a day selects its orders by creation time
+-- CREATE INDEX idx_order_listing ON customer_order (create_time, order_no);  -- see mall-order/add-order-listing-indexes.sql
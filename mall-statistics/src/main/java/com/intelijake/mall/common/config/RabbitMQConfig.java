@@ -0,0 +1,20 @@
+package com.intelijake.mall.common.config;
+
+import org.springframework.amqp.support.converter.DefaultClassMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+    @Bean
+    public MessageConverter jsonToMapMessageConverter() {
+        DefaultClassMapper defaultClassMapper = new DefaultClassMapper();
+        // 指定反序列化期间要信任的一组包，星号 ( * ) 表示全部信任
+        defaultClassMapper.setTrustedPackages("com.intelijake.mall.util", "com.intelijake.mall.common.util");
+        Jackson2JsonMessageConverter jackson2JsonMessageConverter = new Jackson2JsonMessageConverter();
+        jackson2JsonMessageConverter.setClassMapper(defaultClassMapper);
+        return jackson2JsonMessageConverter;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.intelijake.mall.common.util;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Orders moved from one status to another in one committed transaction
+ * Published by order-service after the status update commits, consumers re-read whatever they need
+ * from customer_order, so a redelivered or reordered message does no harm.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Data
+public class OrderStatusChangedMessage implements Serializable {
+
+    private List<Long> orderNos;
+
+    private Integer fromStatus;
+
+    private Integer toStatus;
+
+    private Date changedAt;
+
+    public OrderStatusChangedMessage() {
+    }
+
+    public OrderStatusChangedMessage(List<Long> orderNos, Integer fromStatus, Integer toStatus, Date changedAt) {
+        this.orderNos = orderNos;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.changedAt = changedAt;
+    }
+}
@@ -9,4 +9,13 @@ public class CustomerQuery {
     private String username;
     private String email;
     private String phone;
+    /**
+     * Keyset paging: empty for the first page, then the nextCursor of the previous page
+     * OFFSET paging with page and limit when null
+     */
+    private String cursor;
+    /**
+     * Keyset paging only: attach the (briefly cached) number of matching customers
+     */
+    private Boolean withTotal;
 }
\ No newline at end of file
@@ -3,17 +3,28 @@ package com.intelijake.mall.statistics.controller;
 import com.intelijake.mall.common.util.Result;
 import com.intelijake.mall.statistics.pojo.vo.ChartDataVO;
 import com.intelijake.mall.statistics.pojo.vo.DashboardStatsVO;
+import com.intelijake.mall.statistics.pojo.vo.DistinctCountVO;
 import com.intelijake.mall.statistics.pojo.vo.MonthlyDataVO;
 import com.intelijake.mall.statistics.pojo.vo.TopProductVO;
-import com.intelijake.mall.statistics.pojo.vo.TrendDataVO;
 import com.intelijake.mall.statistics.service.IStatisticsService;
+import com.intelijake.mall.statistics.stream.DashboardStream;
+import com.intelijake.mall.statistics.topk.BestSellerTracker;
+import com.intelijake.mall.statistics.util.TrendSeries;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -23,23 +34,52 @@ import java.util.List;
 @RequestMapping("/statistics")
 public class StatisticsController {
     
+    private static final int DEFAULT_DISTINCT_DAYS = 30;
+    
     @Autowired
     private IStatisticsService statisticsService;
     
+    @Autowired
+    private DashboardStream dashboardStream;
+    
     @GetMapping("/dashboard")
     public Result<DashboardStatsVO> getDashboardStats() {
         return Result.ok(statisticsService.getDashboardStats());
     }
     
+    /**
+     * Live dashboard over server-sent events: a "snapshot" event with all figures, then "delta"
+     * events carrying only the order counts, revenue and status counts that changed
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamDashboard() {
+        SseEmitter emitter = dashboardStream.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+    
     @GetMapping("/order-status")
     public Result<List<ChartDataVO>> getOrderStatusDistribution() {
         return Result.ok(statisticsService.getOrderStatusDistribution());
     }
     
+    /**
+     * Revenue per day, week or month over the period, zero for buckets without sales
+     */
     @GetMapping("/revenue")
-    public Result<TrendDataVO> getRevenueTrends(
-            @RequestParam(defaultValue = "30d") String period) {
-        return Result.ok(statisticsService.getRevenueTrends(period));
+    public Result<TrendSeries> getRevenueTrends(
+            @RequestParam(defaultValue = "30d") String period,
+            @RequestParam(defaultValue = "day") String bucket) {
+        TrendSeries.Bucket trendBucket = TrendSeries.Bucket.parse(bucket);
+        if (trendBucket == null) {
+            return Result.error("bucket must be one of day, week, month");
+        }
+        return Result.ok(statisticsService.getRevenueTrends(period, trendBucket));
     }
     
     @GetMapping("/payment-methods")
@@ -52,10 +92,17 @@ public class StatisticsController {
         return Result.ok(statisticsService.getCategoryCount());
     }
     
+    /**
+     * Best sellers of all time, or of the last 1h, 24h, 7d or 30d from the live in-memory rankings
+     */
     @GetMapping("/top-products")
     public Result<List<TopProductVO>> getTopProducts(
-            @RequestParam(defaultValue = "10") Integer limit) {
-        return Result.ok(statisticsService.getTopProducts(limit));
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(defaultValue = "all") String window) {
+        if (!"all".equals(window) && !BestSellerTracker.isWindow(window)) {
+            return Result.error("window must be one of all, 1h, 24h, 7d, 30d");
+        }
+        return Result.ok(statisticsService.getTopProducts(limit, window));
     }
     
     @GetMapping("/sales-by-category")
@@ -69,9 +116,66 @@ public class StatisticsController {
         return Result.ok(statisticsService.getMonthlySales(year));
     }
     
+    /**
+     * Customer registrations per day, week or month over the period
+     */
     @GetMapping("/customer-trends")
-    public Result<TrendDataVO> getCustomerTrends(
-            @RequestParam(defaultValue = "30d") String period) {
-        return Result.ok(statisticsService.getCustomerTrends(period));
+    public Result<TrendSeries> getCustomerTrends(
+            @RequestParam(defaultValue = "30d") String period,
+            @RequestParam(defaultValue = "day") String bucket) {
+        TrendSeries.Bucket trendBucket = TrendSeries.Bucket.parse(bucket);
+        if (trendBucket == null) {
+            return Result.error("bucket must be one of day, week, month");
+        }
+        return Result.ok(statisticsService.getCustomerTrends(period, trendBucket));
+    }
+    
+    /**
+     * Distinct customers with a paid order created in [from, to], the last 30 days by default
+     */
+    @GetMapping("/unique-buyers")
+    public Result<DistinctCountVO> getUniqueBuyers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DISTINCT_DAYS - 1);
+        if (start.isAfter(end)) {
+            return Result.error("from must not be after to");
+        }
+        return Result.ok(statisticsService.getUniqueBuyers(start, end));
+    }
+    
+    /**
+     * Distinct products in paid orders created in [from, to], the last 30 days by default
+     */
+    @GetMapping("/unique-products")
+    public Result<DistinctCountVO> getUniqueProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DISTINCT_DAYS - 1);
+        if (start.isAfter(end)) {
+            return Result.error("from must not be after to");
+        }
+        return Result.ok(statisticsService.getUniqueProducts(start, end));
+    }
+    
+    /**
+     * Rebuild the daily sales rollup and distinct-count sketches from the order tables, e.g. after importing historical orders
+     * @param from First order date (yyyy-MM-dd), defaults to the date of the first order
+     * @param to Last order date (yyyy-MM-dd), defaults to today
+     */
+    @PostMapping("/rollup/backfill")
+    public Result<Integer> backfillSalesRollup(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return Result.error("from must not be after to");
+        }
+        try {
+            return Result.ok(statisticsService.backfillSalesRollup(from, to));
+        } catch (IllegalStateException e) {
+            return Result.error(e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
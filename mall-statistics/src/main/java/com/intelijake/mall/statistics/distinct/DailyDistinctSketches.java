@@ -0,0 +1,181 @@
+package com.intelijake.mall.statistics.distinct;
+
+import com.intelijake.mall.statistics.mapper.DailySalesRollupMapper;
+import com.intelijake.mall.statistics.mapper.DistinctSketchMapper;
+import com.intelijake.mall.statistics.pojo.dto.DayMemberVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-day HyperLogLog sketches of distinct buyers and distinct products sold
+ * A day counts the orders created on it once they are paid. Newly paid orders are added from order
+ * status events, and recent days are re-added from the order tables on a schedule to cover lost events.
+ * A write inserts the day's row if it is missing, otherwise merges into the stored registers under the
+ * row lock; adding an id twice is a no-op, so event updates, reconciliation and backfill can run in any
+ * order on any instance. A write that loses a deadlock between concurrent first inserts is retried.
+ * A date range is counted by merging its day sketches one row at a time, without touching orders.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class DailyDistinctSketches {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyDistinctSketches.class);
+
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+
+    public static final String BUYERS = "buyers";
+    public static final String PRODUCTS = "products";
+
+    @Autowired
+    private DistinctSketchMapper sketchMapper;
+
+    @Autowired
+    private DailySalesRollupMapper rollupMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${statistics.distinct.reconcile-days:2}")
+    private int reconcileDays;
+
+    @Value("${statistics.distinct.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    /**
+     * Estimated number of distinct members of a metric over the order dates [from, to]
+     */
+    public long count(String metric, LocalDate from, LocalDate to) {
+        HyperLogLog union = new HyperLogLog();
+        sketchMapper.selectRange(metric, from, to, context -> union.mergeRegisters(context.getResultObject()));
+        return union.estimate();
+    }
+
+    /**
+     * Add the buyers and products of newly paid orders to their days
+     */
+    public void ordersPaid(Collection<Long> orderNos) {
+        if (orderNos == null || orderNos.isEmpty()) {
+            return;
+        }
+        byDay(sketchMapper.selectBuyersOfOrders(orderNos)).forEach((day, sketch) -> mergeInto(BUYERS, day, sketch));
+        byDay(sketchMapper.selectProductsOfOrders(orderNos)).forEach((day, sketch) -> mergeInto(PRODUCTS, day, sketch));
+    }
+
+    /**
+     * Re-add the recent days from the order tables, covering events lost while a service was down
+     */
+    @Scheduled(cron = "${statistics.distinct.reconcile-cron:0 20 * * * *}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < reconcileDays; i++) {
+            try {
+                rebuild(today.minusDays(i));
+            } catch (RuntimeException e) {
+                logger.warn("Distinct sketches of {} not reconciled: {}", today.minusDays(i), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Add every day in a range, inclusive, from the order tables
+     * @return Number of days processed
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            rebuild(day);
+            days++;
+        }
+        logger.info("Distinct sketches backfilled from {} to {}, {} days", from, to, days);
+        return days;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                if (sketchMapper.selectAnyRow() != null) {
+                    return;
+                }
+                LocalDate first = rollupMapper.selectFirstOrderDate();
+                if (first != null) {
+                    backfill(first, LocalDate.now());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Distinct sketch backfill failed: {}", e.getMessage());
+            }
+        }, "distinct-sketch-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void rebuild(LocalDate day) {
+        mergeInto(BUYERS, day, sketchOf(sketchMapper.selectBuyersOfDay(day)));
+        mergeInto(PRODUCTS, day, sketchOf(sketchMapper.selectProductsOfDay(day)));
+    }
+
+    private void mergeInto(String metric, LocalDate day, HyperLogLog sketch) {
+        if (sketch.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // A missing row cannot be locked, so create it first; concurrent inserts of the same day serialize here
+                    if (sketchMapper.insertIgnore(metric, day, sketch.toBytes()) > 0) {
+                        return;
+                    }
+                    byte[] stored = sketchMapper.selectForUpdate(metric, day);
+                    HyperLogLog merged = HyperLogLog.fromBytes(stored);
+                    merged.merge(sketch);
+                    if (Arrays.equals(stored, merged.toBytes())) {
+                        return; // Nothing new
+                    }
+                    sketchMapper.update(metric, day, merged.toBytes());
+                });
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= MAX_MERGE_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Distinct sketch {} of {} lost a lock conflict, retrying: {}", metric, day, e.getMessage());
+            }
+        }
+    }
+
+    private static Map<LocalDate, HyperLogLog> byDay(List<DayMemberVO> members) {
+        Map<LocalDate, HyperLogLog> sketches = new HashMap<>();
+        for (DayMemberVO member : members) {
+            sketches.computeIfAbsent(member.getDay(), day -> new HyperLogLog()).add(member.getMemberId());
+        }
+        return sketches;
+    }
+
+    private static HyperLogLog sketchOf(List<Long> ids) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (Long id : ids) {
+            sketch.add(id);
+        }
+        return sketch;
+    }
+}
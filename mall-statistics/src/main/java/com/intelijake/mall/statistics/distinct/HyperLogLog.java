@@ -0,0 +1,126 @@
+package com.intelijake.mall.statistics.distinct;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog estimator of the number of distinct ids, 2^14 one-byte registers (16 KB)
+ * The standard error of an estimate is 1.04 / sqrt(2^14), about 0.8%, however many ids were added.
+ * Adding an id twice changes nothing, and merging two sketches gives the sketch of the union of their
+ * ids, so day sketches can be re-merged or rebuilt at will and combined into any date range.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 14;
+
+    public static final int REGISTERS = 1 << PRECISION;
+
+    public static final double STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Sketch from its serialized registers
+     * @throws IllegalArgumentException if the bytes are not a sketch of this precision
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != REGISTERS) {
+            throw new IllegalArgumentException("Expected " + REGISTERS + " registers, got "
+                    + (bytes == null ? "none" : bytes.length));
+        }
+        return new HyperLogLog(bytes.clone());
+    }
+
+    public void add(long id) {
+        long hash = mix(id);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Leading zeros of the remaining bits plus one, the guard bit caps it at 64 - PRECISION + 1
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Add all ids of another sketch to this one
+     */
+    public void merge(HyperLogLog other) {
+        mergeRegisters(other.registers);
+    }
+
+    /**
+     * Merge serialized registers without materializing a second sketch
+     */
+    public void mergeRegisters(byte[] other) {
+        if (other == null || other.length != REGISTERS) {
+            throw new IllegalArgumentException("Expected " + REGISTERS + " registers");
+        }
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] < other[i]) {
+                registers[i] = other[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        // Small cardinalities are counted far more precisely by the share of empty registers
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HyperLogLog other && Arrays.equals(registers, other.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads sequential ids over all 64 bits
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,78 @@
+package com.intelijake.mall.statistics.listener;
+
+import com.intelijake.mall.common.constant.MqConstant;
+import com.intelijake.mall.common.constant.OrderStatusConstant;
+import com.intelijake.mall.common.util.OrderStatusChangedMessage;
+import com.intelijake.mall.statistics.distinct.DailyDistinctSketches;
+import com.intelijake.mall.statistics.rollup.DailySalesRollup;
+import com.intelijake.mall.statistics.stream.DashboardStream;
+import com.intelijake.mall.statistics.topk.BestSellerTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Order Status Changed Listener
+ * Consumes the status transitions published by order-service. Payments feed the distinct buyer and
+ * product sketches; transitions into or out of completed feed the sales rollup and the live best-seller
+ * rankings, where orders leaving completed are only corrected on reconciliation. Every transition
+ * makes the live dashboard stream reload its figures on the next tick.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.rollup.events-enabled", havingValue = "true", matchIfMissing = true)
+public class OrderStatusChangedListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusChangedListener.class);
+
+    private static final Set<Integer> BOUGHT_STATUSES = Set.of(OrderStatusConstant.ORDER_STATUS_PAIED,
+            OrderStatusConstant.ORDER_STATUS_SHIPPED, OrderStatusConstant.ORDER_STATUS_COMPLETED);
+
+    @Autowired
+    private DailySalesRollup dailySalesRollup;
+
+    @Autowired
+    private BestSellerTracker bestSellerTracker;
+
+    @Autowired
+    private DailyDistinctSketches dailyDistinctSketches;
+
+    @Autowired
+    private DashboardStream dashboardStream;
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(value = MqConstant.STATISTICS_ORDER_STATUS_QUEUE, durable = "true"),
+            exchange = @Exchange(name = MqConstant.ORDER_EVENT_EXCHANGE, type = "topic", durable = "true"),
+            key = MqConstant.ORDER_STATUS_ROUTING_KEY_PREFIX + "#"
+    ))
+    public void onStatusChanged(OrderStatusChangedMessage message) {
+        dashboardStream.ordersChanged();
+        try {
+            // Adding an order twice is harmless, so any move into a paid status counts
+            if (message.getToStatus() != null && BOUGHT_STATUSES.contains(message.getToStatus())) {
+                dailyDistinctSketches.ordersPaid(message.getOrderNos());
+            }
+            if (OrderStatusConstant.ORDER_STATUS_COMPLETED.equals(message.getToStatus())
+                    || OrderStatusConstant.ORDER_STATUS_COMPLETED.equals(message.getFromStatus())) {
+                dailySalesRollup.ordersChanged(message.getOrderNos());
+            }
+            if (OrderStatusConstant.ORDER_STATUS_COMPLETED.equals(message.getToStatus())) {
+                bestSellerTracker.ordersCompleted(message.getOrderNos());
+            }
+        } catch (RuntimeException e) {
+            // Not requeued, the scheduled reconciliations rebuild recent figures anyway
+            logger.warn("Order status change of {} orders not applied to the sales figures: {}",
+                    message.getOrderNos() == null ? 0 : message.getOrderNos().size(), e.getMessage());
+        }
+    }
+}
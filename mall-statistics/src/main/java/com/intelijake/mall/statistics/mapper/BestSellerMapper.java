@@ -0,0 +1,34 @@
+package com.intelijake.mall.statistics.mapper;
+
+import com.intelijake.mall.statistics.pojo.dto.ProductSaleVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Completed order items by completion time, the input of the streaming best-seller rankings
+ */
+@Mapper
+public interface BestSellerMapper {
+
+    /**
+     * Items of the given orders that are completed, stamped with the order's end_time
+     * @param orderNos Order numbers
+     * @return One row per order item
+     */
+    List<ProductSaleVO> selectCompletedItems(@Param("orderNos") Collection<Long> orderNos);
+
+    /**
+     * Items of orders completed in [from, until), summed per product and time slot
+     * @param from Inclusive lower bound of end_time
+     * @param until Exclusive upper bound of end_time
+     * @param slotMinutes Slot width in minutes, a divisor of 60
+     * @return Rows ordered by slot, then quantity descending
+     */
+    List<ProductSaleVO> selectSlotSales(@Param("from") Date from,
+                                        @Param("until") Date until,
+                                        @Param("slotMinutes") int slotMinutes);
+}
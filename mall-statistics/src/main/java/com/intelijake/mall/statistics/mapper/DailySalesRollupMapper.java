@@ -0,0 +1,64 @@
+package com.intelijake.mall.statistics.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintenance statements of the daily_sales_rollup table
+ * A day is rebuilt by deleting its rows and re-aggregating its completed orders, all in one transaction.
+ */
+@Mapper
+public interface DailySalesRollupMapper {
+
+    /**
+     * Delete all rollup rows of a day
+     * @param day Order date
+     * @return Number of rows deleted
+     */
+    int deleteDay(@Param("day") LocalDate day);
+
+    /**
+     * Aggregate the order items of a day's completed orders by product, category and payment type
+     * @param day Order date
+     * @return Number of rows inserted
+     */
+    int insertProductRows(@Param("day") LocalDate day);
+
+    /**
+     * Aggregate a day's completed orders by payment type into product_id = 0 rows
+     * @param day Order date
+     * @return Number of rows inserted
+     */
+    int insertTotalRows(@Param("day") LocalDate day);
+
+    /**
+     * Creation dates of the given orders
+     * @param orderNos Order numbers
+     * @return Distinct order dates
+     */
+    List<LocalDate> selectOrderDates(@Param("orderNos") Collection<Long> orderNos);
+
+    /**
+     * Creation dates of the orders updated since a time, e.g. completed long after they were placed
+     * @param since Earliest update time
+     * @return Distinct order dates
+     */
+    List<LocalDate> selectOrderDatesChangedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Date of the oldest order
+     * @return Order date, null if there are no orders
+     */
+    LocalDate selectFirstOrderDate();
+
+    /**
+     * Whether the rollup holds any row
+     * @return 1 if it does, null otherwise
+     */
+    Integer selectAnyRow();
+}
@@ -0,0 +1,66 @@
+package com.intelijake.mall.statistics.mapper;
+
+import com.intelijake.mall.statistics.pojo.dto.DayMemberVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Per-day HyperLogLog sketches of distinct buyers and products, and the ids that feed them
+ */
+@Mapper
+public interface DistinctSketchMapper {
+
+    /**
+     * Insert the registers of a day that has no sketch yet
+     * @return 1 if inserted, 0 if the day already has a sketch
+     */
+    int insertIgnore(@Param("metric") String metric, @Param("day") LocalDate day, @Param("registers") byte[] registers);
+
+    /**
+     * Registers of one day, locking the row until the transaction ends
+     * @return Registers, null if the day has no sketch yet
+     */
+    byte[] selectForUpdate(@Param("metric") String metric, @Param("day") LocalDate day);
+
+    /**
+     * Replace the registers of one day
+     */
+    int update(@Param("metric") String metric, @Param("day") LocalDate day, @Param("registers") byte[] registers);
+
+    /**
+     * Stream the registers of every day in [from, to] to the handler, one row at a time
+     */
+    void selectRange(@Param("metric") String metric, @Param("from") LocalDate from, @Param("to") LocalDate to,
+                     ResultHandler<byte[]> handler);
+
+    /**
+     * Buyers of the given orders that are paid or later, with their order dates
+     */
+    List<DayMemberVO> selectBuyersOfOrders(@Param("orderNos") Collection<Long> orderNos);
+
+    /**
+     * Products of the given orders that are paid or later, with their order dates
+     */
+    List<DayMemberVO> selectProductsOfOrders(@Param("orderNos") Collection<Long> orderNos);
+
+    /**
+     * Distinct buyers of the paid or later orders created on a day
+     */
+    List<Long> selectBuyersOfDay(@Param("day") LocalDate day);
+
+    /**
+     * Distinct products of the paid or later orders created on a day
+     */
+    List<Long> selectProductsOfDay(@Param("day") LocalDate day);
+
+    /**
+     * Whether any sketch exists
+     * @return 1 if one does, null otherwise
+     */
+    Integer selectAnyRow();
+}
@@ -7,11 +7,12 @@ import com.intelijake.mall.statistics.pojo.dto.DailyRevenueVO;
 import com.intelijake.mall.statistics.pojo.dto.MonthlyRevenueVO;
 import com.intelijake.mall.statistics.pojo.dto.PaymentMethodCountVO;
 import com.intelijake.mall.statistics.pojo.dto.StatusCountVO;
+import com.intelijake.mall.statistics.pojo.dto.StatusTotalVO;
+import com.intelijake.mall.statistics.pojo.vo.DashboardStatsVO;
 import com.intelijake.mall.statistics.pojo.vo.TopProductVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
-import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
 
@@ -22,28 +23,10 @@ import java.util.List;
 public interface StatisticsMapper {
     
     /**
-     * Get total count of all orders
-     * @return Total order count
+     * Get all dashboard counters in one pass over customer_order
+     * @return Total orders, revenue of completed orders, pending and completed order counts
      */
-    Long getTotalOrderCount();
-    
-    /**
-     * Get total revenue from all completed orders
-     * @return Total revenue amount
-     */
-    BigDecimal getTotalRevenue();
-    
-    /**
-     * Get count of orders with pending status
-     * @return Pending order count
-     */
-    Long getPendingOrderCount();
-    
-    /**
-     * Get count of orders with completed status
-     * @return Completed order count
-     */
-    Long getCompletedOrderCount();
+    DashboardStatsVO getDashboardStats();
     
     /**
      * Get order count distribution by status
@@ -51,6 +34,12 @@ public interface StatisticsMapper {
      */
     List<StatusCountVO> getOrderStatusDistribution();
     
+    /**
+     * Get order count and payment total by status in one scan, for the live dashboard stream
+     * @return List of status totals
+     */
+    List<StatusTotalVO> getStatusTotals();
+    
     /**
      * Get daily revenue for a date range
      * @param startDate Start date of the range
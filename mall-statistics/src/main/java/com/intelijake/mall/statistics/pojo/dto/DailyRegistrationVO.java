@@ -1,13 +1,12 @@
 package com.intelijake.mall.statistics.pojo.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
-import java.util.Date;
+import java.time.LocalDate;
 
 /**
  * Internal DTO for daily customer registration mapping from database
@@ -24,8 +23,7 @@ public class DailyRegistrationVO implements Serializable {
      * Date for the registration data
      */
     @NotNull
-    @JsonFormat(pattern = "yyyy-MM-dd", timezone = "GMT+8")
-    private Date date;
+    private LocalDate date;
     
     /**
      * Number of customer registrations for the specific date
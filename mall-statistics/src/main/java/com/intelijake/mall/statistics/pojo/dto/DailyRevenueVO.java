@@ -1,14 +1,12 @@
 package com.intelijake.mall.statistics.pojo.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
-import java.math.BigDecimal;
-import java.util.Date;
+import java.time.LocalDate;
 
 /**
  * Internal DTO for daily revenue mapping from database
@@ -25,13 +23,11 @@ public class DailyRevenueVO implements Serializable {
      * Date for the revenue data
      */
     @NotNull
-    @JsonFormat(pattern = "yyyy-MM-dd", timezone = "GMT+8")
-    private Date date;
+    private LocalDate date;
     
     /**
-     * Revenue amount for the specific date
+     * Revenue for the specific date in cents
      */
     @NotNull
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal revenue;
+    private Long revenueCents;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.intelijake.mall.statistics.pojo.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Internal DTO for distinct-count sketch updates
+ * A buyer or product id together with the order date it is counted on
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayMemberVO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Order creation date
+     */
+    private LocalDate day;
+    
+    /**
+     * Customer or product ID
+     */
+    private Long memberId;
+}
@@ -0,0 +1,46 @@
+package com.intelijake.mall.statistics.pojo.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Internal DTO for product sales mapping from database
+ * One completed order item, or the items of one product completed within a time slot
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSaleVO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Completion time of the order, or the start of the slot
+     */
+    private Date soldAt;
+    
+    /**
+     * Product ID
+     */
+    private Integer productId;
+    
+    /**
+     * Product name as ordered
+     */
+    private String productName;
+    
+    /**
+     * Units sold
+     */
+    private Long quantity;
+    
+    /**
+     * Item totals
+     */
+    private BigDecimal amount;
+}
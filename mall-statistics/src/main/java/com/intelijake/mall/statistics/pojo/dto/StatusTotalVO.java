@@ -0,0 +1,44 @@
+package com.intelijake.mall.statistics.pojo.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Internal DTO for order count and payment total per status
+ * Used to derive the live dashboard figures from one grouped scan
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTotalVO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Order status code (numeric value from database)
+     */
+    @NotNull
+    private Integer status;
+    
+    /**
+     * Human-readable status name
+     */
+    private String statusName;
+    
+    /**
+     * Count of orders with this status
+     */
+    @NotNull
+    private Long count;
+    
+    /**
+     * Sum of the payment amounts of orders with this status
+     */
+    @NotNull
+    private BigDecimal amount;
+}
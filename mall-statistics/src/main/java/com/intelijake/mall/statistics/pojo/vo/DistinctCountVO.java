@@ -0,0 +1,43 @@
+package com.intelijake.mall.statistics.pojo.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Distinct count response DTO
+ * Estimated number of distinct buyers or products over a range of order dates
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistinctCountVO implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * First order date of the range
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate from;
+    
+    /**
+     * Last order date of the range, inclusive
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate to;
+    
+    /**
+     * Estimated distinct count
+     */
+    private Long count;
+    
+    /**
+     * Relative standard error of the estimate, e.g. 0.008 for 0.8%
+     */
+    private Double standardError;
+}
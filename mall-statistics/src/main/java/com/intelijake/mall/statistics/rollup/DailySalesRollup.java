@@ -0,0 +1,178 @@
+package com.intelijake.mall.statistics.rollup;
+
+import com.intelijake.mall.statistics.mapper.DailySalesRollupMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the daily_sales_rollup table in step with customer_order and order_item
+ * Order status events mark the days of the affected orders dirty, and every flush rebuilds each dirty
+ * day from its completed orders in one transaction. Rebuilding a whole day instead of adding deltas
+ * makes duplicate, reordered or replayed events harmless. The most recent days, and the days of orders
+ * changed recently however old they are, are also rebuilt on a schedule to make up for lost events, and
+ * an empty rollup is backfilled from the first order on startup. Rebuilds of the same day are serialized
+ * within the instance, so the startup backfill can run next to the scheduled flush.
+ * Without order events (the prod default) the rollup trails orders by up to one reconcile interval.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class DailySalesRollup {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailySalesRollup.class);
+
+    private final Set<LocalDate> dirtyDays = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+
+    // Striped by day, rebuilds of the same day never overlap
+    private final Object[] dayLocks = new Object[64];
+
+    @Autowired
+    private DailySalesRollupMapper rollupMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${statistics.rollup.reconcile-days:2}")
+    private int reconcileDays;
+
+    // A little more than the reconcile interval, so no change falls between two runs
+    @Value("${statistics.rollup.reconcile-lookback-ms:7200000}")
+    private long reconcileLookbackMillis;
+
+    @Value("${statistics.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    public DailySalesRollup() {
+        for (int i = 0; i < dayLocks.length; i++) {
+            dayLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Mark the days of the given orders for rebuilding on the next flush
+     */
+    public void ordersChanged(Collection<Long> orderNos) {
+        if (orderNos == null || orderNos.isEmpty()) {
+            return;
+        }
+        dirtyDays.addAll(rollupMapper.selectOrderDates(orderNos));
+    }
+
+    @Scheduled(fixedDelayString = "${statistics.rollup.flush-delay-ms:5000}")
+    public void flush() {
+        if (dirtyDays.isEmpty()) {
+            return;
+        }
+        List<LocalDate> days = new ArrayList<>(dirtyDays);
+        for (LocalDate day : days) {
+            // Cleared before the rebuild, so a change arriving meanwhile marks the day again
+            dirtyDays.remove(day);
+            try {
+                rebuild(day);
+            } catch (RuntimeException e) {
+                dirtyDays.add(day);
+                logger.warn("Sales rollup of {} not rebuilt, retrying on the next flush: {}", day, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rebuild the most recent days even without events, covering messages lost while a service was down
+     * Days of orders changed since the previous reconcile are rebuilt too, so an order completed long
+     * after it was created is counted without events.
+     */
+    @Scheduled(cron = "${statistics.rollup.reconcile-cron:0 15 * * * *}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < reconcileDays; i++) {
+            dirtyDays.add(today.minusDays(i));
+        }
+        try {
+            dirtyDays.addAll(rollupMapper.selectOrderDatesChangedSince(LocalDateTime.now().minus(Duration.ofMillis(reconcileLookbackMillis))));
+        } catch (RuntimeException e) {
+            logger.warn("Days of recently changed orders not loaded: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild every day in a range, inclusive, from the order tables
+     * @return Number of days rebuilt
+     * @throws IllegalStateException if a backfill is already running
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        if (!backfilling.compareAndSet(false, true)) {
+            throw new IllegalStateException("A sales rollup backfill is already running");
+        }
+        try {
+            int days = 0;
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                try {
+                    rebuild(day);
+                } catch (RuntimeException e) {
+                    dirtyDays.add(day);
+                    logger.warn("Sales rollup of {} not backfilled, retrying on the next flush: {}", day, e.getMessage());
+                }
+                days++;
+            }
+            logger.info("Sales rollup backfilled from {} to {}, {} days", from, to, days);
+            return days;
+        } finally {
+            backfilling.set(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                if (rollupMapper.selectAnyRow() != null) {
+                    return;
+                }
+                LocalDate first = rollupMapper.selectFirstOrderDate();
+                if (first != null) {
+                    backfill(first, LocalDate.now());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Sales rollup backfill failed: {}", e.getMessage());
+            }
+        }, "sales-rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Replace all rollup rows of a day with a fresh aggregate of its completed orders
+     */
+    public void rebuild(LocalDate day) {
+        synchronized (dayLocks[(int) Math.floorMod(day.toEpochDay(), (long) dayLocks.length)]) {
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupMapper.deleteDay(day);
+                rollupMapper.insertProductRows(day);
+                rollupMapper.insertTotalRows(day);
+            });
+        }
+    }
+}
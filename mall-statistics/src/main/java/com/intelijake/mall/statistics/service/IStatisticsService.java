@@ -2,10 +2,12 @@ package com.intelijake.mall.statistics.service;
 
 import com.intelijake.mall.statistics.pojo.vo.ChartDataVO;
 import com.intelijake.mall.statistics.pojo.vo.DashboardStatsVO;
+import com.intelijake.mall.statistics.pojo.vo.DistinctCountVO;
 import com.intelijake.mall.statistics.pojo.vo.MonthlyDataVO;
 import com.intelijake.mall.statistics.pojo.vo.TopProductVO;
-import com.intelijake.mall.statistics.pojo.vo.TrendDataVO;
+import com.intelijake.mall.statistics.util.TrendSeries;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -28,9 +30,10 @@ public interface IStatisticsService {
     /**
      * Get revenue trends for a specified period
      * @param period Period string (e.g., "7d", "30d", "90d", "1y")
-     * @return Trend data with dates and revenue values
+     * @param bucket Day, week or month buckets
+     * @return Zero-filled series of revenue per bucket, serialized as TrendDataVO
      */
-    TrendDataVO getRevenueTrends(String period);
+    TrendSeries getRevenueTrends(String period, TrendSeries.Bucket bucket);
     
     /**
      * Get payment method distribution for pie chart
@@ -47,9 +50,10 @@ public interface IStatisticsService {
     /**
      * Get top selling products by quantity sold
      * @param limit Maximum number of products to return
+     * @param window all for all time, or 1h, 24h, 7d or 30d by completion time
      * @return List of top selling products with details
      */
-    List<TopProductVO> getTopProducts(Integer limit);
+    List<TopProductVO> getTopProducts(Integer limit, String window);
     
     /**
      * Get sales revenue by product category for bar chart
@@ -67,7 +71,32 @@ public interface IStatisticsService {
     /**
      * Get customer registration trends for a specified period
      * @param period Period string (e.g., "7d", "30d", "90d", "1y")
-     * @return Trend data with dates and registration counts
+     * @param bucket Day, week or month buckets
+     * @return Zero-filled series of registrations per bucket, serialized as TrendDataVO
      */
-    TrendDataVO getCustomerTrends(String period);
-}
\ No newline at end of file
+    TrendSeries getCustomerTrends(String period, TrendSeries.Bucket bucket);
+    
+    /**
+     * Estimate the distinct customers with a paid order created in a date range
+     * @param from First order date, inclusive
+     * @param to Last order date, inclusive
+     * @return Estimated count with its standard error
+     */
+    DistinctCountVO getUniqueBuyers(LocalDate from, LocalDate to);
+    
+    /**
+     * Estimate the distinct products in paid orders created in a date range
+     * @param from First order date, inclusive
+     * @param to Last order date, inclusive
+     * @return Estimated count with its standard error
+     */
+    DistinctCountVO getUniqueProducts(LocalDate from, LocalDate to);
+    
+    /**
+     * Rebuild the daily sales rollup and distinct-count sketches for a range of order dates, inclusive
+     * @param from First day, null for the date of the first order
+     * @param to Last day, null for today
+     * @return Number of days rebuilt
+     */
+    int backfillSalesRollup(LocalDate from, LocalDate to);
+}
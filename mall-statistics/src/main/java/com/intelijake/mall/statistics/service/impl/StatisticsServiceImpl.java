@@ -1,24 +1,32 @@
 package com.intelijake.mall.statistics.service.impl;
 
+import com.intelijake.mall.common.cache.RefreshAheadValue;
+import com.intelijake.mall.statistics.distinct.DailyDistinctSketches;
+import com.intelijake.mall.statistics.distinct.HyperLogLog;
+import com.intelijake.mall.statistics.mapper.DailySalesRollupMapper;
 import com.intelijake.mall.statistics.mapper.StatisticsMapper;
 import com.intelijake.mall.statistics.pojo.dto.DailyRegistrationVO;
 import com.intelijake.mall.statistics.pojo.dto.DailyRevenueVO;
 import com.intelijake.mall.statistics.pojo.dto.MonthlyRevenueVO;
 import com.intelijake.mall.statistics.pojo.vo.ChartDataVO;
 import com.intelijake.mall.statistics.pojo.vo.DashboardStatsVO;
+import com.intelijake.mall.statistics.pojo.vo.DistinctCountVO;
 import com.intelijake.mall.statistics.pojo.vo.MonthlyDataVO;
 import com.intelijake.mall.statistics.pojo.vo.TopProductVO;
-import com.intelijake.mall.statistics.pojo.vo.TrendDataVO;
+import com.intelijake.mall.statistics.rollup.DailySalesRollup;
 import com.intelijake.mall.statistics.service.IStatisticsService;
+import com.intelijake.mall.statistics.topk.BestSellerTracker;
 import com.intelijake.mall.statistics.util.DateUtils;
+import com.intelijake.mall.statistics.util.TrendSeries;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -34,23 +42,62 @@ public class StatisticsServiceImpl implements IStatisticsService {
 
     @Autowired
     private StatisticsMapper statisticsMapper;
+
+    @Autowired
+    private DailySalesRollupMapper dailySalesRollupMapper;
+
+    @Autowired
+    private DailySalesRollup dailySalesRollup;
+
+    @Autowired
+    private BestSellerTracker bestSellerTracker;
+
+    @Autowired
+    private DailyDistinctSketches dailyDistinctSketches;
     
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String TOP_PRODUCTS_ALL_TIME = "all";
+
     private static final String[] MONTH_NAMES = {
         "January", "February", "March", "April", "May", "June", 
         "July", "August", "September", "October", "November", "December"
     };
 
+    @Value("${statistics.dashboard.refresh-ms:30000}")
+    private long dashboardRefreshMs;
+
+    @Value("${statistics.dashboard.max-stale-ms:300000}")
+    private long dashboardMaxStaleMs;
+
+    @Value("${statistics.top-products.max-k:100}")
+    private int topProductsMaxK;
+
+    @Value("${statistics.top-products.all-time-refresh-ms:60000}")
+    private long allTimeTopProductsRefreshMs;
+
+    // Dashboard counters, reloaded in the background so polling clients never wait for the scan
+    private RefreshAheadValue<DashboardStatsVO> dashboardStats;
+
+    // All-time best sellers from the sales rollup, the windowed rankings live in BestSellerTracker
+    private RefreshAheadValue<List<TopProductVO>> allTimeTopProducts;
+
+    @PostConstruct
+    public void init() {
+        dashboardStats = new RefreshAheadValue<>("dashboard-stats", statisticsMapper::getDashboardStats,
+                dashboardRefreshMs, dashboardMaxStaleMs);
+        allTimeTopProducts = new RefreshAheadValue<>("all-time-top-products",
+                () -> statisticsMapper.getTopSellingProducts(topProductsMaxK),
+                allTimeTopProductsRefreshMs, allTimeTopProductsRefreshMs * 10);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        dashboardStats.shutdown();
+        allTimeTopProducts.shutdown();
+    }
+
     @Override
-    // @Cacheable(value = "dashboard_stats") // Temporarily disabled due to Redis SSL issues
     public DashboardStatsVO getDashboardStats() {
-        DashboardStatsVO stats = new DashboardStatsVO();
-        // Implement with actual database queries
-        stats.setTotalOrders(statisticsMapper.getTotalOrderCount());
-        stats.setTotalRevenue(statisticsMapper.getTotalRevenue());
-        stats.setPendingOrders(statisticsMapper.getPendingOrderCount());
-        stats.setCompletedOrders(statisticsMapper.getCompletedOrderCount());
-        return stats;
+        return dashboardStats.get();
     }
 
     @Override
@@ -68,41 +115,18 @@ public class StatisticsServiceImpl implements IStatisticsService {
 
     @Override
     // @Cacheable(value = "revenue_trends", key = "#period") // Temporarily disabled due to Redis SSL issues
-    public TrendDataVO getRevenueTrends(String period) {
+    public TrendSeries getRevenueTrends(String period, TrendSeries.Bucket bucket) {
         // Parse the period to get start and end dates
         Map<String, Date> dateRange = DateUtils.parsePeriod(period);
         Date startDate = dateRange.get("startDate");
         Date endDate = dateRange.get("endDate");
         
-        // Get revenue data from database
-        List<DailyRevenueVO> revenueData = statisticsMapper.getRevenueByDateRange(startDate, endDate);
-        
-        // Create a map of date to revenue for quick lookup
-        Map<String, BigDecimal> revenueByDate = new HashMap<>();
-        for (DailyRevenueVO data : revenueData) {
-            String dateStr = DateUtils.formatDate(data.getDate());
-            revenueByDate.put(dateStr, data.getRevenue());
-        }
-        
-        // Generate all dates in the range
-        List<String> allDates = new ArrayList<>();
-        List<BigDecimal> allValues = new ArrayList<>();
-        
-        LocalDate currentDate = startDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        LocalDate endLocalDate = endDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        
-        while (!currentDate.isAfter(endLocalDate)) {
-            String dateStr = currentDate.format(DATE_FORMATTER);
-            allDates.add(dateStr);
-            
-            // Use the revenue from the map or zero if not present
-            BigDecimal revenue = revenueByDate.getOrDefault(dateStr, BigDecimal.ZERO);
-            allValues.add(revenue);
-            
-            currentDate = currentDate.plusDays(1);
+        // Days without revenue stay zero in the series
+        TrendSeries series = new TrendSeries(DateUtils.toLocalDate(startDate), DateUtils.toLocalDate(endDate), bucket, 2);
+        for (DailyRevenueVO data : statisticsMapper.getRevenueByDateRange(startDate, endDate)) {
+            series.add(data.getDate(), data.getRevenueCents());
         }
-        
-        return new TrendDataVO(allDates, allValues);
+        return series;
     }
 
     @Override
@@ -132,12 +156,18 @@ public class StatisticsServiceImpl implements IStatisticsService {
     }
 
     @Override
-    // @Cacheable(value = "top_products", key = "#limit") // Temporarily disabled due to Redis SSL issues
-    public List<TopProductVO> getTopProducts(Integer limit) {
+    public List<TopProductVO> getTopProducts(Integer limit, String window) {
         if (limit == null || limit <= 0) {
             limit = 10; // Default to 10 if not specified or invalid
         }
-        return statisticsMapper.getTopSellingProducts(limit);
+        if (window != null && !window.isEmpty() && !TOP_PRODUCTS_ALL_TIME.equals(window)) {
+            return bestSellerTracker.top(window, limit);
+        }
+        if (limit > topProductsMaxK) {
+            return statisticsMapper.getTopSellingProducts(limit);
+        }
+        List<TopProductVO> ranking = allTimeTopProducts.get();
+        return new ArrayList<>(ranking.subList(0, Math.min(limit, ranking.size())));
     }
 
     @Override
@@ -183,40 +213,45 @@ public class StatisticsServiceImpl implements IStatisticsService {
 
     @Override
     // @Cacheable(value = "customer_trends", key = "#period") // Temporarily disabled due to Redis SSL issues
-    public TrendDataVO getCustomerTrends(String period) {
+    public TrendSeries getCustomerTrends(String period, TrendSeries.Bucket bucket) {
         // Parse the period to get start and end dates
         Map<String, Date> dateRange = DateUtils.parsePeriod(period);
         Date startDate = dateRange.get("startDate");
         Date endDate = dateRange.get("endDate");
         
-        // Get registration data from database
-        List<DailyRegistrationVO> registrationData = statisticsMapper.getCustomerRegistrationsByDateRange(startDate, endDate);
-        
-        // Create a map of date to registration count for quick lookup
-        Map<String, Long> registrationsByDate = new HashMap<>();
-        for (DailyRegistrationVO data : registrationData) {
-            String dateStr = DateUtils.formatDate(data.getDate());
-            registrationsByDate.put(dateStr, data.getRegistrationCount());
+        // Days without registrations stay zero in the series
+        TrendSeries series = new TrendSeries(DateUtils.toLocalDate(startDate), DateUtils.toLocalDate(endDate), bucket, 0);
+        for (DailyRegistrationVO data : statisticsMapper.getCustomerRegistrationsByDateRange(startDate, endDate)) {
+            series.add(data.getDate(), data.getRegistrationCount());
         }
-        
-        // Generate all dates in the range
-        List<String> allDates = new ArrayList<>();
-        List<BigDecimal> allValues = new ArrayList<>();
-        
-        LocalDate currentDate = startDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        LocalDate endLocalDate = endDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        
-        while (!currentDate.isAfter(endLocalDate)) {
-            String dateStr = currentDate.format(DATE_FORMATTER);
-            allDates.add(dateStr);
-            
-            // Use the registration count from the map or zero if not present
-            Long count = registrationsByDate.getOrDefault(dateStr, 0L);
-            allValues.add(new BigDecimal(count));
-            
-            currentDate = currentDate.plusDays(1);
+        return series;
+    }
+
+    @Override
+    public int backfillSalesRollup(LocalDate from, LocalDate to) {
+        if (from == null) {
+            from = dailySalesRollupMapper.selectFirstOrderDate();
+            if (from == null) {
+                return 0; // No orders yet
+            }
         }
-        
-        return new TrendDataVO(allDates, allValues);
+        if (to == null) {
+            to = LocalDate.now();
+        }
+        int days = dailySalesRollup.backfill(from, to);
+        dailyDistinctSketches.backfill(from, to);
+        return days;
+    }
+
+    @Override
+    public DistinctCountVO getUniqueBuyers(LocalDate from, LocalDate to) {
+        long count = dailyDistinctSketches.count(DailyDistinctSketches.BUYERS, from, to);
+        return new DistinctCountVO(from, to, count, HyperLogLog.STANDARD_ERROR);
+    }
+
+    @Override
+    public DistinctCountVO getUniqueProducts(LocalDate from, LocalDate to) {
+        long count = dailyDistinctSketches.count(DailyDistinctSketches.PRODUCTS, from, to);
+        return new DistinctCountVO(from, to, count, HyperLogLog.STANDARD_ERROR);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package com.intelijake.mall.statistics.stream;
+
+import com.intelijake.mall.common.constant.OrderStatusConstant;
+import com.intelijake.mall.statistics.pojo.dto.StatusTotalVO;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable dashboard figures at one tick of the live stream
+ * Carries the DashboardStatsVO counters plus the order count of every status, all derived from the
+ * per-status totals of one scan. diff() yields only the fields that moved, which is what subscribers
+ * receive as a delta event.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public final class DashboardSnapshot {
+
+    static final String TOTAL_ORDERS = "totalOrders";
+    static final String TOTAL_REVENUE = "totalRevenue";
+    static final String PENDING_ORDERS = "pendingOrders";
+    static final String COMPLETED_ORDERS = "completedOrders";
+    static final String STATUS_COUNTS = "statusCounts";
+
+    private final long totalOrders;
+
+    private final BigDecimal totalRevenue;
+
+    private final long pendingOrders;
+
+    private final long completedOrders;
+
+    // Order count by status name, in status order
+    private final Map<String, Long> statusCounts;
+
+    private DashboardSnapshot(long totalOrders, BigDecimal totalRevenue, long pendingOrders, long completedOrders,
+                              Map<String, Long> statusCounts) {
+        this.totalOrders = totalOrders;
+        this.totalRevenue = totalRevenue;
+        this.pendingOrders = pendingOrders;
+        this.completedOrders = completedOrders;
+        this.statusCounts = Collections.unmodifiableMap(statusCounts);
+    }
+
+    /**
+     * Derive the figures from the per-status totals, revenue counts completed orders like the dashboard does
+     */
+    public static DashboardSnapshot of(List<StatusTotalVO> totals) {
+        long orders = 0;
+        long pending = 0;
+        long completed = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (StatusTotalVO row : totals) {
+            long count = row.getCount() == null ? 0 : row.getCount();
+            orders += count;
+            counts.merge(row.getStatusName(), count, Long::sum);
+            if (OrderStatusConstant.ORDER_STATUS_UN_PAIED.equals(row.getStatus())) {
+                pending += count;
+            } else if (OrderStatusConstant.ORDER_STATUS_COMPLETED.equals(row.getStatus())) {
+                completed += count;
+                if (row.getAmount() != null) {
+                    revenue = revenue.add(row.getAmount());
+                }
+            }
+        }
+        return new DashboardSnapshot(orders, revenue, pending, completed, counts);
+    }
+
+    /**
+     * All figures, sent to a subscriber when it connects
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(TOTAL_ORDERS, totalOrders);
+        map.put(TOTAL_REVENUE, totalRevenue);
+        map.put(PENDING_ORDERS, pendingOrders);
+        map.put(COMPLETED_ORDERS, completedOrders);
+        map.put(STATUS_COUNTS, statusCounts);
+        return map;
+    }
+
+    /**
+     * Figures that differ from the previous snapshot, empty when nothing moved
+     * A status that no longer has any order is reported with a count of 0.
+     */
+    public Map<String, Object> diff(DashboardSnapshot previous) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (totalOrders != previous.totalOrders) {
+            changes.put(TOTAL_ORDERS, totalOrders);
+        }
+        if (totalRevenue.compareTo(previous.totalRevenue) != 0) {
+            changes.put(TOTAL_REVENUE, totalRevenue);
+        }
+        if (pendingOrders != previous.pendingOrders) {
+            changes.put(PENDING_ORDERS, pendingOrders);
+        }
+        if (completedOrders != previous.completedOrders) {
+            changes.put(COMPLETED_ORDERS, completedOrders);
+        }
+        Map<String, Long> counts = new LinkedHashMap<>();
+        statusCounts.forEach((status, count) -> {
+            if (!count.equals(previous.statusCounts.get(status))) {
+                counts.put(status, count);
+            }
+        });
+        previous.statusCounts.keySet().forEach(status -> {
+            if (!statusCounts.containsKey(status)) {
+                counts.put(status, 0L);
+            }
+        });
+        if (!counts.isEmpty()) {
+            changes.put(STATUS_COUNTS, counts);
+        }
+        return changes;
+    }
+
+    public long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public long getPendingOrders() {
+        return pendingOrders;
+    }
+
+    public long getCompletedOrders() {
+        return completedOrders;
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+}
@@ -0,0 +1,314 @@
+package com.intelijake.mall.statistics.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelijake.mall.statistics.mapper.StatisticsMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live dashboard figures pushed to admins over server-sent events
+ * One scheduled tick loads the per-status totals once, diffs them against the previous snapshot and
+ * writes the same serialized delta to every subscriber, so the database sees one query per tick
+ * however many dashboards are open, and none while nobody is subscribed. Ticks only query when an
+ * order status event arrived since the last load, or when resync-ms passed without one.
+ * A new subscriber first receives the whole snapshot, then deltas. Idle connections get a comment
+ * every heartbeat-ms, which must stay below the gateway's response-timeout.
+ * Frames are queued per subscriber and written by a small sender pool, never on the scheduler thread,
+ * so one slow connection cannot hold up the others; a subscriber whose queue of queue-size frames is
+ * full has fallen behind and is disconnected, its client reconnects and starts over from a snapshot.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class DashboardStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStream.class);
+
+    static final String EVENT_SNAPSHOT = "snapshot";
+    static final String EVENT_DELTA = "delta";
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Set by order status events, the first tick with a subscriber always loads
+    private final AtomicBoolean changed = new AtomicBoolean(true);
+
+    private volatile DashboardSnapshot current;
+
+    private long sequence;
+
+    private volatile long lastLoadMillis;
+
+    @Autowired
+    private StatisticsMapper statisticsMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${statistics.stream.max-subscribers:200}")
+    private int maxSubscribers;
+
+    @Value("${statistics.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${statistics.stream.resync-ms:30000}")
+    private long resyncMs;
+
+    @Value("${statistics.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${statistics.stream.retry-ms:5000}")
+    private long retryMs;
+
+    @Value("${statistics.stream.queue-size:16}")
+    private int queueSize;
+
+    @Value("${statistics.stream.sender-threads:4}")
+    private int senderThreads;
+
+    private ThreadPoolExecutor senders;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNo = new AtomicInteger();
+        // A subscriber has at most one drain task queued or running, so the queue never overflows
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(maxSubscribers, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-stream-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        senders.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Register a dashboard, null when max-subscribers are already connected
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, queueSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        synchronized (this) {
+            // Queued under the lock so no delta can be published between this snapshot and the registration
+            if (current != null) {
+                enqueue(subscriber, snapshotFrame(), System.currentTimeMillis());
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Order statuses moved, the next tick reloads the figures
+     */
+    public void ordersChanged() {
+        changed.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${statistics.stream.tick-ms:2000}")
+    public void tick() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        DashboardSnapshot loaded = null;
+        if (changed.getAndSet(false) || now - lastLoadMillis >= resyncMs) {
+            try {
+                loaded = DashboardSnapshot.of(statisticsMapper.getStatusTotals());
+                lastLoadMillis = now;
+            } catch (RuntimeException e) {
+                changed.set(true);
+                logger.warn("Live dashboard figures could not be loaded: {}", e.getMessage());
+            }
+        }
+        publish(loaded, now);
+    }
+
+    private synchronized void publish(DashboardSnapshot loaded, long now) {
+        Set<ResponseBodyEmitter.DataWithMediaType> delta = null;
+        if (loaded != null) {
+            DashboardSnapshot previous = current;
+            if (previous == null) {
+                current = loaded;
+                sequence++;
+            } else {
+                Map<String, Object> changes = loaded.diff(previous);
+                if (!changes.isEmpty()) {
+                    current = loaded;
+                    sequence++;
+                    delta = event(EVENT_DELTA, changes).build();
+                }
+            }
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> snapshot = null;
+        Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = null;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.synced) {
+                if (current == null) {
+                    continue;
+                }
+                if (snapshot == null) {
+                    snapshot = snapshotFrame();
+                }
+                enqueue(subscriber, snapshot, now);
+            } else if (delta != null) {
+                enqueue(subscriber, delta, now);
+            } else if (now - subscriber.lastSentMillis >= heartbeatMs) {
+                if (heartbeat == null) {
+                    heartbeat = SseEmitter.event().comment("heartbeat").build();
+                }
+                enqueue(subscriber, heartbeat, now);
+            }
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> snapshotFrame() {
+        return event(EVENT_SNAPSHOT, current.toMap()).reconnectTime(retryMs).build();
+    }
+
+    // Serialized once, the built frame is written as is to every subscriber
+    private SseEmitter.SseEventBuilder event(String name, Map<String, Object> data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Dashboard event could not be serialized", e);
+        }
+        return SseEmitter.event()
+                .id(Long.toString(sequence))
+                .name(name)
+                .data(json);
+    }
+
+    /**
+     * Queue a frame for the sender pool, disconnecting a subscriber that has fallen behind
+     */
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame, long now) {
+        if (!subscriber.frames.offer(frame)) {
+            logger.warn("Dashboard subscriber fell {} frames behind, disconnecting it", queueSize);
+            close(subscriber);
+        } else {
+            subscriber.synced = true;
+            subscriber.lastSentMillis = now;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            subscriber.draining.set(false);
+            subscribers.remove(subscriber);
+        }
+    }
+
+    /**
+     * Write the queued frames of one subscriber in order, only ever one drain per subscriber at a time
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame;
+            while (!subscriber.closed && (frame = subscriber.frames.poll()) != null) {
+                try {
+                    subscriber.emitter.send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    // Disconnected or already completed, the container completes the emitter
+                    subscriber.closed = true;
+                    subscribers.remove(subscriber);
+                }
+            }
+            if (subscriber.closed && !subscriber.completed) {
+                subscriber.completed = true;
+                subscriber.frames.clear();
+                subscriber.emitter.complete();
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Work that arrived after the last check but before draining was cleared would otherwise wait
+        if (subscriber.closed ? !subscriber.completed : !subscriber.frames.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    /**
+     * Stop sending to a subscriber, the emitter is completed by its drain so a blocked write never holds up the caller
+     */
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (Subscriber subscriber : subscribers) {
+            close(subscriber);
+            scheduleDrain(subscriber);
+        }
+        senders.shutdown();
+        try {
+            senders.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdownNow();
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> frames;
+
+        // A drain task is queued or running
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // Received the whole snapshot, only deltas from now on
+        private volatile boolean synced;
+
+        private volatile boolean closed;
+
+        // Only touched by the drain task
+        private boolean completed;
+
+        private volatile long lastSentMillis;
+
+        private Subscriber(SseEmitter emitter, int queueSize) {
+            this.emitter = emitter;
+            this.frames = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
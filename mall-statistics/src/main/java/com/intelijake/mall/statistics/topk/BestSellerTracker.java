@@ -0,0 +1,281 @@
+package com.intelijake.mall.statistics.topk;
+
+import com.intelijake.mall.statistics.mapper.BestSellerMapper;
+import com.intelijake.mall.statistics.pojo.dto.ProductSaleVO;
+import com.intelijake.mall.statistics.pojo.vo.TopProductVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Live best-seller rankings for the last hour, day, 7 days and 30 days
+ * Completed orders are counted into time-slotted Space-Saving sketches by their completion time:
+ * 5-minute slots for the last hour and hourly slots for the longer windows. The ranking of every
+ * window is merged from its slots in the background, so a lookup only copies the first k entries.
+ * Windows are whole slots, the hour window covers between 55 and 60 minutes.
+ * The slots are periodically rebuilt from order tables, which bounds the drift from lost events to
+ * one reconcile interval. Events received while rebuilding are replayed if the rebuild did not see them.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@Component
+public class BestSellerTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(BestSellerTracker.class);
+
+    public static final String WINDOW_HOUR = "1h";
+    public static final String WINDOW_DAY = "24h";
+    public static final String WINDOW_WEEK = "7d";
+    public static final String WINDOW_MONTH = "30d";
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private static final int FINE_SLOT_MINUTES = 5;
+    private static final int FINE_SLOTS = 12;
+
+    private static final int COARSE_SLOT_MINUTES = 60;
+    private static final int COARSE_SLOTS = 30 * 24;
+
+    private final int capacity;
+
+    private final int maxK;
+
+    private Ring fine;
+
+    private Ring coarse;
+
+    private boolean dirty = true;
+
+    private long rankedFineSlot = Long.MIN_VALUE;
+
+    private boolean reconciling;
+
+    // Items recorded while a rebuild runs, replayed onto the rebuilt slots when it did not see them
+    private final List<ProductSaleVO> pending = new ArrayList<>();
+
+    private volatile Map<String, List<TopProductVO>> rankings = Map.of();
+
+    @Autowired
+    private BestSellerMapper bestSellerMapper;
+
+    public BestSellerTracker(@Value("${statistics.top-products.capacity:200}") int capacity,
+                             @Value("${statistics.top-products.max-k:100}") int maxK) {
+        this.capacity = capacity;
+        this.maxK = maxK;
+        this.fine = new Ring(FINE_SLOT_MINUTES, FINE_SLOTS, capacity);
+        this.coarse = new Ring(COARSE_SLOT_MINUTES, COARSE_SLOTS, capacity);
+    }
+
+    public static boolean isWindow(String window) {
+        return WINDOW_HOUR.equals(window) || WINDOW_DAY.equals(window)
+                || WINDOW_WEEK.equals(window) || WINDOW_MONTH.equals(window);
+    }
+
+    /**
+     * Best sellers of a window, most units first, from the last background ranking
+     * @param window One of 1h, 24h, 7d and 30d
+     * @param limit Number of products, at most max-k
+     */
+    public List<TopProductVO> top(String window, int limit) {
+        List<TopProductVO> ranking = rankings.getOrDefault(window, List.of());
+        return new ArrayList<>(ranking.subList(0, Math.min(Math.max(limit, 0), ranking.size())));
+    }
+
+    /**
+     * Count the items of newly completed orders
+     */
+    public void ordersCompleted(Collection<Long> orderNos) {
+        if (orderNos == null || orderNos.isEmpty()) {
+            return;
+        }
+        List<ProductSaleVO> items = bestSellerMapper.selectCompletedItems(orderNos);
+        synchronized (this) {
+            for (ProductSaleVO item : items) {
+                record(fine, coarse, item);
+            }
+            if (reconciling) {
+                pending.addAll(items);
+            }
+            dirty = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${statistics.top-products.rank-delay-ms:2000}")
+    public void rank() {
+        long now = System.currentTimeMillis();
+        Map<String, List<TopProductVO>> ranked = new LinkedHashMap<>();
+        synchronized (this) {
+            long fineSlot = fine.slotOf(now);
+            // Nothing was added and no slot left a window since the last ranking
+            if (!dirty && fineSlot == rankedFineSlot) {
+                return;
+            }
+            long coarseSlot = coarse.slotOf(now);
+            ranked.put(WINDOW_HOUR, merge(fine.recent(fineSlot, FINE_SLOTS), maxK));
+            ranked.put(WINDOW_DAY, merge(coarse.recent(coarseSlot, 24), maxK));
+            ranked.put(WINDOW_WEEK, merge(coarse.recent(coarseSlot, 7 * 24), maxK));
+            ranked.put(WINDOW_MONTH, merge(coarse.recent(coarseSlot, COARSE_SLOTS), maxK));
+            dirty = false;
+            rankedFineSlot = fineSlot;
+        }
+        rankings = ranked;
+    }
+
+    /**
+     * Rebuild all slots from the order tables, runs once on startup and then every reconcile interval
+     */
+    @Scheduled(fixedDelayString = "${statistics.top-products.reconcile-ms:600000}")
+    public void reconcile() {
+        Date until = new Date();
+        synchronized (this) {
+            reconciling = true;
+            pending.clear();
+        }
+        try {
+            Ring rebuiltFine = new Ring(FINE_SLOT_MINUTES, FINE_SLOTS, capacity);
+            Ring rebuiltCoarse = new Ring(COARSE_SLOT_MINUTES, COARSE_SLOTS, capacity);
+            // Rows come by slot with the best sellers first, so each slot sketch keeps the exact head
+            for (ProductSaleVO row : bestSellerMapper.selectSlotSales(rebuiltFine.windowStart(until), until, FINE_SLOT_MINUTES)) {
+                rebuiltFine.offer(row);
+            }
+            for (ProductSaleVO row : bestSellerMapper.selectSlotSales(rebuiltCoarse.windowStart(until), until, COARSE_SLOT_MINUTES)) {
+                rebuiltCoarse.offer(row);
+            }
+            synchronized (this) {
+                for (ProductSaleVO item : pending) {
+                    if (!item.getSoldAt().before(until)) {
+                        record(rebuiltFine, rebuiltCoarse, item);
+                    }
+                }
+                fine = rebuiltFine;
+                coarse = rebuiltCoarse;
+                dirty = true;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Best-seller slots not rebuilt, keeping the streamed counts: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                reconciling = false;
+                pending.clear();
+            }
+        }
+    }
+
+    private static void record(Ring fineRing, Ring coarseRing, ProductSaleVO item) {
+        fineRing.offer(item);
+        coarseRing.offer(item);
+    }
+
+    /**
+     * Merge slot sketches into the top maxK products of their union
+     * A product missing from a full sketch may have sold up to that sketch's minimum there, and a
+     * tracked count is at most that minimum too high, so a merged count is off by no more than the
+     * summed minimum counts of the sketches.
+     */
+    static List<TopProductVO> merge(List<SpaceSavingSketch> sketches, int maxK) {
+        Map<Integer, TopProductVO> totals = new HashMap<>();
+        for (SpaceSavingSketch sketch : sketches) {
+            for (SpaceSavingSketch.Counter counter : sketch.counters()) {
+                TopProductVO total = totals.computeIfAbsent(counter.getProductId(),
+                        id -> new TopProductVO(id, counter.getProductName(), 0L, BigDecimal.ZERO));
+                total.setTotalQuantity(total.getTotalQuantity() + counter.getCount());
+                total.setTotalRevenue(total.getTotalRevenue().add(counter.getAmount()));
+                if (total.getProductName() == null) {
+                    total.setProductName(counter.getProductName());
+                }
+            }
+        }
+        Comparator<TopProductVO> ranking = Comparator.comparingLong(TopProductVO::getTotalQuantity).reversed()
+                .thenComparingInt(TopProductVO::getProductId);
+        // Min-heap of the best maxK seen so far, the worst of them on top
+        PriorityQueue<TopProductVO> best = new PriorityQueue<>(ranking.reversed());
+        for (TopProductVO total : totals.values()) {
+            best.add(total);
+            if (best.size() > maxK) {
+                best.poll();
+            }
+        }
+        List<TopProductVO> result = new ArrayList<>(best);
+        result.sort(ranking);
+        return result;
+    }
+
+    /**
+     * Circular buffer of per-slot sketches, a slot is reused once it falls out of the window
+     */
+    private static final class Ring {
+
+        private final long slotMillis;
+
+        private final int capacity;
+
+        private final long[] slotIds;
+
+        private final SpaceSavingSketch[] sketches;
+
+        private Ring(int slotMinutes, int slots, int capacity) {
+            this.slotMillis = slotMinutes * MINUTE_MILLIS;
+            this.capacity = capacity;
+            this.slotIds = new long[slots];
+            this.sketches = new SpaceSavingSketch[slots];
+            Arrays.fill(slotIds, Long.MIN_VALUE);
+        }
+
+        private long slotOf(long millis) {
+            return Math.floorDiv(millis, slotMillis);
+        }
+
+        /**
+         * Start of the oldest slot still in the ring at the given time
+         */
+        private Date windowStart(Date at) {
+            return new Date((slotOf(at.getTime()) - slotIds.length + 1) * slotMillis);
+        }
+
+        private void offer(ProductSaleVO item) {
+            if (item.getSoldAt() == null || item.getProductId() == null || item.getQuantity() == null) {
+                return;
+            }
+            long slot = slotOf(item.getSoldAt().getTime());
+            int index = (int) Math.floorMod(slot, (long) slotIds.length);
+            if (slotIds[index] > slot) {
+                return; // Older than the window
+            }
+            if (slotIds[index] < slot) {
+                slotIds[index] = slot;
+                sketches[index] = new SpaceSavingSketch(capacity);
+            }
+            sketches[index].offer(item.getProductId(), item.getProductName(), item.getQuantity(), item.getAmount());
+        }
+
+        /**
+         * Sketches of the last count slots up to and including currentSlot
+         */
+        private List<SpaceSavingSketch> recent(long currentSlot, int count) {
+            List<SpaceSavingSketch> result = new ArrayList<>(count);
+            for (long slot = currentSlot - count + 1; slot <= currentSlot; slot++) {
+                int index = (int) Math.floorMod(slot, (long) slotIds.length);
+                if (slotIds[index] == slot) {
+                    result.add(sketches[index]);
+                }
+            }
+            return result;
+        }
+    }
+}
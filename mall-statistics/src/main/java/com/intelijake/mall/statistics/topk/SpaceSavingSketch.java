@@ -0,0 +1,132 @@
+package com.intelijake.mall.statistics.topk;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving summary of units sold per product, holding at most capacity products
+ * A product not yet tracked replaces the one with the lowest count once the summary is full and
+ * inherits that count as its error, so a count is never below the true value and at most error above it.
+ * Any product sold more than total / capacity units is guaranteed to be tracked.
+ * Not thread-safe, BestSellerTracker guards its sketches.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+public class SpaceSavingSketch {
+
+    private final int capacity;
+
+    private final Map<Integer, Counter> counters = new HashMap<>();
+
+    // Counters by count, the first one is evicted next
+    private final TreeSet<Counter> byCount = new TreeSet<>(
+            Comparator.comparingLong((Counter counter) -> counter.count).thenComparingInt(counter -> counter.productId));
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Count units of a product
+     * @param amount Item totals of these units, tracked alongside but not used for ranking
+     */
+    public void offer(int productId, String productName, long quantity, BigDecimal amount) {
+        if (quantity <= 0) {
+            return;
+        }
+        BigDecimal value = amount == null ? BigDecimal.ZERO : amount;
+        Counter counter = counters.get(productId);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += quantity;
+            counter.amount = counter.amount.add(value);
+            if (productName != null) {
+                counter.productName = productName;
+            }
+            byCount.add(counter);
+            return;
+        }
+        long inherited = 0;
+        if (counters.size() >= capacity) {
+            Counter evicted = byCount.pollFirst();
+            counters.remove(evicted.productId);
+            inherited = evicted.count;
+        }
+        // The amount of an evicted product is not inherited, it is a lower bound for replacements
+        counter = new Counter(productId, productName, inherited + quantity, inherited, value);
+        counters.put(productId, counter);
+        byCount.add(counter);
+    }
+
+    public boolean isFull() {
+        return counters.size() >= capacity;
+    }
+
+    public boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    /**
+     * Upper bound of the units of any product that is not tracked
+     */
+    public long minCount() {
+        return isFull() ? byCount.first().count : 0;
+    }
+
+    public Collection<Counter> counters() {
+        return Collections.unmodifiableCollection(counters.values());
+    }
+
+    /**
+     * Tracked product, count overestimates its units sold by at most error
+     */
+    public static final class Counter {
+
+        private final int productId;
+
+        private String productName;
+
+        private long count;
+
+        private final long error;
+
+        private BigDecimal amount;
+
+        private Counter(int productId, String productName, long count, long error, BigDecimal amount) {
+            this.productId = productId;
+            this.productName = productName;
+            this.count = count;
+            this.error = error;
+            this.amount = amount;
+        }
+
+        public int getProductId() {
+            return productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+    }
+}
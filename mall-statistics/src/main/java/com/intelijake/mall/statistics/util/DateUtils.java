@@ -87,4 +87,16 @@ public class DateUtils {
                 .toLocalDate()
                 .toString();
     }
-}
\ No newline at end of file
+    
+    /**
+     * Convert a Date to the LocalDate it falls on in the system time zone
+     *
+     * @param date The date to convert
+     * @return Local date
+     */
+    public static LocalDate toLocalDate(Date date) {
+        return date.toInstant()
+                .atZone(ZoneId.systemDefault())
+                .toLocalDate();
+    }
+}
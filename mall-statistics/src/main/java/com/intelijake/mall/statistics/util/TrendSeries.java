@@ -0,0 +1,261 @@
+package com.intelijake.mall.statistics.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.intelijake.mall.statistics.pojo.vo.TrendDataVO;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Zero-filled time series over a date range, bucketed by day, ISO week or month
+ * Values are summed into a long[] indexed by bucket (epoch day offset, week offset or month offset),
+ * in fixed-point units of 10^-scale, so revenue is kept in cents. Buckets nobody added to stay 0.
+ * Serializes to the TrendDataVO shape {"dates": [...], "values": [...]}, every bucket labelled by its
+ * first day in the range as yyyy-MM-dd; labels and numbers are written straight into the generator
+ * without building Strings or BigDecimals.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@JsonSerialize(using = TrendSeries.JsonWriter.class)
+public final class TrendSeries implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // 1970-01-01 was a Thursday, Monday is 3 days earlier in the week
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    private static final int MAX_SCALE = 6;
+
+    public enum Bucket {
+        DAY, WEEK, MONTH;
+
+        /**
+         * Bucket named by a request parameter (day, week or month), null if unknown
+         */
+        public static Bucket parse(String name) {
+            if (name == null || name.isEmpty()) {
+                return DAY;
+            }
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private final Bucket bucket;
+
+    private final int scale;
+
+    private final long fromDay;
+
+    private final long toDay;
+
+    // First day of the first bucket: fromDay, the Monday on or before it, or month index for MONTH
+    private final long origin;
+
+    private final long[] values;
+
+    /**
+     * @param from First day of the range, inclusive
+     * @param to Last day of the range, inclusive
+     * @param bucket Bucket width
+     * @param scale Decimal places of the values, 2 for cents, 0 for counts
+     */
+    public TrendSeries(LocalDate from, LocalDate to, Bucket bucket, int scale) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("scale must be between 0 and " + MAX_SCALE);
+        }
+        this.bucket = bucket;
+        this.scale = scale;
+        this.fromDay = from.toEpochDay();
+        this.toDay = to.toEpochDay();
+        switch (bucket) {
+            case WEEK:
+                this.origin = fromDay - Math.floorMod(fromDay + EPOCH_DAY_OF_WEEK, 7);
+                break;
+            case MONTH:
+                this.origin = monthIndex(from);
+                break;
+            default:
+                this.origin = fromDay;
+        }
+        this.values = new long[Math.toIntExact(rawIndex(to) + 1)];
+    }
+
+    /**
+     * Add a value in units of 10^-scale to the bucket containing the day, days outside the range are ignored
+     */
+    public TrendSeries add(LocalDate day, long units) {
+        if (day != null) {
+            long epochDay = day.toEpochDay();
+            if (epochDay >= fromDay && epochDay <= toDay) {
+                values[(int) rawIndex(day)] += units;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a decimal value, rounded half up to the series scale
+     */
+    public TrendSeries add(LocalDate day, BigDecimal value) {
+        if (value != null) {
+            add(day, value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        }
+        return this;
+    }
+
+    public Bucket getBucket() {
+        return bucket;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Bucket value in units of 10^-scale
+     */
+    public long valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * First day of a bucket within the range
+     */
+    public LocalDate labelAt(int index) {
+        return LocalDate.ofEpochDay(firstDayOf(index));
+    }
+
+    /**
+     * Materialize as the TrendDataVO the series serializes like
+     */
+    public TrendDataVO toTrendDataVO() {
+        List<String> dates = new ArrayList<>(values.length);
+        List<BigDecimal> decimals = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            dates.add(labelAt(i).toString());
+            decimals.add(BigDecimal.valueOf(values[i], scale));
+        }
+        return new TrendDataVO(dates, decimals);
+    }
+
+    private long rawIndex(LocalDate day) {
+        switch (bucket) {
+            case WEEK:
+                return Math.floorDiv(day.toEpochDay() - origin, 7);
+            case MONTH:
+                return monthIndex(day) - origin;
+            default:
+                return day.toEpochDay() - origin;
+        }
+    }
+
+    private long firstDayOf(int index) {
+        if (index == 0) {
+            return fromDay;
+        }
+        switch (bucket) {
+            case WEEK:
+                return origin + 7L * index;
+            case MONTH:
+                long month = origin + index;
+                return LocalDate.of((int) Math.floorDiv(month, 12), (int) Math.floorMod(month, 12) + 1, 1).toEpochDay();
+            default:
+                return origin + index;
+        }
+    }
+
+    private static long monthIndex(LocalDate day) {
+        return day.getYear() * 12L + day.getMonthValue() - 1;
+    }
+
+    /**
+     * Writes yyyy-MM-dd labels and fixed-point numbers from a reused char buffer
+     */
+    public static final class JsonWriter extends StdSerializer<TrendSeries> {
+
+        public JsonWriter() {
+            super(TrendSeries.class);
+        }
+
+        @Override
+        public void serialize(TrendSeries series, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            // "-9223372036854775808." plus up to six decimals fits, so does yyyy-MM-dd
+            char[] buffer = new char[28];
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("dates");
+            for (int i = 0; i < series.values.length; i++) {
+                LocalDate day = series.labelAt(i);
+                int length = writeDate(buffer, day.getYear(), day.getMonthValue(), day.getDayOfMonth());
+                gen.writeString(buffer, 0, length);
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("values");
+            for (long value : series.values) {
+                if (series.scale == 0) {
+                    gen.writeNumber(value);
+                } else {
+                    int length = writeDecimal(buffer, value, series.scale);
+                    gen.writeNumber(buffer, 0, length);
+                }
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+
+        private static int writeDate(char[] buffer, int year, int month, int day) {
+            buffer[0] = (char) ('0' + year / 1000 % 10);
+            buffer[1] = (char) ('0' + year / 100 % 10);
+            buffer[2] = (char) ('0' + year / 10 % 10);
+            buffer[3] = (char) ('0' + year % 10);
+            buffer[4] = '-';
+            buffer[5] = (char) ('0' + month / 10);
+            buffer[6] = (char) ('0' + month % 10);
+            buffer[7] = '-';
+            buffer[8] = (char) ('0' + day / 10);
+            buffer[9] = (char) ('0' + day % 10);
+            return 10;
+        }
+
+        private static int writeDecimal(char[] buffer, long value, int scale) {
+            // Digits are produced right to left from the magnitude kept negative, which also covers Long.MIN_VALUE
+            long remaining = value > 0 ? -value : value;
+            int position = buffer.length;
+            for (int digit = 0; digit < scale; digit++) {
+                buffer[--position] = (char) ('0' - remaining % 10);
+                remaining /= 10;
+            }
+            buffer[--position] = '.';
+            do {
+                buffer[--position] = (char) ('0' - remaining % 10);
+                remaining /= 10;
+            } while (remaining != 0);
+            if (value < 0) {
+                buffer[--position] = '-';
+            }
+            int length = buffer.length - position;
+            System.arraycopy(buffer, position, buffer, 0, length);
+            return length;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.intelijake.mall.statistics.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelijake.mall.statistics.pojo.vo.TrendDataVO;
+import com.intelijake.mall.statistics.util.DateUtils;
+import com.intelijake.mall.statistics.util.TrendSeries;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revenue trend generation for 30 and 365-day periods with sales on 80% of the days:
+ * the previous path (format every row date into a HashMap<String, BigDecimal>, then walk and format
+ * every day again) versus TrendSeries (epoch-day indexed long[] of cents).
+ * The *Json benchmarks include serializing the result with Jackson as the controller does.
+ * No database needed, rows are generated in memory.
+ *
+ * @author Jake
+ * @since 2025-08-15
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrendSeriesBenchmark {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    @Param({"30", "365"})
+    private int periodDays;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Date startDate;
+
+    private Date endDate;
+
+    // Rows as the mapper returned them before: Date and BigDecimal revenue
+    private List<Date> rowDates;
+
+    private List<BigDecimal> rowRevenues;
+
+    // Rows as the mapper returns them now: LocalDate and revenue in cents
+    private List<LocalDate> rowDays;
+
+    private long[] rowCents;
+
+    @Setup
+    public void setup() {
+        LocalDate end = LocalDate.of(2025, 8, 15);
+        LocalDate start = end.minusDays(periodDays);
+        startDate = Date.from(start.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        endDate = Date.from(end.plusDays(1).atStartOfDay(ZoneId.systemDefault()).minusSeconds(1).toInstant());
+
+        Random random = new Random(42);
+        rowDates = new ArrayList<>();
+        rowRevenues = new ArrayList<>();
+        rowDays = new ArrayList<>();
+        List<Long> cents = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            if (random.nextInt(10) < 8) {
+                long amount = 1_000 + random.nextInt(5_000_000);
+                rowDates.add(Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+                rowRevenues.add(BigDecimal.valueOf(amount, 2));
+                rowDays.add(day);
+                cents.add(amount);
+            }
+        }
+        rowCents = cents.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Previous path: HashMap keyed by formatted date, every day formatted and looked up
+     */
+    @Benchmark
+    public TrendDataVO hashMapBuild() {
+        Map<String, BigDecimal> revenueByDate = new HashMap<>();
+        for (int i = 0; i < rowDates.size(); i++) {
+            revenueByDate.put(DateUtils.formatDate(rowDates.get(i)), rowRevenues.get(i));
+        }
+        List<String> allDates = new ArrayList<>();
+        List<BigDecimal> allValues = new ArrayList<>();
+        LocalDate currentDate = DateUtils.toLocalDate(startDate);
+        LocalDate endLocalDate = DateUtils.toLocalDate(endDate);
+        while (!currentDate.isAfter(endLocalDate)) {
+            String dateStr = currentDate.format(DATE_FORMATTER);
+            allDates.add(dateStr);
+            allValues.add(revenueByDate.getOrDefault(dateStr, BigDecimal.ZERO));
+            currentDate = currentDate.plusDays(1);
+        }
+        return new TrendDataVO(allDates, allValues);
+    }
+
+    /**
+     * New path: cents summed into the epoch-day indexed array
+     */
+    @Benchmark
+    public TrendSeries trendSeriesBuild() {
+        TrendSeries series = new TrendSeries(DateUtils.toLocalDate(startDate), DateUtils.toLocalDate(endDate),
+                TrendSeries.Bucket.DAY, 2);
+        for (int i = 0; i < rowCents.length; i++) {
+            series.add(rowDays.get(i), rowCents[i]);
+        }
+        return series;
+    }
+
+    @Benchmark
+    public byte[] hashMapJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(hashMapBuild());
+    }
+
+    @Benchmark
+    public byte[] trendSeriesJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(trendSeriesBuild());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TrendSeriesBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,63 @@
+package com.intelijake.mall.statistics.distinct;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("Small sets are counted exactly and duplicates are ignored")
+    void testSmallCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertEquals(0L, sketch.estimate());
+        for (int round = 0; round < 3; round++) {
+            for (long id = 1; id <= 50; id++) {
+                sketch.add(id);
+            }
+        }
+        assertEquals(50L, sketch.estimate());
+    }
+
+    @Test
+    @DisplayName("Large sets are estimated within a few standard errors")
+    void testLargeCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        int n = 200_000;
+        for (long id = 0; id < n; id++) {
+            sketch.add(id);
+        }
+        double error = Math.abs(sketch.estimate() - n) / (double) n;
+        assertTrue(error < 4 * HyperLogLog.STANDARD_ERROR, "Relative error " + error);
+    }
+
+    @Test
+    @DisplayName("Merging day sketches counts the union, ids shared by both days once")
+    void testMergeIsUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        for (long id = 0; id < 30_000; id++) {
+            monday.add(id);
+            both.add(id);
+        }
+        for (long id = 20_000; id < 50_000; id++) {
+            tuesday.add(id);
+            both.add(id);
+        }
+
+        HyperLogLog merged = HyperLogLog.fromBytes(monday.toBytes());
+        merged.mergeRegisters(tuesday.toBytes());
+
+        assertEquals(both, merged, "A merge must equal the sketch of all ids");
+        merged.merge(tuesday);
+        assertEquals(both, merged, "Merging the same day again changes nothing");
+    }
+
+    @Test
+    @DisplayName("Registers of another precision are rejected")
+    void testRejectsForeignRegisters() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[16]));
+    }
+}
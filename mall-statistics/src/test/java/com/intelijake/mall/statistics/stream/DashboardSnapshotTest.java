@@ -0,0 +1,47 @@
+package com.intelijake.mall.statistics.stream;
+
+import com.intelijake.mall.statistics.pojo.dto.StatusTotalVO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardSnapshotTest {
+
+    @Test
+    @DisplayName("Dashboard counters are derived from the per-status totals")
+    void testDerivedCounters() {
+        DashboardSnapshot snapshot = DashboardSnapshot.of(List.of(
+                new StatusTotalVO(0, "Cancelled", 3L, new BigDecimal("30.00")),
+                new StatusTotalVO(1, "Unpaid", 5L, new BigDecimal("50.00")),
+                new StatusTotalVO(4, "Completed", 7L, new BigDecimal("123.45"))));
+
+        assertEquals(15L, snapshot.getTotalOrders());
+        assertEquals(5L, snapshot.getPendingOrders());
+        assertEquals(7L, snapshot.getCompletedOrders());
+        assertEquals(0, new BigDecimal("123.45").compareTo(snapshot.getTotalRevenue()));
+        assertEquals(List.of("Cancelled", "Unpaid", "Completed"), List.copyOf(snapshot.getStatusCounts().keySet()));
+    }
+
+    @Test
+    @DisplayName("A delta only carries the figures that moved")
+    void testDiff() {
+        DashboardSnapshot before = DashboardSnapshot.of(List.of(
+                new StatusTotalVO(1, "Unpaid", 5L, new BigDecimal("50.00")),
+                new StatusTotalVO(2, "Paid", 2L, new BigDecimal("20.00")),
+                new StatusTotalVO(4, "Completed", 7L, new BigDecimal("70.00"))));
+        DashboardSnapshot after = DashboardSnapshot.of(List.of(
+                new StatusTotalVO(1, "Unpaid", 5L, new BigDecimal("50.00")),
+                new StatusTotalVO(4, "Completed", 9L, new BigDecimal("90.0"))));
+
+        Map<String, Object> changes = after.diff(before);
+        assertEquals(List.of(DashboardSnapshot.TOTAL_REVENUE, DashboardSnapshot.COMPLETED_ORDERS,
+                DashboardSnapshot.STATUS_COUNTS), List.copyOf(changes.keySet()));
+        assertEquals(Map.of("Completed", 9L, "Paid", 0L), changes.get(DashboardSnapshot.STATUS_COUNTS));
+        assertTrue(after.diff(after).isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package com.intelijake.mall.statistics.topk;
+
+import com.intelijake.mall.statistics.pojo.vo.TopProductVO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    @DisplayName("Counts are exact while the sketch has room")
+    void testExactBelowCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        sketch.offer(1, "Apple", 3, new BigDecimal("3.00"));
+        sketch.offer(2, "Pear", 5, new BigDecimal("10.00"));
+        sketch.offer(1, "Apple", 4, new BigDecimal("4.00"));
+
+        List<TopProductVO> top = BestSellerTracker.merge(List.of(sketch), 10);
+
+        assertEquals(2, top.size());
+        assertEquals(1, top.get(0).getProductId());
+        assertEquals(7L, top.get(0).getTotalQuantity());
+        assertEquals(new BigDecimal("7.00"), top.get(0).getTotalRevenue());
+        assertEquals("Pear", top.get(1).getProductName());
+        assertEquals(0, sketch.minCount(), "A sketch with room has no untracked products");
+    }
+
+    @Test
+    @DisplayName("A new product replaces the smallest counter and inherits its count as error")
+    void testEviction() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.offer(1, "A", 10, BigDecimal.ONE);
+        sketch.offer(2, "B", 2, BigDecimal.ONE);
+        sketch.offer(3, "C", 1, BigDecimal.ONE);
+
+        Map<Integer, SpaceSavingSketch.Counter> counters = new HashMap<>();
+        sketch.counters().forEach(counter -> counters.put(counter.getProductId(), counter));
+
+        assertFalse(counters.containsKey(2));
+        assertEquals(3L, counters.get(3).getCount());
+        assertEquals(2L, counters.get(3).getError());
+        assertEquals(3L, sketch.minCount());
+    }
+
+    @Test
+    @DisplayName("Heavy hitters survive a long tail and their counts stay within the error bound")
+    void testHeavyHittersInSkewedStream() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(50);
+        Map<Integer, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            // Products 1..5 take about half of the units, the rest spread over 2000 products
+            int productId = random.nextBoolean() ? 1 + random.nextInt(5) : 100 + random.nextInt(2000);
+            sketch.offer(productId, "P" + productId, 1, BigDecimal.ONE);
+            exact.merge(productId, 1L, Long::sum);
+        }
+
+        List<TopProductVO> top = BestSellerTracker.merge(List.of(sketch), 5);
+
+        for (int rank = 0; rank < 5; rank++) {
+            TopProductVO product = top.get(rank);
+            assertTrue(product.getProductId() <= 5, "Rank " + rank + " should be a heavy hitter");
+            long error = product.getTotalQuantity() - exact.get(product.getProductId());
+            assertTrue(error >= 0 && error <= sketch.minCount(), "Count must overestimate by at most the minimum");
+        }
+    }
+
+    @Test
+    @DisplayName("Merging slot sketches adds up counts of the same product")
+    void testMergeAcrossSlots() {
+        SpaceSavingSketch first = new SpaceSavingSketch(10);
+        SpaceSavingSketch second = new SpaceSavingSketch(10);
+        first.offer(7, "Mango", 2, new BigDecimal("4.00"));
+        second.offer(7, "Mango", 3, new BigDecimal("6.00"));
+        second.offer(8, "Kiwi", 4, new BigDecimal("2.00"));
+
+        List<TopProductVO> top = BestSellerTracker.merge(List.of(first, second), 1);
+
+        assertEquals(1, top.size());
+        assertEquals(7, top.get(0).getProductId());
+        assertEquals(5L, top.get(0).getTotalQuantity());
+        assertEquals(new BigDecimal("10.00"), top.get(0).getTotalRevenue());
+    }
+}
@@ -0,0 +1,88 @@
+package com.intelijake.mall.statistics.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intelijake.mall.statistics.pojo.vo.TrendDataVO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendSeriesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Days without values are zero filled and days outside the range ignored")
+    void testDailyZeroFill() {
+        TrendSeries series = new TrendSeries(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 5), TrendSeries.Bucket.DAY, 2)
+                .add(LocalDate.of(2025, 8, 2), 1250L)
+                .add(LocalDate.of(2025, 8, 2), new BigDecimal("0.505"))
+                .add(LocalDate.of(2025, 8, 5), 99L)
+                .add(LocalDate.of(2025, 8, 6), 1000L);
+
+        TrendDataVO vo = series.toTrendDataVO();
+        assertEquals(List.of("2025-08-01", "2025-08-02", "2025-08-03", "2025-08-04", "2025-08-05"), vo.getDates());
+        assertEquals(List.of(new BigDecimal("0.00"), new BigDecimal("13.01"), new BigDecimal("0.00"),
+                new BigDecimal("0.00"), new BigDecimal("0.99")), vo.getValues());
+    }
+
+    @Test
+    @DisplayName("Weeks start on Monday, the first one is labelled by the range start")
+    void testWeeklyBuckets() {
+        // 2025-08-06 is a Wednesday
+        TrendSeries series = new TrendSeries(LocalDate.of(2025, 8, 6), LocalDate.of(2025, 8, 18), TrendSeries.Bucket.WEEK, 0)
+                .add(LocalDate.of(2025, 8, 6), 1L)
+                .add(LocalDate.of(2025, 8, 10), 2L)
+                .add(LocalDate.of(2025, 8, 11), 3L)
+                .add(LocalDate.of(2025, 8, 18), 4L);
+
+        assertEquals(3, series.size());
+        assertEquals(LocalDate.of(2025, 8, 6), series.labelAt(0));
+        assertEquals(LocalDate.of(2025, 8, 11), series.labelAt(1));
+        assertEquals(LocalDate.of(2025, 8, 18), series.labelAt(2));
+        assertEquals(3L, series.valueAt(0));
+        assertEquals(3L, series.valueAt(1));
+        assertEquals(4L, series.valueAt(2));
+    }
+
+    @Test
+    @DisplayName("Months span year boundaries")
+    void testMonthlyBuckets() {
+        TrendSeries series = new TrendSeries(LocalDate.of(2024, 11, 20), LocalDate.of(2025, 2, 3), TrendSeries.Bucket.MONTH, 0)
+                .add(LocalDate.of(2024, 11, 30), 5L)
+                .add(LocalDate.of(2025, 1, 1), 7L)
+                .add(LocalDate.of(2025, 2, 3), 1L);
+
+        TrendDataVO vo = series.toTrendDataVO();
+        assertEquals(List.of("2024-11-20", "2024-12-01", "2025-01-01", "2025-02-01"), vo.getDates());
+        assertEquals(List.of(new BigDecimal(5), BigDecimal.ZERO, new BigDecimal(7), BigDecimal.ONE), vo.getValues());
+    }
+
+    @Test
+    @DisplayName("JSON has the TrendDataVO shape")
+    void testJsonShape() throws Exception {
+        TrendSeries revenue = new TrendSeries(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 3), TrendSeries.Bucket.DAY, 2)
+                .add(LocalDate.of(2025, 8, 1), 5L)
+                .add(LocalDate.of(2025, 8, 3), -123456L);
+        assertEquals("{\"dates\":[\"2025-08-01\",\"2025-08-02\",\"2025-08-03\"],\"values\":[0.05,0.00,-1234.56]}",
+                objectMapper.writeValueAsString(revenue));
+
+        TrendSeries registrations = new TrendSeries(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 2), TrendSeries.Bucket.DAY, 0)
+                .add(LocalDate.of(2025, 8, 2), 42L);
+        assertEquals("{\"dates\":[\"2025-08-01\",\"2025-08-02\"],\"values\":[0,42]}",
+                objectMapper.writeValueAsString(registrations));
+    }
+
+    @Test
+    @DisplayName("Unknown bucket names are rejected")
+    void testBucketParse() {
+        assertEquals(TrendSeries.Bucket.DAY, TrendSeries.Bucket.parse(null));
+        assertEquals(TrendSeries.Bucket.WEEK, TrendSeries.Bucket.parse("week"));
+        assertEquals(TrendSeries.Bucket.MONTH, TrendSeries.Bucket.parse("MONTH"));
+        assertNull(TrendSeries.Bucket.parse("year"));
+    }
+}
@@ -153,45 +153,13 @@ export const productService = {
     }
 
     try {
-      // Get all products for suggestions
-      const response = await apiClient.get('/product/customer/list')
+      // Completions come from the server-side suggestion index instead of the whole catalog
+      const response = await apiClient.get('/product/suggest', {
+        params: { prefix: query.trim(), limit }
+      })
 
-      if (response.data && response.data.records) {
-        const searchTerm = query.toLowerCase().trim()
-        const suggestions = []
-        const seen = new Set()
-
-        // Extract suggestions from product names
-        response.data.records.forEach(product => {
-          const name = product.name.toLowerCase()
-          if (name.includes(searchTerm)) {
-            // Add the full product name
-            if (!seen.has(product.name) && suggestions.length < limit) {
-              suggestions.push({
-                text: product.name,
-                type: 'product',
-                id: product.id
-              })
-              seen.add(product.name)
-            }
-
-            // Add individual words from the product name
-            const words = product.name.split(' ')
-            words.forEach(word => {
-              const cleanWord = word.toLowerCase().trim()
-              if (cleanWord.includes(searchTerm) && !seen.has(cleanWord) && suggestions.length < limit) {
-                suggestions.push({
-                  text: cleanWord,
-                  type: 'keyword',
-                  id: null
-                })
-                seen.add(cleanWord)
-              }
-            })
-          }
-        })
-
-        return { data: suggestions.slice(0, limit) }
+      if (Array.isArray(response.data)) {
+        return { data: response.data }
       }
     } catch (error) {
       console.error('Error getting search suggestions:', error)